@@ -1,8 +1,12 @@
 package com.qa.framework;
 
+import com.library.common.ClassHelper;
 import com.library.common.ReflectHelper;
+import com.qa.framework.config.PropConfig;
 import com.qa.framework.ioc.ClassScanner;
 import com.qa.framework.ioc.impl.DefaultClassScanner;
+import com.qa.framework.pagefactory.wait.ScriptWaitEngine;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +26,11 @@ public class InstanceFactory {
      */
     private static final String CLASS_SCANNER = "class_scanner";
 
+    /**
+     * WaitEngine
+     */
+    private static final String WAIT_ENGINE = "wait_engine";
+
 
     /**
      * 获取 ClassScanner
@@ -33,6 +42,18 @@ public class InstanceFactory {
     }
 
 
+    /**
+     * 获取 WaitEngine, 可通过 config.properties 中的 waitEngine 指定实现类
+     *
+     * @return the wait engine
+     */
+    public static WaitEngine getWaitEngine() {
+        if (PropConfig.getWaitEngine() != null) {
+            return getInstance(WAIT_ENGINE, ClassHelper.loadClass(PropConfig.getWaitEngine()).asSubclass(WaitEngine.class));
+        }
+        return getInstance(WAIT_ENGINE, ScriptWaitEngine.class);
+    }
+
     /**
      * Gets instance.
      *
@@ -5,6 +5,7 @@ import com.qa.framework.android.DebugBridge;
 import com.qa.framework.cache.DriverCache;
 import com.qa.framework.cache.MethodCache;
 import com.qa.framework.config.DriverConfig;
+import com.qa.framework.config.DriverPool;
 import com.qa.framework.config.PropConfig;
 import com.qa.framework.testnglistener.PowerEmailableReporter;
 import com.qa.framework.testnglistener.SuiteListener;
@@ -13,12 +14,10 @@ import org.apache.log4j.Logger;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ThreadGuard;
 import org.testng.ITestContext;
 import org.testng.annotations.*;
 
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
 import java.net.URL;
 
 import static com.qa.framework.ioc.AutoInjectHelper.initFields;
@@ -68,6 +67,7 @@ public abstract class TestCaseBase {
     public void AfterSuite(ITestContext context) throws Exception {
         logger.info("afterSuite");
         afterSuite();
+        DriverPool.shutdown();
         if (PropConfig.getCoreType().equalsIgnoreCase("ANDROIDAPP")) {
             //AccessibilityEventMonitor.stop();
             DebugBridge.terminate();
@@ -81,25 +81,31 @@ public abstract class TestCaseBase {
     }
 
     private void getDriverObj() throws Exception {
-        WebDriver driver = null;
-        if (!(PropConfig.getCoreType().equalsIgnoreCase("ANDROIDAPP") || PropConfig.getCoreType().equalsIgnoreCase("IOSAPP"))) {
-            if (hubURL != null) {
-                DesiredCapabilities capability = null;
-                if (browser.contains("firefox")) {
-                    capability = DesiredCapabilities.firefox();
-                } else if (browser.contains("chrome")) {
-                    capability = DesiredCapabilities.chrome();
-                }
-                try {
-                    driver = ThreadGuard.protect(new RemoteWebDriver(new URL(hubURL), capability));
-                } catch (MalformedURLException e) {
-                    logger.error(e.getMessage(), e);
-                }
+        WebDriver driver;
+        if (hubURL != null && !(PropConfig.getCoreType().equalsIgnoreCase("ANDROIDAPP") || PropConfig.getCoreType().equalsIgnoreCase("IOSAPP"))) {
+            final DesiredCapabilities capability;
+            if (browser.contains("firefox")) {
+                capability = DesiredCapabilities.firefox();
+            } else if (browser.contains("chrome")) {
+                capability = DesiredCapabilities.chrome();
             } else {
-                driver = DriverConfig.getDriverObject();
+                capability = null;
             }
+            final URL url = new URL(hubURL);
+            driver = DriverPool.lease(hubURL + "|" + browser, true, new DriverPool.DriverFactory() {
+                @Override
+                public WebDriver create() {
+                    return new RemoteWebDriver(url, capability);
+                }
+            });
         } else {
-            driver = DriverConfig.getDriverObject();
+            final DriverConfig.selectedBrowser browserType = DriverConfig.nextBrowserType();
+            driver = DriverPool.lease(browserType.name(), DriverConfig.isThreadGuarded(browserType), new DriverPool.DriverFactory() {
+                @Override
+                public WebDriver create() throws Exception {
+                    return DriverConfig.createDriverObject(browserType);
+                }
+            });
         }
         DriverCache.set(driver);
     }
@@ -198,7 +204,7 @@ public abstract class TestCaseBase {
         afterMethod(method, para);
         afterMethod();
         WebDriver driver = DriverCache.get();
-        driver.quit();
+        DriverPool.release(driver);
     }
 
     /**
@@ -1,13 +1,14 @@
 package com.qa.framework.android.automationserver.hierarchyviewer;
 
 import com.android.ddmlib.IDevice;
-import com.qa.framework.android.automationserver.hierarchyviewer.device.DeviceBridge;
 import com.qa.framework.android.automationserver.hierarchyviewer.device.ViewNode;
+import com.qa.framework.android.automationserver.hierarchyviewer.device.ViewNodeIndex;
 import com.qa.framework.android.automationserver.hierarchyviewer.device.Window;
+import com.qa.framework.android.automationserver.hierarchyviewer.device.WindowCache;
 import org.apache.log4j.Logger;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The type Hierarchy viewer.
@@ -49,14 +50,12 @@ public class HierarchyViewer {
      * @return the element text by id
      */
     public String getElementTextById(String id) {
-        Window[] windows = DeviceBridge.loadWindows(device);
+        Window[] windows = WindowCache.getWindows(device);
         for (Window window : windows) {
-            ViewNode viewNode = DeviceBridge.loadWindowData(window);
-            if (viewNode != null) {
-                ArrayList<ViewNode> resultNodes = new ArrayList<>();
-                searchElementRecursionById(viewNode, id, resultNodes);
-                if (resultNodes.size() > 0) {
-                    ViewNode node = resultNodes.get(0);
+            ViewNodeIndex index = WindowCache.getWindowIndex(window);
+            if (index != null) {
+                ViewNode node = index.findById(id);
+                if (node != null) {
                     return node.namedProperties.get("text:mText").value;
                 }
             }
@@ -73,12 +72,11 @@ public class HierarchyViewer {
      * @return the element location by text
      */
     public Rectangle getElementLocationByText(String text, int index) {
-        Window[] windows = DeviceBridge.loadWindows(device);
+        Window[] windows = WindowCache.getWindows(device);
         for (Window window : windows) {
-            ViewNode viewNode = DeviceBridge.loadWindowData(window);
-            if (viewNode != null) {
-                ArrayList<ViewNode> resultNodes = new ArrayList<>();
-                searchElementRecursionByText(viewNode, text, resultNodes, index);
+            ViewNodeIndex viewNodeIndex = WindowCache.getWindowIndex(window);
+            if (viewNodeIndex != null) {
+                List<ViewNode> resultNodes = viewNodeIndex.findByText(text, index + 1);
                 if (resultNodes.size() > index) {
                     ViewNode node = resultNodes.get(index);
                     ViewNode.Property mLeftProperty = node.namedProperties.get("layout:mLeft");
@@ -93,46 +91,6 @@ public class HierarchyViewer {
         return null;
     }
 
-    private void searchElementRecursionByText(ViewNode viewNode, String text, ArrayList<ViewNode> resultNodes, int index) {
-        if (viewNode.children.size() > 0) {
-            for (int i = 0; i < viewNode.children.size(); i++) {
-                ViewNode node = viewNode.children.get(i);
-                ViewNode.Property property = node.namedProperties.get("text:mText");
-                if (property == null) {
-                    searchElementRecursionByText(node, text, resultNodes, index);
-                } else {
-                    if (!property.value.contains(text)) {
-                        searchElementRecursionByText(node, text, resultNodes, index);
-                    } else {
-                        resultNodes.add(node);
-                        if (resultNodes.size() > index) {
-                            return;
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    private void searchElementRecursionById(ViewNode viewNode, String id, ArrayList<ViewNode> resultNodes) {
-        if (viewNode.children.size() > 0) {
-            for (int i = 0; i < viewNode.children.size(); i++) {
-                ViewNode node = viewNode.children.get(i);
-                ViewNode.Property property = node.namedProperties.get("mID");
-                if (property == null) {
-                    searchElementRecursionById(node, id, resultNodes);
-                } else {
-                    if (!property.value.equalsIgnoreCase(id)) {
-                        searchElementRecursionById(node, id, resultNodes);
-                    } else {
-                        resultNodes.add(node);
-                        return;
-                    }
-                }
-            }
-        }
-    }
-
     private void getValidLeftTopPoint(ViewNode viewNode, Point point) {
         if (viewNode.parent == null) {
             return;
@@ -0,0 +1,102 @@
+package com.qa.framework.android.automationserver.hierarchyviewer.device;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按行读取 view server 的输出: 数据直接读入 ByteBuffer, 在字节中查找换行和行首的缩进,
+ * 每行只解码一次为 String, 不经过 BufferedReader 的字符缓冲和 substring.
+ * 输入流是 SocketChannel 的 socket 输入流, 读取时遵守 socket 的超时设置.
+ */
+class ChannelLineReader {
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private final InputStream in;
+    // 读模式: position 到 limit 是未读的数据
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private int indent;
+    private boolean eof = false;
+
+    /**
+     * Instantiates a new Channel line reader.
+     *
+     * @param in the socket input stream
+     */
+    ChannelLineReader(InputStream in) {
+        this.in = in;
+        buffer.flip();
+    }
+
+    /**
+     * Read the next line without the leading spaces, the number of spaces is returned by {@link #getIndent()}.
+     *
+     * @return the line, null at the end of the stream
+     * @throws IOException the io exception
+     */
+    String readLine() throws IOException {
+        int scanned = buffer.position();
+        while (true) {
+            byte[] array = buffer.array();
+            for (int i = scanned; i < buffer.limit(); i++) {
+                if (array[i] == '\n') {
+                    String line = decode(buffer.position(), i);
+                    buffer.position(i + 1);
+                    return line;
+                }
+            }
+            if (eof) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                String line = decode(buffer.position(), buffer.limit());
+                buffer.position(buffer.limit());
+                return line;
+            }
+            scanned = buffer.limit() - buffer.position();
+            fill();
+        }
+    }
+
+    /**
+     * Gets the number of leading spaces of the last line, i.e. the depth of the node in a window dump.
+     *
+     * @return the indent
+     */
+    int getIndent() {
+        return indent;
+    }
+
+    private String decode(int start, int end) {
+        byte[] array = buffer.array();
+        int from = start;
+        while (from < end && array[from] == ' ') {
+            from++;
+        }
+        indent = from - start;
+        if (end > from && array[end - 1] == '\r') {
+            end--;
+        }
+        return new String(array, from, end - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 把未读的数据移到缓冲区开头, 行比缓冲区长时扩大缓冲区, 然后从输入流读入
+     */
+    private void fill() throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+        if (read < 0) {
+            eof = true;
+        } else {
+            buffer.position(buffer.position() + read);
+        }
+        buffer.flip();
+    }
+}
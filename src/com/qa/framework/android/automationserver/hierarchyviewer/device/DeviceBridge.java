@@ -330,7 +330,7 @@ public class DeviceBridge {
         try {
             connection = new DeviceConnection(device);
             connection.sendCommand("LIST");
-            BufferedReader in = connection.getInputStream();
+            ChannelLineReader in = connection.getLineReader();
             String line;
             while ((line = in.readLine()) != null) {
                 if ("DONE.".equalsIgnoreCase(line)) {
@@ -417,7 +417,7 @@ public class DeviceBridge {
         try {
             connection = new DeviceConnection(window.getDevice());
             connection.sendCommand("DUMP " + window.encode());
-            BufferedReader in = connection.getInputStream();
+            ChannelLineReader in = connection.getLineReader();
             ViewNode currentNode = null;
             int currentDepth = -1;
             String line;
@@ -425,15 +425,13 @@ public class DeviceBridge {
                 if ("DONE.".equalsIgnoreCase(line)) {
                     break;
                 }
-                int depth = 0;
-                while (line.charAt(depth) == ' ') {
-                    depth++;
-                }
+                // the reader strips the indent, which is the depth of the node
+                int depth = in.getIndent();
                 while (depth <= currentDepth) {
                     currentNode = currentNode.parent;
                     currentDepth--;
                 }
-                currentNode = new ViewNode(window, currentNode, line.substring(depth));
+                currentNode = new ViewNode(window, currentNode, line);
                 currentDepth = depth;
             }
             if (currentNode == null) {
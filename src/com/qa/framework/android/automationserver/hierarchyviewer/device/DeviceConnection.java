@@ -36,6 +36,8 @@ public class DeviceConnection {
 
     private BufferedWriter out;
 
+    private ChannelLineReader lineReader;
+
     /**
      * Instantiates a new Device connection.
      *
@@ -67,6 +69,20 @@ public class DeviceConnection {
         return in;
     }
 
+    /**
+     * Gets the line reader, which reads the response into a byte buffer instead of a BufferedReader.
+     * Do not mix it with {@link #getInputStream()}.
+     *
+     * @return the line reader
+     * @throws IOException the io exception
+     */
+    ChannelLineReader getLineReader() throws IOException {
+        if (lineReader == null) {
+            lineReader = new ChannelLineReader(socketChannel.socket().getInputStream());
+        }
+        return lineReader;
+    }
+
     /**
      * Gets in stream.
      *
@@ -0,0 +1,101 @@
+package com.qa.framework.android.automationserver.hierarchyviewer.device;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一个窗口的 view 树的索引: 按 mID 查找节点, 按文本查找时遍历预先展开的节点数组, 不再递归.
+ * 查找结果与在树中递归查找相同: 按先序排列, 不包括根节点, 也不包括已匹配节点的子节点.
+ */
+public class ViewNodeIndex {
+    private static final String ID_PROPERTY = "mID";
+    private static final String TEXT_PROPERTY = "text:mText";
+    private final ViewNode root;
+    // 先序排列的节点, nodes[i] 的子树是 nodes[i] 到 nodes[subtreeEnds[i] - 1]
+    private final ViewNode[] nodes;
+    private final int[] subtreeEnds;
+    private final String[] texts;
+    private final Map<String, ViewNode> nodesById = new HashMap<String, ViewNode>();
+
+    /**
+     * Instantiates a new View node index.
+     *
+     * @param root the root of the window
+     */
+    public ViewNodeIndex(ViewNode root) {
+        this.root = root;
+        List<ViewNode> list = new ArrayList<ViewNode>();
+        List<Integer> ends = new ArrayList<Integer>();
+        for (ViewNode child : root.children) {
+            addSubtree(child, list, ends);
+        }
+        nodes = list.toArray(new ViewNode[list.size()]);
+        subtreeEnds = new int[nodes.length];
+        texts = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            subtreeEnds[i] = ends.get(i);
+            ViewNode.Property text = nodes[i].namedProperties.get(TEXT_PROPERTY);
+            texts[i] = text != null ? text.value : null;
+            ViewNode.Property id = nodes[i].namedProperties.get(ID_PROPERTY);
+            if (id != null) {
+                String key = id.value.toLowerCase(Locale.ROOT);
+                if (!nodesById.containsKey(key)) {
+                    nodesById.put(key, nodes[i]);
+                }
+            }
+        }
+    }
+
+    private static void addSubtree(ViewNode node, List<ViewNode> list, List<Integer> ends) {
+        int index = list.size();
+        list.add(node);
+        ends.add(0);
+        for (ViewNode child : node.children) {
+            addSubtree(child, list, ends);
+        }
+        ends.set(index, list.size());
+    }
+
+    /**
+     * Gets the root of the window.
+     *
+     * @return the root
+     */
+    public ViewNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Find the first node whose mID equals the id, ignoring case.
+     *
+     * @param id the id, e.g. id/title
+     * @return the node, null if not found
+     */
+    public ViewNode findById(String id) {
+        return nodesById.get(id.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Find the nodes whose text contains the string.
+     *
+     * @param text  the text
+     * @param limit stop after the number of nodes are found
+     * @return the nodes
+     */
+    public List<ViewNode> findByText(String text, int limit) {
+        List<ViewNode> result = new ArrayList<ViewNode>();
+        int i = 0;
+        while (i < nodes.length && result.size() < limit) {
+            if (texts[i] != null && texts[i].contains(text)) {
+                result.add(nodes[i]);
+                i = subtreeEnds[i];
+            } else {
+                i++;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,185 @@
+package com.qa.framework.android.automationserver.hierarchyviewer.device;
+
+import com.android.ddmlib.IDevice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 每台设备的窗口列表, 焦点窗口和窗口内容的缓存. view server 每个命令使用一个连接, 执行完后由设备关闭,
+ * 只有 AUTOLIST 连接保持打开: 通过 {@link WindowUpdater} 的 AUTOLIST 连接监听窗口变化,
+ * 窗口列表或焦点变化时清空缓存. 焦点窗口每次都重新 dump, 其它窗口使用缓存的内容.
+ * AUTOLIST 未连接时(protocol 小于 3 或连接断开)不缓存, 每次都从设备读取.
+ */
+public class WindowCache {
+    private static final Map<IDevice, DeviceWindows> devices = new HashMap<IDevice, DeviceWindows>();
+
+    /**
+     * Gets the windows of the device, from the top to the bottom.
+     *
+     * @param device the device
+     * @return the windows
+     */
+    public static Window[] getWindows(IDevice device) {
+        DeviceWindows state = getState(device);
+        if (state == null) {
+            return DeviceBridge.loadWindows(device);
+        }
+        int generation;
+        synchronized (state) {
+            if (state.windows != null) {
+                return state.windows.clone();
+            }
+            generation = state.generation;
+        }
+        Window[] windows = DeviceBridge.loadWindows(device);
+        synchronized (state) {
+            // 读取期间窗口有变化时不缓存
+            if (state.generation == generation && windows.length > 0) {
+                state.windows = windows.clone();
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Gets the hash code of the focused window.
+     *
+     * @param device the device
+     * @return the hash code, -1 if unknown
+     */
+    public static int getFocusedWindow(IDevice device) {
+        DeviceWindows state = getState(device);
+        if (state == null) {
+            return DeviceBridge.getFocusedWindow(device);
+        }
+        int generation;
+        synchronized (state) {
+            if (state.focusedWindow != null) {
+                return state.focusedWindow;
+            }
+            generation = state.generation;
+        }
+        int focusedWindow = DeviceBridge.getFocusedWindow(device);
+        synchronized (state) {
+            if (state.generation == generation && focusedWindow != -1) {
+                state.focusedWindow = focusedWindow;
+            }
+        }
+        return focusedWindow;
+    }
+
+    /**
+     * Gets the indexed view tree of the window. The focused window is always dumped again.
+     *
+     * @param window the window
+     * @return the index, null if the window cannot be dumped
+     */
+    public static ViewNodeIndex getWindowIndex(Window window) {
+        IDevice device = window.getDevice();
+        DeviceWindows state = getState(device);
+        if (state == null) {
+            return load(window);
+        }
+        boolean focused = window.getHashCode() == getFocusedWindow(device);
+        int generation;
+        synchronized (state) {
+            if (!focused) {
+                ViewNodeIndex index = state.windowData.get(window.getHashCode());
+                if (index != null) {
+                    return index;
+                }
+            }
+            generation = state.generation;
+        }
+        ViewNodeIndex index = load(window);
+        if (index != null && !focused) {
+            synchronized (state) {
+                if (state.generation == generation) {
+                    state.windowData.put(window.getHashCode(), index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Clear the cached windows of the device.
+     *
+     * @param device the device
+     */
+    public static void invalidate(IDevice device) {
+        DeviceWindows state;
+        synchronized (devices) {
+            state = devices.get(device);
+        }
+        if (state != null) {
+            state.invalidate();
+        }
+    }
+
+    /**
+     * Stop caching the windows of the device and close the AUTOLIST connection.
+     *
+     * @param device the device
+     */
+    public static void remove(IDevice device) {
+        DeviceWindows state;
+        synchronized (devices) {
+            state = devices.remove(device);
+        }
+        if (state != null) {
+            WindowUpdater.stopListenForWindowChanges(state, device);
+        }
+    }
+
+    private static ViewNodeIndex load(Window window) {
+        ViewNode root = DeviceBridge.loadWindowData(window);
+        return root != null ? new ViewNodeIndex(root) : null;
+    }
+
+    private static DeviceWindows getState(IDevice device) {
+        DeviceBridge.ViewServerInfo serverInfo = DeviceBridge.getViewServerInfo(device);
+        if (serverInfo == null) {
+            serverInfo = DeviceBridge.loadViewServerInfo(device);
+        }
+        // AUTOLIST 从 protocol 3 开始支持
+        if (serverInfo == null || serverInfo.protocolVersion < 3) {
+            return null;
+        }
+        DeviceWindows state;
+        synchronized (devices) {
+            state = devices.get(device);
+            if (state == null) {
+                state = new DeviceWindows();
+                devices.put(device, state);
+                WindowUpdater.startListenForWindowChanges(state, device);
+            }
+        }
+        return WindowUpdater.isListening(device) ? state : null;
+    }
+
+    private static class DeviceWindows implements WindowUpdater.IWindowChangeListener {
+        private final Map<Integer, ViewNodeIndex> windowData = new HashMap<Integer, ViewNodeIndex>();
+        private int generation = 0;
+        private Window[] windows;
+        private Integer focusedWindow;
+
+        private synchronized void invalidate() {
+            generation++;
+            windows = null;
+            focusedWindow = null;
+            windowData.clear();
+        }
+
+        @Override
+        public void windowsChanged(IDevice device) {
+            invalidate();
+        }
+
+        @Override
+        public void focusChanged(IDevice device) {
+            invalidate();
+        }
+    }
+}
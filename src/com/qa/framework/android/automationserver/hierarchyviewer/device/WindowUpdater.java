@@ -20,7 +20,11 @@ import com.android.ddmlib.IDevice;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class handles automatic updating of the list of windows in the device
@@ -34,6 +38,13 @@ public class WindowUpdater {
 
     private static HashMap<IDevice, Thread> listeningThreads = new HashMap<IDevice, Thread>();
 
+    // devices whose AUTOLIST connection is open, i.e. no change notification can be missed
+    private static final Set<IDevice> connectedDevices = Collections.synchronizedSet(new HashSet<IDevice>());
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
     /**
      * Terminate.
      */
@@ -65,7 +76,9 @@ public class WindowUpdater {
             windowChangeListeners.put(device, listeners);
         }
         // Start listening
-        Thread listeningThread = new Thread(new WindowChangeMonitor(device));
+        Thread listeningThread = new Thread(new WindowChangeMonitor(device),
+                "window-updater-" + threadCount.incrementAndGet());
+        listeningThread.setDaemon(true);
         synchronized (listeningThreads) {
             listeningThreads.put(device, listeningThread);
         }
@@ -97,6 +110,16 @@ public class WindowUpdater {
         listeningThread.interrupt();
     }
 
+    /**
+     * Whether the AUTOLIST connection to the device is open, so the listeners are notified of every change.
+     *
+     * @param device the device
+     * @return the boolean
+     */
+    public static boolean isListening(IDevice device) {
+        return connectedDevices.contains(device);
+    }
+
     private static IWindowChangeListener[] getWindowChangeListenersAsArray(IDevice device) {
         IWindowChangeListener[] listeners;
         synchronized (windowChangeListeners) {
@@ -177,6 +200,9 @@ public class WindowUpdater {
                 try {
                     connection = new DeviceConnection(device);
                     connection.sendCommand("AUTOLIST");
+                    // changes may have been missed while not connected
+                    connectedDevices.add(device);
+                    notifyWindowsChanged(device);
                     String line;
                     while (!Thread.currentThread().isInterrupted()
                             && (line = connection.getInputStream().readLine()) != null) {
@@ -189,10 +215,19 @@ public class WindowUpdater {
 
                 } catch (IOException e) {
                 } finally {
+                    connectedDevices.remove(device);
                     if (connection != null) {
                         connection.close();
                     }
                 }
+                if (!Thread.currentThread().isInterrupted()) {
+                    notifyWindowsChanged(device);
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
             }
         }
     }
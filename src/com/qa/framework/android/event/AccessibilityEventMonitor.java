@@ -20,6 +20,8 @@ public class AccessibilityEventMonitor {
     private static ExecutorService executorService = Executors.newSingleThreadExecutor();
     private static List<String> toastEventLogs = new ArrayList<String>();
     private static boolean isCancelMonitored = false;
+    private static volatile boolean isRunning = false;
+    private static volatile long lastEventTime = 0;
 
     /**
      * Start.
@@ -35,10 +37,29 @@ public class AccessibilityEventMonitor {
      */
     public static void stop() {
         isCancelMonitored = true;
+        isRunning = false;
         executorService.shutdown();
         executorService.shutdownNow();
     }
 
+    /**
+     * Is running boolean.
+     *
+     * @return true when the event stream of the device is being monitored
+     */
+    public static boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Gets the time the last accessibility event was received.
+     *
+     * @return the last event time in milliseconds
+     */
+    public static long getLastEventTime() {
+        return lastEventTime;
+    }
+
     /**
      * Gets last toast.
      *
@@ -111,9 +132,12 @@ public class AccessibilityEventMonitor {
             try {
                 IDevice device = DebugBridge.getDevice();
                 if (device != null) {
+                    isRunning = true;
+                    lastEventTime = System.currentTimeMillis();
                     MultiLineReceiver receiver = new MultiLineReceiver() {
                         @Override
                         public void processNewLines(String[] lines) {
+                            lastEventTime = System.currentTimeMillis();
                             for (String line : lines) {
                                 if (line.contains("ClassName: android.widget.Toast")) {
                                     toastEventLogs.add(StringHelper.getBetweenString(line, "Text: [", "]; ContentDescription"));
@@ -133,6 +157,8 @@ public class AccessibilityEventMonitor {
                 }
             } catch (Exception e) {
                 logger.error(e.getMessage(), e);
+            } finally {
+                isRunning = false;
             }
         }
     }
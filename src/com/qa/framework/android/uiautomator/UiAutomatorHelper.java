@@ -1,20 +1,25 @@
 package com.qa.framework.android.uiautomator;
 
 import com.android.ddmlib.IDevice;
-import com.android.ddmlib.NullOutputReceiver;
+import com.android.ddmlib.IShellOutputReceiver;
 import com.android.ddmlib.RawImage;
-import com.android.ddmlib.SyncService;
-import com.library.common.IOHelper;
 import com.qa.framework.android.DebugBridge;
 import com.qa.framework.android.automationserver.hierarchyviewer.device.DeviceBridge;
 import com.qa.framework.android.uiautomator.tree.BasicTreeNode;
+import com.qa.framework.config.PropConfig;
 import org.apache.log4j.Logger;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The type Ui automator helper.
@@ -28,9 +33,14 @@ public class UiAutomatorHelper {
     private static final String UIAUTOMATOR = "/system/bin/uiautomator";    //$NON-NLS-1$
     private static final String UIAUTOMATOR_DUMP_COMMAND = "dump";          //$NON-NLS-1$
     private static final String UIDUMP_DEVICE_PATH = "/data/local/tmp/uidump.xml";  //$NON-NLS-1$
+    private static final String UIDUMP_TTY = "/dev/tty";  //$NON-NLS-1$
+    private static final byte[] XML_START = "<?xml".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] XML_END = "</hierarchy>".getBytes(StandardCharsets.US_ASCII);
     private static final int XML_CAPTURE_TIMEOUT_SEC = 40;
     private static IDevice device = null;
     private static Logger logger = Logger.getLogger(UiAutomatorHelper.class);
+    // 每台设备最近一次 dump 的结果
+    private static final Map<String, HierarchySnapshot> snapshots = new ConcurrentHashMap<String, HierarchySnapshot>();
 
     static {
         DebugBridge.init();
@@ -156,115 +166,153 @@ public class UiAutomatorHelper {
         return searchUiHierarchyContent(device, tofind);
     }
 
-    @SuppressWarnings("deprecation")
-    private static void getUiHierarchyFile(IDevice device, File dst, boolean compressed) {
-
-        String command = "rm " + UIDUMP_DEVICE_PATH;
-
-        try {
-            device.executeShellCommand(command,
-                    new NullOutputReceiver(), 5 * 1000);
-        } catch (Exception e1) {
-            // ignore exceptions while deleting stale files
-        }
-
-        if (compressed) {
-            command = String.format("%s %s --compressed %s", UIAUTOMATOR,
-                    UIAUTOMATOR_DUMP_COMMAND,
-                    UIDUMP_DEVICE_PATH);
-        } else {
-            command = String.format("%s %s %s", UIAUTOMATOR,
-                    UIAUTOMATOR_DUMP_COMMAND,
-                    UIDUMP_DEVICE_PATH);
-        }
+    /**
+     * Gets the model of the current ui hierarchy, the model is reused while the hierarchy does not change.
+     *
+     * @return the ui automator model
+     * @throws UiAutomatorException the ui automator exception
+     */
+    public static UiAutomatorModel getUiAutomatorModel() throws UiAutomatorException {
+        return getUiAutomatorModel(device);
+    }
 
-        try {
-            device.executeShellCommand(
-                    command,
-                    new NullOutputReceiver(),
-                    XML_CAPTURE_TIMEOUT_SEC * 1000);
-            device.getSyncService().pullFile(UIDUMP_DEVICE_PATH,
-                    dst.getAbsolutePath(), SyncService.getNullProgressMonitor());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    /**
+     * Gets the model of the current ui hierarchy of the device, the model is reused while the hierarchy does not change.
+     *
+     * @param device the device
+     * @return the ui automator model
+     * @throws UiAutomatorException the ui automator exception
+     */
+    public static UiAutomatorModel getUiAutomatorModel(IDevice device) throws UiAutomatorException {
+        byte[] xml = getUiHierarchyXml(device);
+        HierarchySnapshot snapshot = snapshots.get(device.getSerialNumber());
+        if (snapshot == null || !Arrays.equals(snapshot.xml, xml)) {
+            snapshot = new HierarchySnapshot(xml);
+            snapshots.put(device.getSerialNumber(), snapshot);
         }
+        return snapshot.getModel();
     }
 
-    private static boolean searchUiHierarchyContent(IDevice device, String tofind) throws UiAutomatorException {
+    /**
+     * 在设备上 dump 到 /dev/tty, 从 shell 的输出中读取 xml, 不在设备和本机上创建文件;
+     * 不支持 /dev/tty 的设备 dump 到文件后用 cat 读取
+     */
+    @SuppressWarnings("deprecation")
+    private static byte[] getUiHierarchyXml(IDevice device) throws UiAutomatorException {
         if (!supportsUiAutomator(device)) {
             String msg = "UI Automator requires a device with API Level "
                     + UIAUTOMATOR_MIN_API_LEVEL;
             throw new UiAutomatorException(msg, null);
         }
-
-        File tmpDir = null;
-        File xmlDumpFile = null;
-
+        String dump = PropConfig.isUiDumpCompressed()
+                ? String.format("%s %s --compressed", UIAUTOMATOR, UIAUTOMATOR_DUMP_COMMAND)
+                : String.format("%s %s", UIAUTOMATOR, UIAUTOMATOR_DUMP_COMMAND);
         try {
-            tmpDir = File.createTempFile("uiautomatorviewer_", "");
-            tmpDir.delete();
-            if (!tmpDir.mkdirs())
-                throw new IOException("Failed to mkdir");
-            xmlDumpFile = File.createTempFile("dump_", ".uix", tmpDir);
+            byte[] xml = executeDump(device, dump + " " + UIDUMP_TTY);
+            if (xml == null) {
+                xml = executeDump(device, dump + " " + UIDUMP_DEVICE_PATH + " && cat " + UIDUMP_DEVICE_PATH
+                        + "; rm " + UIDUMP_DEVICE_PATH);
+            }
+            if (xml == null) {
+                throw new IOException("no ui hierarchy in the output of uiautomator dump");
+            }
+            return xml;
         } catch (Exception e) {
-            String msg = "Error while creating temporary file to save snapshot: "
-                    + e.getMessage();
+            String msg = "Error while obtaining UI hierarchy XML: " + e.getMessage();
             throw new UiAutomatorException(msg, e);
         }
+    }
 
-        tmpDir.deleteOnExit();
-        xmlDumpFile.deleteOnExit();
-
-        try {
-            UiAutomatorHelper.getUiHierarchyFile(device, xmlDumpFile, false);
-        } catch (Exception e) {
-            String msg = "Error while obtaining UI hierarchy XML file: " + e.getMessage();
-            throw new UiAutomatorException(msg, e);
-        }
+    @SuppressWarnings("deprecation")
+    private static byte[] executeDump(IDevice device, String command) throws Exception {
+        ByteArrayReceiver receiver = new ByteArrayReceiver();
+        device.executeShellCommand(command, receiver, XML_CAPTURE_TIMEOUT_SEC * 1000);
+        return receiver.getXml();
+    }
 
-        UiAutomatorModel model;
-        try {
-            model = new UiAutomatorModel(xmlDumpFile);
-        } catch (Exception e) {
-            String msg = "Error while parsing UI hierarchy XML file: " + e.getMessage();
-            throw new UiAutomatorException(msg, e);
-        }
+    private static boolean searchUiHierarchyContent(IDevice device, String tofind) throws UiAutomatorException {
+        UiAutomatorModel model = getUiAutomatorModel(device);
         List<BasicTreeNode> lists = model.searchNode(tofind);
         return lists.size() > 0;
     }
 
     private static String getUiHierarchyContent(IDevice device) throws UiAutomatorException {
-        if (!supportsUiAutomator(device)) {
-            String msg = "UI Automator requires a device with API Level "
-                    + UIAUTOMATOR_MIN_API_LEVEL;
-            throw new UiAutomatorException(msg, null);
+        return new String(getUiHierarchyXml(device), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 收集 shell 输出, 截取其中的 xml, 去掉 uiautomator 在后面输出的提示
+     */
+    private static class ByteArrayReceiver implements IShellOutputReceiver {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+        @Override
+        public void addOutput(byte[] data, int offset, int length) {
+            out.write(data, offset, length);
         }
 
-        File tmpDir = null;
-        File xmlDumpFile = null;
+        @Override
+        public void flush() {
+        }
 
-        try {
-            tmpDir = File.createTempFile("uiautomatorviewer_", "");
-            tmpDir.delete();
-            if (!tmpDir.mkdirs())
-                throw new IOException("Failed to mkdir");
-            xmlDumpFile = File.createTempFile("dump_", ".uix", tmpDir);
-        } catch (Exception e) {
-            String msg = "Error while creating temporary file to save snapshot: "
-                    + e.getMessage();
-            throw new UiAutomatorException(msg, e);
+        @Override
+        public boolean isCancelled() {
+            return false;
         }
 
-        tmpDir.deleteOnExit();
-        xmlDumpFile.deleteOnExit();
+        private byte[] getXml() {
+            byte[] output = out.toByteArray();
+            int start = indexOf(output, XML_START, 0);
+            if (start < 0) {
+                return null;
+            }
+            int end = indexOf(output, XML_END, start);
+            if (end < 0) {
+                return null;
+            }
+            return Arrays.copyOfRange(output, start, end + XML_END.length);
+        }
 
-        try {
-            UiAutomatorHelper.getUiHierarchyFile(device, xmlDumpFile, false);
-        } catch (Exception e) {
-            String msg = "Error while obtaining UI hierarchy XML file: " + e.getMessage();
-            throw new UiAutomatorException(msg, e);
+        private static int indexOf(byte[] data, byte[] target, int from) {
+            outer:
+            for (int i = from; i <= data.length - target.length; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (data[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 一次 dump 的结果, 第一次使用时解析
+     */
+    private static class HierarchySnapshot {
+        private final byte[] xml;
+        private volatile UiAutomatorModel model;
+
+        private HierarchySnapshot(byte[] xml) {
+            this.xml = xml;
+        }
+
+        private UiAutomatorModel getModel() throws UiAutomatorException {
+            if (model == null) {
+                synchronized (this) {
+                    if (model == null) {
+                        try {
+                            model = new UiAutomatorModel(new ByteArrayInputStream(xml));
+                        } catch (Exception e) {
+                            String msg = "Error while parsing UI hierarchy XML: " + e.getMessage();
+                            throw new UiAutomatorException(msg, e);
+                        }
+                    }
+                }
+            }
+            return model;
         }
-        return IOHelper.readFileToString(xmlDumpFile.getAbsolutePath());
     }
 
     /**
@@ -1,16 +1,15 @@
 package com.qa.framework.android.uiautomator;
 
-import com.qa.framework.android.uiautomator.tree.AttributePair;
 import com.qa.framework.android.uiautomator.tree.BasicTreeNode;
+import com.qa.framework.android.uiautomator.tree.UiHierarchyIndex;
 import com.qa.framework.android.uiautomator.tree.UiHierarchyXmlLoader;
 import com.qa.framework.android.uiautomator.tree.UiNode;
 
 import java.awt.*;
 import java.io.File;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * The type Ui automator model.
@@ -22,8 +21,7 @@ public class UiAutomatorModel {
     private List<Rectangle> mNafNodes;
     private boolean mExploreMode = true;
     private boolean mShowNafNodes = false;
-    private List<BasicTreeNode> mNodelist;
-    private Set<String> mSearchKeySet = new HashSet<String>();
+    private UiHierarchyIndex mIndex;
 
     /**
      * Instantiates a new Ui automator model.
@@ -31,11 +29,21 @@ public class UiAutomatorModel {
      * @param xmlDumpFile the xml dump file
      */
     public UiAutomatorModel(File xmlDumpFile) {
-        this.mSearchKeySet.add("text");
-        this.mSearchKeySet.add("content-desc");
+        UiHierarchyXmlLoader loader = new UiHierarchyXmlLoader();
+        init(loader, loader.parseXml(xmlDumpFile.getAbsolutePath()));
+    }
 
+    /**
+     * Instantiates a new Ui automator model from the xml dump in memory.
+     *
+     * @param xmlDump the xml dump stream
+     */
+    public UiAutomatorModel(InputStream xmlDump) {
         UiHierarchyXmlLoader loader = new UiHierarchyXmlLoader();
-        BasicTreeNode rootNode = loader.parseXml(xmlDumpFile.getAbsolutePath());
+        init(loader, loader.parseXml(xmlDump));
+    }
+
+    private void init(UiHierarchyXmlLoader loader, BasicTreeNode rootNode) {
         if (rootNode == null) {
             System.err.println("null rootnode after parsing.");
             throw new IllegalArgumentException("Invalid ui automator hierarchy file.");
@@ -43,7 +51,7 @@ public class UiAutomatorModel {
         this.mNafNodes = loader.getNafNodes();
         this.mRootNode = rootNode;
         this.mExploreMode = true;
-        this.mNodelist = loader.getAllNodes();
+        this.mIndex = loader.getIndex();
     }
 
     /**
@@ -139,25 +147,22 @@ public class UiAutomatorModel {
     }
 
     /**
-     * Search node list.
+     * Gets the index of the nodes, for lookups by resource-id, text, content-desc and class or with a selector.
+     *
+     * @return the index
+     */
+    public UiHierarchyIndex getIndex() {
+        return this.mIndex;
+    }
+
+    /**
+     * Search the nodes whose text or content-desc contains the string, ignoring case.
      *
      * @param tofind the tofind
      * @return the list
      */
     public List<BasicTreeNode> searchNode(String tofind) {
-        List<BasicTreeNode> result = new LinkedList<BasicTreeNode>();
-        for (BasicTreeNode node : this.mNodelist) {
-            Object[] attrs = node.getAttributesArray();
-            for (Object attr : attrs) {
-                if (this.mSearchKeySet.contains(((AttributePair) attr).key)) {
-                    if (((AttributePair) attr).value.toLowerCase().contains(tofind.toLowerCase())) {
-                        result.add(node);
-                        break;
-                    }
-                }
-            }
-        }
-        return result;
+        return new ArrayList<BasicTreeNode>(this.mIndex.search(tofind));
     }
 
     private static class MinAreaFindNodeListener
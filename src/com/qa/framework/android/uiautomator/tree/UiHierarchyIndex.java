@@ -0,0 +1,503 @@
+package com.qa.framework.android.uiautomator.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析 ui hierarchy 时建立的索引, 按 resource-id, text, content-desc, class 的值查找节点, 不再遍历整棵树.
+ * 建立后只读, 可以在线程之间共享; 查询结果按文档顺序排列.
+ * <p>
+ * select 支持类似 XPath 的选择器, 例如:
+ * <pre>
+ * //android.widget.TextView[@text='OK']
+ * //*[@resource-id='com.demo:id/list']//TextView[contains(@text,'Item') and @enabled='true'][2]
+ * </pre>
+ * 节点名匹配 class 属性的全名或简名; [n] 取该步骤的第 n 个结果(从 1 开始), 不是在每个父节点下计数.
+ */
+public class UiHierarchyIndex {
+    /**
+     * The constant RESOURCE_ID.
+     */
+    public static final String RESOURCE_ID = "resource-id";
+    /**
+     * The constant TEXT.
+     */
+    public static final String TEXT = "text";
+    /**
+     * The constant CONTENT_DESC.
+     */
+    public static final String CONTENT_DESC = "content-desc";
+    /**
+     * The constant CLASS.
+     */
+    public static final String CLASS = "class";
+    private static final String[] INDEXED_KEYS = {RESOURCE_ID, TEXT, CONTENT_DESC, CLASS};
+
+    private final List<UiNode> nodes = new ArrayList<UiNode>();
+    private final Map<String, Map<String, List<UiNode>>> indexes = new HashMap<String, Map<String, List<UiNode>>>();
+    private final Map<String, List<UiNode>> searchCache = new ConcurrentHashMap<String, List<UiNode>>();
+    private final Map<String, List<UiNode>> selectCache = new ConcurrentHashMap<String, List<UiNode>>();
+    private BasicTreeNode root;
+    // 每个节点小写的 text 和 content-desc, 第一次 search 时生成
+    private volatile String[] searchValues;
+
+    /**
+     * Instantiates a new Ui hierarchy index.
+     */
+    UiHierarchyIndex() {
+        for (String key : INDEXED_KEYS) {
+            indexes.put(key, new HashMap<String, List<UiNode>>());
+        }
+    }
+
+    /**
+     * Add the node, in document order.
+     *
+     * @param node the node
+     */
+    void add(UiNode node) {
+        nodes.add(node);
+        for (String key : INDEXED_KEYS) {
+            String value = node.getAttribute(key);
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            put(key, value, node);
+            // resource-id 也可以只用 id 名查找
+            if (RESOURCE_ID.equals(key)) {
+                int index = value.indexOf(":id/");
+                if (index >= 0) {
+                    put(key, value.substring(index + 4), node);
+                }
+            }
+        }
+    }
+
+    private void put(String key, String value, UiNode node) {
+        Map<String, List<UiNode>> index = indexes.get(key);
+        List<UiNode> list = index.get(value);
+        if (list == null) {
+            list = new ArrayList<UiNode>(1);
+            index.put(value, list);
+        }
+        list.add(node);
+    }
+
+    /**
+     * Sets the root of the hierarchy.
+     *
+     * @param root the root
+     */
+    void setRoot(BasicTreeNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets all the nodes in document order.
+     *
+     * @return the nodes
+     */
+    public List<UiNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Find the nodes whose attribute equals the value. For resource-id the id name without the package also matches.
+     *
+     * @param key   the attribute name
+     * @param value the value
+     * @return the nodes
+     */
+    public List<UiNode> findBy(String key, String value) {
+        Map<String, List<UiNode>> index = indexes.get(key);
+        if (index != null) {
+            List<UiNode> list = index.get(value);
+            return list != null ? Collections.unmodifiableList(list) : Collections.<UiNode>emptyList();
+        }
+        List<UiNode> result = new ArrayList<UiNode>();
+        for (UiNode node : nodes) {
+            if (value.equals(node.getAttribute(key))) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find by resource id.
+     *
+     * @param id the full resource id, or the id name
+     * @return the nodes
+     */
+    public List<UiNode> findByResourceId(String id) {
+        return findBy(RESOURCE_ID, id);
+    }
+
+    /**
+     * Find by text.
+     *
+     * @param text the text
+     * @return the nodes
+     */
+    public List<UiNode> findByText(String text) {
+        return findBy(TEXT, text);
+    }
+
+    /**
+     * Find by content desc.
+     *
+     * @param contentDesc the content desc
+     * @return the nodes
+     */
+    public List<UiNode> findByContentDesc(String contentDesc) {
+        return findBy(CONTENT_DESC, contentDesc);
+    }
+
+    /**
+     * Find by class.
+     *
+     * @param className the class name
+     * @return the nodes
+     */
+    public List<UiNode> findByClass(String className) {
+        return findBy(CLASS, className);
+    }
+
+    /**
+     * Find the nodes matching all the attributes, e.g. find("class", "android.widget.Button", "text", "OK").
+     * The lookup starts from the smallest index.
+     *
+     * @param keyValues the attribute names and values
+     * @return the nodes
+     */
+    public List<UiNode> find(String... keyValues) {
+        if (keyValues.length == 0 || keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("expected attribute name and value pairs");
+        }
+        List<Condition> conditions = new ArrayList<Condition>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            conditions.add(new Condition(Condition.EQUALS, keyValues[i], keyValues[i + 1]));
+        }
+        return filter(candidates(conditions), conditions);
+    }
+
+    /**
+     * Search the nodes whose text or content-desc contains the string, ignoring case.
+     *
+     * @param tofind the string to find
+     * @return the nodes
+     */
+    public List<UiNode> search(String tofind) {
+        List<UiNode> result = searchCache.get(tofind);
+        if (result == null) {
+            String[] values = getSearchValues();
+            String lower = tofind.toLowerCase();
+            List<UiNode> found = new ArrayList<UiNode>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && values[i].contains(lower)) {
+                    found.add(nodes.get(i));
+                }
+            }
+            result = Collections.unmodifiableList(found);
+            searchCache.put(tofind, result);
+        }
+        return result;
+    }
+
+    private String[] getSearchValues() {
+        String[] values = searchValues;
+        if (values == null) {
+            values = new String[nodes.size()];
+            for (int i = 0; i < values.length; i++) {
+                String text = nodes.get(i).getAttribute(TEXT);
+                String contentDesc = nodes.get(i).getAttribute(CONTENT_DESC);
+                // 用换行分隔, 避免匹配跨过两个属性
+                if (text != null && contentDesc != null) {
+                    values[i] = (text + "\n" + contentDesc).toLowerCase();
+                } else if (text != null || contentDesc != null) {
+                    values[i] = (text != null ? text : contentDesc).toLowerCase();
+                }
+            }
+            searchValues = values;
+        }
+        return values;
+    }
+
+    /**
+     * Select the nodes with an XPath-like selector.
+     *
+     * @param selector the selector
+     * @return the nodes
+     */
+    public List<UiNode> select(String selector) {
+        List<UiNode> result = selectCache.get(selector);
+        if (result == null) {
+            List<Step> steps = new SelectorParser(selector).parse();
+            Map<BasicTreeNode, Boolean> context = new IdentityHashMap<BasicTreeNode, Boolean>();
+            context.put(root, Boolean.TRUE);
+            List<UiNode> matched = Collections.emptyList();
+            for (Step step : steps) {
+                matched = new ArrayList<UiNode>();
+                for (UiNode node : filter(candidates(step.conditions), step.conditions)) {
+                    if (step.matchesName(node) && step.isInContext(node, context)) {
+                        matched.add(node);
+                    }
+                }
+                if (step.position > 0) {
+                    matched = matched.size() >= step.position
+                            ? Collections.singletonList(matched.get(step.position - 1))
+                            : Collections.<UiNode>emptyList();
+                }
+                context = new IdentityHashMap<BasicTreeNode, Boolean>();
+                for (UiNode node : matched) {
+                    context.put(node, Boolean.TRUE);
+                }
+            }
+            result = Collections.unmodifiableList(matched);
+            selectCache.put(selector, result);
+        }
+        return result;
+    }
+
+    /**
+     * 从索引中取候选节点: 有多个相等条件时用结果最少的索引, 没有可用的索引时返回所有节点
+     */
+    private List<UiNode> candidates(List<Condition> conditions) {
+        List<UiNode> smallest = null;
+        for (Condition condition : conditions) {
+            if (condition.type == Condition.EQUALS && indexes.containsKey(condition.key)) {
+                List<UiNode> list = findBy(condition.key, condition.value);
+                if (smallest == null || list.size() < smallest.size()) {
+                    smallest = list;
+                }
+            }
+        }
+        return smallest != null ? smallest : nodes;
+    }
+
+    private static List<UiNode> filter(List<UiNode> candidates, List<Condition> conditions) {
+        List<UiNode> result = new ArrayList<UiNode>();
+        for (UiNode node : candidates) {
+            boolean matched = true;
+            for (Condition condition : conditions) {
+                if (!condition.matches(node)) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private static class Condition {
+        private static final int EQUALS = 0;
+        private static final int CONTAINS = 1;
+        private static final int STARTS_WITH = 2;
+        private final int type;
+        private final String key;
+        private final String value;
+
+        private Condition(int type, String key, String value) {
+            this.type = type;
+            this.key = key;
+            this.value = value;
+        }
+
+        private boolean matches(UiNode node) {
+            String actual = node.getAttribute(key);
+            if (actual == null) {
+                return false;
+            }
+            switch (type) {
+                case CONTAINS:
+                    return actual.contains(value);
+                case STARTS_WITH:
+                    return actual.startsWith(value);
+                default:
+                    // 与索引一致, resource-id 可以只写 id 名
+                    return actual.equals(value)
+                            || (RESOURCE_ID.equals(key) && actual.endsWith(":id/" + value));
+            }
+        }
+    }
+
+    private static class Step {
+        private final boolean descendant;
+        private final String name;
+        private final List<Condition> conditions = new ArrayList<Condition>();
+        private int position = 0;
+
+        private Step(boolean descendant, String name) {
+            this.descendant = descendant;
+            this.name = name;
+        }
+
+        private boolean matchesName(UiNode node) {
+            if ("*".equals(name)) {
+                return true;
+            }
+            String className = node.getAttribute(CLASS);
+            return className != null && (className.equals(name) || className.endsWith("." + name));
+        }
+
+        private boolean isInContext(UiNode node, Map<BasicTreeNode, Boolean> context) {
+            BasicTreeNode parent = node.getParent();
+            if (!descendant) {
+                return context.containsKey(parent);
+            }
+            for (; parent != null; parent = parent.getParent()) {
+                if (context.containsKey(parent)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class SelectorParser {
+        private final String selector;
+        private int pos = 0;
+
+        private SelectorParser(String selector) {
+            this.selector = selector;
+        }
+
+        private List<Step> parse() {
+            List<Step> steps = new ArrayList<Step>();
+            skipSpaces();
+            while (pos < selector.length()) {
+                if (!selector.startsWith("/", pos)) {
+                    throw error("expected /");
+                }
+                boolean descendant = selector.startsWith("//", pos);
+                pos += descendant ? 2 : 1;
+                Step step = new Step(descendant, readName());
+                skipSpaces();
+                while (pos < selector.length() && selector.charAt(pos) == '[') {
+                    pos++;
+                    skipSpaces();
+                    if (Character.isDigit(peek())) {
+                        step.position = Integer.parseInt(readWhile("0123456789"));
+                    } else {
+                        readConditions(step.conditions);
+                    }
+                    expect(']');
+                    skipSpaces();
+                }
+                steps.add(step);
+            }
+            if (steps.isEmpty()) {
+                throw error("empty selector");
+            }
+            return steps;
+        }
+
+        private void readConditions(List<Condition> conditions) {
+            while (true) {
+                skipSpaces();
+                if (peek() == '@') {
+                    pos++;
+                    String key = readName();
+                    skipSpaces();
+                    expect('=');
+                    conditions.add(new Condition(Condition.EQUALS, key, readLiteral()));
+                } else {
+                    String function = readName();
+                    int type;
+                    if ("contains".equals(function)) {
+                        type = Condition.CONTAINS;
+                    } else if ("starts-with".equals(function)) {
+                        type = Condition.STARTS_WITH;
+                    } else {
+                        throw error("unsupported function " + function);
+                    }
+                    skipSpaces();
+                    expect('(');
+                    skipSpaces();
+                    expect('@');
+                    String key = readName();
+                    skipSpaces();
+                    expect(',');
+                    String value = readLiteral();
+                    skipSpaces();
+                    expect(')');
+                    conditions.add(new Condition(type, key, value));
+                }
+                skipSpaces();
+                if (selector.startsWith("and", pos) && pos + 3 < selector.length()
+                        && Character.isWhitespace(selector.charAt(pos + 3))) {
+                    pos += 3;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private String readName() {
+            String name = readWhile("*-_.:$");
+            if (name.isEmpty()) {
+                throw error("expected a name");
+            }
+            return name;
+        }
+
+        private String readWhile(String extraChars) {
+            int start = pos;
+            while (pos < selector.length()) {
+                char c = selector.charAt(pos);
+                if (Character.isLetterOrDigit(c) || extraChars.indexOf(c) >= 0) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            return selector.substring(start, pos);
+        }
+
+        private String readLiteral() {
+            skipSpaces();
+            if (pos >= selector.length() || (selector.charAt(pos) != '\'' && selector.charAt(pos) != '"')) {
+                throw error("expected a quoted value");
+            }
+            char quote = selector.charAt(pos++);
+            int end = selector.indexOf(quote, pos);
+            if (end < 0) {
+                throw error("unterminated value");
+            }
+            String value = selector.substring(pos, end);
+            pos = end + 1;
+            return value;
+        }
+
+        private void expect(char c) {
+            if (pos >= selector.length() || selector.charAt(pos) != c) {
+                throw error("expected " + c);
+            }
+            pos++;
+        }
+
+        private char peek() {
+            return pos < selector.length() ? selector.charAt(pos) : 0;
+        }
+
+        private void skipSpaces() {
+            while (pos < selector.length() && Character.isWhitespace(selector.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format(Locale.ROOT, "invalid selector %s at %d: %s",
+                    selector, pos, message));
+        }
+    }
+}
@@ -9,11 +9,15 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.awt.*;
-import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The type Ui hierarchy xml loader.
@@ -24,6 +28,7 @@ public class UiHierarchyXmlLoader {
     private BasicTreeNode mRootNode;
     private List<Rectangle> mNafNodes;
     private List<BasicTreeNode> mNodeList;
+    private UiHierarchyIndex mIndex;
 
     /**
      * Parse xml basic tree node.
@@ -32,9 +37,25 @@ public class UiHierarchyXmlLoader {
      * @return the basic tree node
      */
     public BasicTreeNode parseXml(String xmlPath) {
+        try (InputStream in = new FileInputStream(xmlPath)) {
+            return parseXml(in);
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Parse xml basic tree node from a stream, e.g. the dump read from the device in memory.
+     *
+     * @param in the xml stream, not closed
+     * @return the basic tree node
+     */
+    public BasicTreeNode parseXml(InputStream in) {
         this.mRootNode = null;
         this.mNafNodes = new ArrayList<Rectangle>();
         this.mNodeList = new ArrayList<BasicTreeNode>();
+        this.mIndex = new UiHierarchyIndex();
 
         SAXParserFactory factory = SAXParserFactory.newInstance();
         SAXParser parser = null;
@@ -50,6 +71,9 @@ public class UiHierarchyXmlLoader {
         DefaultHandler handler = new DefaultHandler() {
             BasicTreeNode mParentNode;
             BasicTreeNode mWorkingNode;
+            // 同一次 dump 中相同的属性名和常见的属性值只保存一份, 属性名相同的节点共用一个数组
+            Map<String, String> mStrings = new HashMap<String, String>();
+            String[] mLastKeys = new String[0];
 
             public void startElement(String uri, String localName, String qName, Attributes attributes)
                     throws SAXException {
@@ -70,9 +94,19 @@ public class UiHierarchyXmlLoader {
                     nodeCreated = true;
                 } else if ("node".equals(qName)) {
                     UiNode tmpNode = new UiNode();
-                    for (int i = 0; i < attributes.getLength(); i++) {
-                        tmpNode.addAtrribute(attributes.getQName(i), attributes.getValue(i));
+                    String[] keys = new String[attributes.getLength()];
+                    String[] values = new String[keys.length];
+                    for (int i = 0; i < keys.length; i++) {
+                        keys[i] = share(attributes.getQName(i));
+                        values[i] = share(attributes.getValue(i));
+                    }
+                    if (Arrays.equals(keys, this.mLastKeys)) {
+                        keys = this.mLastKeys;
+                    } else {
+                        this.mLastKeys = keys;
                     }
+                    tmpNode.setAttributes(keys, values);
+                    UiHierarchyXmlLoader.this.mIndex.add(tmpNode);
                     this.mWorkingNode = tmpNode;
                     nodeCreated = true;
 
@@ -92,6 +126,15 @@ public class UiHierarchyXmlLoader {
                 }
             }
 
+            private String share(String value) {
+                String shared = this.mStrings.get(value);
+                if (shared == null) {
+                    this.mStrings.put(value, value);
+                    shared = value;
+                }
+                return shared;
+            }
+
             public void endElement(String uri, String localName, String qName)
                     throws SAXException {
                 if (this.mParentNode != null) {
@@ -101,7 +144,7 @@ public class UiHierarchyXmlLoader {
             }
         };
         try {
-            parser.parse(new File(xmlPath), handler);
+            parser.parse(in, handler);
         } catch (SAXException e) {
             logger.error(e.getMessage(), e);
             return null;
@@ -109,6 +152,7 @@ public class UiHierarchyXmlLoader {
             logger.error(e.getMessage(), e);
             return null;
         }
+        this.mIndex.setRoot(this.mRootNode);
         return this.mRootNode;
     }
 
@@ -129,4 +173,13 @@ public class UiHierarchyXmlLoader {
     public List<BasicTreeNode> getAllNodes() {
         return this.mNodeList;
     }
+
+    /**
+     * Gets the index of the nodes built while parsing.
+     *
+     * @return the index
+     */
+    public UiHierarchyIndex getIndex() {
+        return this.mIndex;
+    }
 }
@@ -1,5 +1,6 @@
 package com.qa.framework.android.uiautomator.tree;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -12,8 +13,10 @@ import java.util.regex.Pattern;
 public class UiNode extends BasicTreeNode {
     private static final Pattern BOUNDS_PATTERN = Pattern
             .compile("\\[-?(\\d+),-?(\\d+)\\]\\[-?(\\d+),-?(\\d+)\\]");
-    // use LinkedHashMap to preserve the order of the attributes
-    private final Map<String, String> mAttributes = new LinkedHashMap<String, String>();
+    private static final String[] NO_ATTRIBUTES = new String[0];
+    // attribute names and values in document order; the nodes of one dump share the same names array
+    private String[] mKeys = NO_ATTRIBUTES;
+    private String[] mValues = NO_ATTRIBUTES;
     private String mDisplayName = "ShouldNotSeeMe";
     private Object[] mCachedAttributesArray;
 
@@ -24,39 +27,77 @@ public class UiNode extends BasicTreeNode {
      * @param value the value
      */
     public void addAtrribute(String key, String value) {
-        mAttributes.put(key, value);
+        int index = indexOf(key);
+        if (index >= 0) {
+            mValues[index] = value;
+        } else {
+            // never write into the names array, it may be shared
+            mKeys = Arrays.copyOf(mKeys, mKeys.length + 1);
+            mValues = Arrays.copyOf(mValues, mValues.length + 1);
+            mKeys[mKeys.length - 1] = key;
+            mValues[mValues.length - 1] = value;
+        }
         updateDisplayName();
         if ("bounds".equals(key)) {
             updateBounds(value);
         }
     }
 
+    /**
+     * Sets all the attributes at once, used by the loader.
+     *
+     * @param keys   the attribute names, may be shared with other nodes and must not be modified
+     * @param values the attribute values, owned by the node
+     */
+    void setAttributes(String[] keys, String[] values) {
+        mKeys = keys;
+        mValues = values;
+        updateDisplayName();
+        String bounds = getAttribute("bounds");
+        if (bounds != null) {
+            updateBounds(bounds);
+        }
+    }
+
     /**
      * Gets attributes.
      *
      * @return the attributes
      */
     public Map<String, String> getAttributes() {
-        return Collections.unmodifiableMap(mAttributes);
+        Map<String, String> attributes = new LinkedHashMap<String, String>();
+        for (int i = 0; i < mKeys.length; i++) {
+            attributes.put(mKeys[i], mValues[i]);
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < mKeys.length; i++) {
+            if (key.equals(mKeys[i])) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
      * Builds the display name based on attributes of the node
      */
     private void updateDisplayName() {
-        String className = mAttributes.get("class");
+        String className = getAttribute("class");
         if (className == null)
             return;
-        String text = mAttributes.get("text");
+        String text = getAttribute("text");
         if (text == null)
             return;
-        String contentDescription = mAttributes.get("content-desc");
+        String contentDescription = getAttribute("content-desc");
         if (contentDescription == null)
             return;
-        String index = mAttributes.get("index");
+        String index = getAttribute("index");
         if (index == null)
             return;
-        String bounds = mAttributes.get("bounds");
+        String bounds = getAttribute("bounds");
         if (bounds == null) {
             return;
         }
@@ -108,7 +149,8 @@ public class UiNode extends BasicTreeNode {
      * @return the attribute
      */
     public String getAttribute(String key) {
-        return mAttributes.get(key);
+        int index = indexOf(key);
+        return index >= 0 ? mValues[index] : null;
     }
 
     @Override
@@ -119,11 +161,9 @@ public class UiNode extends BasicTreeNode {
         // because the
         // tree is supposed to be readonly
         if (mCachedAttributesArray == null) {
-            mCachedAttributesArray = new Object[mAttributes.size()];
-            int i = 0;
-            for (String attr : mAttributes.keySet()) {
-                mCachedAttributesArray[i++] = new AttributePair(attr,
-                        mAttributes.get(attr));
+            mCachedAttributesArray = new Object[mKeys.length];
+            for (int i = 0; i < mKeys.length; i++) {
+                mCachedAttributesArray[i] = new AttributePair(mKeys[i], mValues[i]);
             }
         }
         return mCachedAttributesArray;
@@ -236,6 +276,6 @@ public class UiNode extends BasicTreeNode {
     }
 
     private String getNodeClassAttribute() {
-        return this.mAttributes.get("class");
+        return getAttribute("class");
     }
 }
@@ -0,0 +1,184 @@
+package com.qa.framework.common;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a png row by row, so an image taller than the memory can be built from tiles. The height is unknown
+ * until the last row is written, it is patched in the header on close.
+ */
+class PngStreamWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int IDAT_SIZE = 64 * 1024;
+    private static final int FILTER_SUB = 1;
+    private final File file;
+    private final int width;
+    private final OutputStream fileStream;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final DeflaterOutputStream idatStream;
+    private final int[] argbRow;
+    private final byte[] filteredRow;
+    private int height = 0;
+
+    /**
+     * Instantiates a new Png stream writer.
+     *
+     * @param file  the file
+     * @param width the width of the image
+     * @throws IOException the io exception
+     */
+    PngStreamWriter(File file, int width) throws IOException {
+        this.file = file;
+        this.width = width;
+        this.argbRow = new int[width];
+        this.filteredRow = new byte[1 + width * 3];
+        this.fileStream = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            fileStream.write(SIGNATURE);
+            writeChunk(fileStream, "IHDR", header(0));
+        } catch (IOException e) {
+            deflater.end();
+            fileStream.close();
+            throw e;
+        }
+        this.idatStream = new DeflaterOutputStream(new IdatOutputStream(), deflater, IDAT_SIZE);
+    }
+
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt(out, length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private static void writeChunk(OutputStream out, String type, byte[] data) throws IOException {
+        writeChunk(out, type, data, data.length);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private byte[] header(int imageHeight) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        writeInt(header, width);
+        writeInt(header, imageHeight);
+        header.write(8); // bit depth
+        header.write(2); // truecolor rgb
+        header.write(0); // deflate
+        header.write(0); // adaptive filtering
+        header.write(0); // no interlace
+        return header.toByteArray();
+    }
+
+    /**
+     * Appends the rows of the tile, starting from the row skip. A narrower tile is padded with black, a wider one
+     * is cropped.
+     *
+     * @param tile the tile
+     * @param skip the number of top rows to skip
+     * @throws IOException the io exception
+     */
+    void writeRows(BufferedImage tile, int skip) throws IOException {
+        int tileWidth = Math.min(width, tile.getWidth());
+        for (int y = Math.max(0, skip); y < tile.getHeight(); y++) {
+            tile.getRGB(0, y, tileWidth, 1, argbRow, 0, width);
+            for (int x = tileWidth; x < width; x++) {
+                argbRow[x] = 0;
+            }
+            filteredRow[0] = FILTER_SUB;
+            int previous = 0;
+            for (int x = 0, i = 1; x < width; x++, i += 3) {
+                int rgb = argbRow[x];
+                filteredRow[i] = (byte) ((rgb >> 16) - (previous >> 16));
+                filteredRow[i + 1] = (byte) ((rgb >> 8) - (previous >> 8));
+                filteredRow[i + 2] = (byte) (rgb - previous);
+                previous = rgb;
+            }
+            idatStream.write(filteredRow);
+            height++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            idatStream.close();
+            writeChunk(fileStream, "IEND", new byte[0]);
+        } finally {
+            // DeflaterOutputStream 不会释放外部传入的 Deflater 的本地内存
+            deflater.end();
+            fileStream.close();
+        }
+        RandomAccessFile header = new RandomAccessFile(file, "rw");
+        try {
+            header.seek(SIGNATURE.length);
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            writeChunk(chunk, "IHDR", header(height));
+            header.write(chunk.toByteArray());
+        } finally {
+            header.close();
+        }
+    }
+
+    /**
+     * Splits the deflated rows into IDAT chunks.
+     */
+    private class IdatOutputStream extends OutputStream {
+        private final byte[] buffer = new byte[IDAT_SIZE];
+        private int count = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(fileStream, "IDAT", buffer, count);
+                count = 0;
+            }
+        }
+    }
+}
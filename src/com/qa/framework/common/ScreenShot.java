@@ -2,20 +2,21 @@ package com.qa.framework.common;
 
 import com.library.common.IOHelper;
 import com.qa.framework.config.PropConfig;
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.*;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The type Screen shot.
@@ -46,15 +47,16 @@ public class ScreenShot {
         String t = new SimpleDateFormat("MM-dd-HH-mm-ss").format(new Date());
         String fail = dir + File.separator + "Fail" + File.separator + time + File.separator + currentMethodName;
         IOHelper.createNestDirectory(fail);
-        String screenShotPath = fail + File.separator + t + "-" + fileName + ".jpg";
+        boolean fullScreen = PropConfig.getCoreType().equalsIgnoreCase("GOOGLECHROME");
+        // the full page is streamed as png, it is never held in memory to be encoded as jpg
+        String screenShotPath = fail + File.separator + t + "-" + fileName + (fullScreen ? ".png" : ".jpg");
 
         try {
-            if (PropConfig.getCoreType().equalsIgnoreCase("GOOGLECHROME")) {
-                FullScreen fullScreen = new FullScreen(driver);
-                fullScreen.take(screenShotPath);
+            if (fullScreen) {
+                new FullScreen(driver).take(screenShotPath);
             } else {
-                File sourceFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                FileUtils.copyFile(sourceFile, new File(screenShotPath));
+                byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                ScreenShotWriter.write(bytes, screenShotPath, true);
             }
         } catch (Exception e) {
             logger.error("captureFail exception:" + e.toString());
@@ -81,8 +83,8 @@ public class ScreenShot {
         if (f.exists() && f.isDirectory()) {
             String screenShotPath = allActions + File.separator + t + "-" + fileName + ".jpg";
             try {
-                File sourceFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                FileUtils.copyFile(sourceFile, new File(screenShotPath));
+                byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                ScreenShotWriter.write(bytes, screenShotPath, false);
             } catch (Exception e) {
                 logger.error("captureAction exception:" + e.toString());
             }
@@ -124,11 +126,56 @@ public class ScreenShot {
          * Init.
          */
         public void init() {
-            actureContentHeight = (long) js.executeScript("return $(document).height();");
-            visibleWindowHeight = (long) js.executeScript("return $(window).height();");
-            scrollTop = (long) js.executeScript("return $(document).scrollTop()");
+            List<?> metrics = (List<?>) js.executeScript("var d = document.documentElement, b = document.body;"
+                    + "return [Math.max(d.scrollHeight, b ? b.scrollHeight : 0),"
+                    + " window.innerHeight || d.clientHeight,"
+                    + " window.pageYOffset || d.scrollTop || (b ? b.scrollTop : 0)];");
+            actureContentHeight = ((Number) metrics.get(0)).longValue();
+            visibleWindowHeight = ((Number) metrics.get(1)).longValue();
+            scrollTop = ((Number) metrics.get(2)).longValue();
         }
 
+        /**
+         * Captures the full page in one DevTools call when the driver offers executeCdpCommand.
+         *
+         * @param path the path
+         * @return true if the page was captured
+         */
+        @SuppressWarnings("unchecked")
+        private boolean takeWithDevTools(String path) {
+            Method executeCdpCommand;
+            try {
+                executeCdpCommand = driver.getClass().getMethod("executeCdpCommand", String.class, Map.class);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+            try {
+                Map<String, Object> metrics = (Map<String, Object>) executeCdpCommand.invoke(driver, "Page.getLayoutMetrics", new HashMap<String, Object>());
+                Map<String, Object> contentSize = (Map<String, Object>) metrics.get("contentSize");
+                Map<String, Object> clip = new HashMap<>();
+                clip.put("x", 0);
+                clip.put("y", 0);
+                clip.put("width", contentSize.get("width"));
+                clip.put("height", contentSize.get("height"));
+                clip.put("scale", 1);
+                Map<String, Object> params = new HashMap<>();
+                params.put("format", "png");
+                params.put("captureBeyondViewport", true);
+                params.put("clip", clip);
+                Map<String, Object> result = (Map<String, Object>) executeCdpCommand.invoke(driver, "Page.captureScreenshot", params);
+                byte[] bytes = OutputType.BYTES.convertFromBase64Png((String) result.get("data"));
+                FileOutputStream outputStream = new FileOutputStream(path);
+                try {
+                    outputStream.write(bytes);
+                } finally {
+                    outputStream.close();
+                }
+                return true;
+            } catch (Exception e) {
+                logger.debug("full page capture by DevTools failed, fall back to scrolling: " + e.toString());
+                return false;
+            }
+        }
 
         private void injectJQueryIfNeeded() {
             if (!isJQueryLoaded()) {
@@ -207,37 +254,42 @@ public class ScreenShot {
          * @param path the path
          */
         public void take(String path) {
+            if (takeWithDevTools(path)) {
+                return;
+            }
             injectJQueryIfNeeded();
             customAction();
             //将滚动条移动到顶端
             js.executeScript("scrollTo(0,0)");
-            int totalHeight = 0;
-            int totalWidth = 0;
-            List<BufferedImage> bufferedImages = new ArrayList<BufferedImage>();
-            do {
-                init();
-                byte[] bytes = screenShot.getScreenshotAs(OutputType.BYTES);
-                BufferedImage bf = createImageFromBytes(bytes);
-                bufferedImages.add(bf);
-                if (bf.getWidth() > totalWidth) {
-                    totalWidth = bf.getWidth();
-                }
-                totalHeight += bf.getHeight();
-                js.executeScript("scrollBy(arguments[0], arguments[1])", 0, visibleWindowHeight);
-            } while (scrollTop < actureContentHeight - visibleWindowHeight);
-            BufferedImage finalBuf = new BufferedImage(totalWidth, totalHeight, BufferedImage.TYPE_INT_RGB);
-            Graphics2D graphics = finalBuf.createGraphics();
-            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            int height = 0;
-            for (BufferedImage bui : bufferedImages) {
-                graphics.drawImage(bui, 0, height, bui.getWidth(), bui.getHeight(), null);
-                height += bui.getHeight();
-            }
-            graphics.dispose();
+            PngStreamWriter writer = null;
+            long expectedTop = 0;
             try {
-                ImageIO.write(finalBuf, "jpg", new File(path));
+                do {
+                    init();
+                    byte[] bytes = screenShot.getScreenshotAs(OutputType.BYTES);
+                    BufferedImage bf = createImageFromBytes(bytes);
+                    if (writer == null) {
+                        writer = new PngStreamWriter(new File(path), bf.getWidth());
+                    }
+                    //最后一屏滚动不足一屏时, 跳过与上一屏重叠的部分
+                    int skip = 0;
+                    if (scrollTop < expectedTop && visibleWindowHeight > 0) {
+                        skip = (int) ((expectedTop - scrollTop) * bf.getHeight() / visibleWindowHeight);
+                    }
+                    writer.writeRows(bf, skip);
+                    expectedTop = scrollTop + visibleWindowHeight;
+                    js.executeScript("scrollBy(arguments[0], arguments[1])", 0, visibleWindowHeight);
+                } while (scrollTop < actureContentHeight - visibleWindowHeight);
             } catch (IOException e) {
                 logger.error("FullScreen.take exception:" + e.toString());
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        logger.error("FullScreen.take exception:" + e.toString());
+                    }
+                }
             }
         }
 
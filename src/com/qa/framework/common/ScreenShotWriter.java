@@ -0,0 +1,230 @@
+package com.qa.framework.common;
+
+import com.qa.framework.config.PropConfig;
+import org.apache.log4j.Logger;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes, downscales and writes the screenshots on a bounded pool of background threads, so the test thread only
+ * pays for the driver round-trip.
+ * When the queue is full the screenshotQueuePolicy property decides what happens:
+ * block - the test thread waits for a free slot;
+ * drop - the new screenshot is dropped;
+ * oldest - the oldest queued screenshot is dropped.
+ * Mandatory screenshots (the failure ones) are never dropped.
+ */
+public class ScreenShotWriter {
+    private final static Logger logger = Logger.getLogger(ScreenShotWriter.class);
+    private static final Object lock = new Object();
+    private static final ThreadPoolExecutor executor;
+    private static int pending = 0;
+    private static final AtomicLong sequence = new AtomicLong();
+    // 丢弃的目录 -> 丢弃时的序号, 之前提交的该目录的非必需截图都不再写入; 之后提交的(例如重跑的测试)不受影响
+    private static final Map<String, Long> discarded = new ConcurrentHashMap<String, Long>();
+
+    static {
+        int threads = Math.max(1, PropConfig.getScreenshotThreads());
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, PropConfig.getScreenshotQueueSize())),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "screenshot-writer-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new BackPressurePolicy());
+    }
+
+    /**
+     * Queues the screenshot to be written to the path.
+     *
+     * @param bytes     the png bytes returned by the driver
+     * @param path      the path, its extension decides the encoding
+     * @param mandatory true if the screenshot must not be dropped when the queue is full
+     */
+    public static void write(byte[] bytes, String path, boolean mandatory) {
+        synchronized (lock) {
+            pending++;
+        }
+        executor.execute(new WriteTask(bytes, path, mandatory));
+    }
+
+    /**
+     * Drops the screenshots still queued for the directory, e.g. the actions of a passed test.
+     *
+     * @param dir the dir
+     */
+    public static void discard(String dir) {
+        String path = new File(dir).getPath();
+        discarded.put(path, sequence.get());
+        String prefix = path + File.separator;
+        Iterator<Runnable> iterator = executor.getQueue().iterator();
+        while (iterator.hasNext()) {
+            WriteTask task = (WriteTask) iterator.next();
+            if (!task.mandatory && task.path.startsWith(prefix) && executor.getQueue().remove(task)) {
+                finished();
+            }
+        }
+    }
+
+    /**
+     * Waits until all the queued screenshots are written.
+     */
+    public static void flush() {
+        synchronized (lock) {
+            while (pending > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void finished() {
+        synchronized (lock) {
+            pending--;
+            if (pending <= 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static class WriteTask implements Runnable {
+        private final byte[] bytes;
+        private final String path;
+        private final boolean mandatory;
+        private final long seq = sequence.incrementAndGet();
+
+        private WriteTask(byte[] bytes, String path, boolean mandatory) {
+            this.bytes = bytes;
+            this.path = path;
+            this.mandatory = mandatory;
+        }
+
+        private boolean isDiscarded() {
+            if (mandatory) {
+                return false;
+            }
+            Long mark = discarded.get(new File(path).getParent());
+            return mark != null && seq <= mark;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (isDiscarded()) {
+                    return;
+                }
+                save();
+                // 写入期间目录被丢弃时删除写入的文件, 不留下只有这个文件的目录
+                if (isDiscarded()) {
+                    File file = new File(path);
+                    if (file.delete()) {
+                        file.getParentFile().delete();
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("write screenshot " + path + " exception:" + e.toString());
+            } finally {
+                finished();
+            }
+        }
+
+        private void save() throws IOException {
+            File file = new File(path);
+            if (!file.getParentFile().isDirectory()) {
+                // the directory of a passed test is already deleted
+                return;
+            }
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (image == null) {
+                writeRaw(file);
+                return;
+            }
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int maxWidth = PropConfig.getScreenshotMaxWidth();
+            if (maxWidth > 0 && width > maxWidth) {
+                height = (int) ((long) height * maxWidth / width);
+                width = maxWidth;
+            }
+            // jpg can't keep the alpha channel of the png returned by the driver
+            BufferedImage encoded = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = encoded.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+            graphics.dispose();
+            String format = path.substring(path.lastIndexOf('.') + 1);
+            if (!ImageIO.write(encoded, format, file)) {
+                writeRaw(file);
+            }
+        }
+
+        private void writeRaw(File file) throws IOException {
+            FileOutputStream outputStream = new FileOutputStream(file);
+            try {
+                outputStream.write(bytes);
+            } finally {
+                outputStream.close();
+            }
+        }
+    }
+
+    private static class BackPressurePolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            WriteTask task = (WriteTask) runnable;
+            if (executor.isShutdown()) {
+                finished();
+                return;
+            }
+            String policy = PropConfig.getScreenshotQueuePolicy();
+            if (!task.mandatory && "drop".equalsIgnoreCase(policy)) {
+                logger.debug("screenshot queue is full, drop " + task.path);
+                finished();
+                return;
+            }
+            if (!task.mandatory && "oldest".equalsIgnoreCase(policy)) {
+                for (Runnable queued : executor.getQueue()) {
+                    WriteTask queuedTask = (WriteTask) queued;
+                    if (!queuedTask.mandatory && executor.getQueue().remove(queuedTask)) {
+                        logger.debug("screenshot queue is full, drop " + queuedTask.path);
+                        finished();
+                        executor.execute(task);
+                        return;
+                    }
+                }
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished();
+            }
+        }
+    }
+}
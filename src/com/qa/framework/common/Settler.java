@@ -0,0 +1,165 @@
+package com.qa.framework.common;
+
+import com.qa.framework.android.event.AccessibilityEventMonitor;
+import com.qa.framework.config.PropConfig;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waits for the page or the app to settle after an action, instead of sleeping a fixed time.
+ * The settleMode property in config.properties selects how:
+ * auto - web polls the document, pending XHR/fetch (hooked by {@link #prepare()} before the action) and two
+ * animation frames, mobile waits until no accessibility event was received for settleQuietPeriod ms
+ * (or sleeps settleTime ms if the event monitor is not started),
+ * both wait at most settleTimeout ms;
+ * fixed - sleeps settleTime ms;
+ * none - returns at once, for stable apps.
+ */
+public class Settler {
+    private final static Logger logger = Logger.getLogger(Settler.class);
+    // 在当前页面上统计未完成的 XHR/fetch, 每个页面只安装一次
+    private static final String HOOK_SCRIPT = "if (!window.__smartSettle) {"
+            + " var state = window.__smartSettle = {pending: 0};"
+            + " var send = XMLHttpRequest.prototype.send;"
+            + " XMLHttpRequest.prototype.send = function () {"
+            + "  var finished = false;"
+            + "  function finish() { if (!finished) { finished = true; state.pending--; } }"
+            + "  state.pending++; this.addEventListener('loadend', finish);"
+            + "  try { return send.apply(this, arguments); } catch (e) { finish(); throw e; }"
+            + " };"
+            + " if (window.fetch) {"
+            + "  var fetch = window.fetch;"
+            + "  window.fetch = function () {"
+            + "   state.pending++;"
+            + "   return fetch.apply(this, arguments).then(function (r) { state.pending--; return r; }, function (e) { state.pending--; throw e; });"
+            + "  };"
+            + " }"
+            + "}";
+    // arguments[0] 是每次 settle 的标识, 状态按标识重置. 0: 页面未就绪, 1: 已就绪, 等待两帧, 2: 已稳定.
+    // 安装 hook 之前发出的请求统计不到, 所以还要求两次轮询之间没有新完成的资源
+    private static final String SETTLE_SCRIPT = HOOK_SCRIPT
+            + "var token = arguments[0], settle = window.__smartSettle;"
+            + "var resources = window.performance && performance.getEntriesByType ? performance.getEntriesByType('resource').length : 0;"
+            + "if (settle.token !== token) {"
+            + " settle.token = token; settle.requested = false; settle.framed = false; settle.resources = -1;"
+            + "}"
+            + "var quiet = settle.resources === resources;"
+            + "settle.resources = resources;"
+            + "if (document.readyState !== 'complete' || settle.pending > 0 || !quiet) {"
+            + " settle.requested = false; settle.framed = false; return 0;"
+            + "}"
+            + "if (!settle.requested) {"
+            + " settle.requested = true;"
+            + " requestAnimationFrame(function () { requestAnimationFrame(function () { if (settle.token === token) { settle.framed = true; } }); });"
+            + " return 1;"
+            + "}"
+            + "return settle.framed ? 2 : 1;";
+    private static final AtomicLong tokens = new AtomicLong();
+    private static final int POLL_INTERVAL = 20;
+    // 后台标签页中 requestAnimationFrame 可能不执行, 就绪后最多再等这么久
+    private static final int MAX_FRAME_WAIT = 100;
+    private final WebDriver driver;
+    private final Sleeper sleeper = new Sleeper();
+
+    /**
+     * Instantiates a new Settler.
+     *
+     * @param driver the driver
+     */
+    public Settler(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Installs the XHR/fetch hooks on the current page before an action, so the requests started by the action
+     * are waited for by {@link #settle()}. Does nothing unless a web page is settled in auto mode.
+     */
+    public void prepare() {
+        String mode = PropConfig.getSettleMode();
+        if ("none".equalsIgnoreCase(mode) || "fixed".equalsIgnoreCase(mode)
+                || !(driver instanceof JavascriptExecutor) || new Driver(driver).isMobilePlat()) {
+            return;
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(HOOK_SCRIPT);
+        } catch (WebDriverException e) {
+            logger.debug("settle hook script failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits until the page or the app settles.
+     */
+    public void settle() {
+        String mode = PropConfig.getSettleMode();
+        if ("none".equalsIgnoreCase(mode)) {
+            return;
+        }
+        if ("fixed".equalsIgnoreCase(mode)) {
+            sleeper.sleep(PropConfig.getSettleTime());
+            return;
+        }
+        if (new Driver(driver).isMobilePlat()) {
+            settleApp();
+        } else {
+            settlePage();
+        }
+    }
+
+    private void settleApp() {
+        if (!AccessibilityEventMonitor.isRunning()) {
+            sleeper.sleep(PropConfig.getSettleTime());
+            return;
+        }
+        long end = System.currentTimeMillis() + PropConfig.getSettleTimeout();
+        long quietPeriod = PropConfig.getSettleQuietPeriod();
+        while (System.currentTimeMillis() < end) {
+            long quiet = System.currentTimeMillis() - AccessibilityEventMonitor.getLastEventTime();
+            if (quiet >= quietPeriod) {
+                return;
+            }
+            sleeper.sleep((int) Math.min(quietPeriod - quiet, end - System.currentTimeMillis()));
+        }
+    }
+
+    private void settlePage() {
+        if (!(driver instanceof JavascriptExecutor)) {
+            sleeper.sleep(PropConfig.getSettleTime());
+            return;
+        }
+        // 同步脚本轮询, 不修改 driver 的 script timeout, 等待时间由 settleTimeout 限制
+        long end = System.currentTimeMillis() + PropConfig.getSettleTimeout();
+        long token = tokens.incrementAndGet();
+        long readyTime = -1;
+        while (true) {
+            int state = 0;
+            try {
+                Object result = ((JavascriptExecutor) driver).executeScript(SETTLE_SCRIPT, token);
+                state = result instanceof Number ? ((Number) result).intValue() : 0;
+            } catch (WebDriverException e) {
+                // the action may have started a navigation which unloads the document the script runs in
+                logger.debug("settle script failed: " + e.getMessage());
+            }
+            long now = System.currentTimeMillis();
+            if (state == 2) {
+                return;
+            } else if (state == 1) {
+                if (readyTime < 0) {
+                    readyTime = now;
+                } else if (now - readyTime >= MAX_FRAME_WAIT) {
+                    return;
+                }
+            } else {
+                readyTime = -1;
+            }
+            if (now >= end) {
+                return;
+            }
+            sleeper.sleep((int) Math.min(POLL_INTERVAL, end - now));
+        }
+    }
+}
@@ -8,18 +8,19 @@ import org.openqa.selenium.WebDriver;
 import java.util.HashMap;
 
 public class Swipe {
-    private Sleeper sleeper = new Sleeper();
+    private Settler settler;
     private WebDriver driver;
 
     public Swipe(WebDriver driver) {
         this.driver = driver;
+        this.settler = new Settler(driver);
     }
 
     /**
      * Swipe to up.
      */
     public void swipeToUp() {
-        sleeper.sleep(3000);
+        settler.settle();
         switch (PropConfig.getCoreType()) {
             case "ANDROIDAPP":
                 int width = driver.manage().window().getSize().width;
@@ -33,14 +34,14 @@ public class Swipe {
                 js.executeScript("mobile: scroll", scrollObject);
                 break;
         }
-        sleeper.sleep(1000);
+        settler.settle();
     }
 
     /**
      * Swipe to down.
      */
     public void swipeToDown() {
-        sleeper.sleep(3000);
+        settler.settle();
         switch (PropConfig.getCoreType()) {
             case "ANDROIDAPP":
                 int width = driver.manage().window().getSize().width;
@@ -54,14 +55,14 @@ public class Swipe {
                 js.executeScript("mobile: scroll", scrollObject);
                 break;
         }
-        sleeper.sleep(1000);
+        settler.settle();
     }
 
     /**
      * Swipe to left.
      */
     public void swipeToLeft() {
-        sleeper.sleep(3000);
+        settler.settle();
         switch (PropConfig.getCoreType()) {
             case "ANDROIDAPP":
                 int width = driver.manage().window().getSize().width;
@@ -75,14 +76,14 @@ public class Swipe {
                 js.executeScript("mobile: scroll", scrollObject);
                 break;
         }
-        sleeper.sleep(1000);
+        settler.settle();
     }
 
     /**
      * Swipe to right.
      */
     public void swipeToRight() {
-        sleeper.sleep(3000);
+        settler.settle();
         switch (PropConfig.getCoreType()) {
             case "ANDROIDAPP":
                 int width = driver.manage().window().getSize().width;
@@ -96,6 +97,6 @@ public class Swipe {
                 js.executeScript("mobile: scroll", scrollObject);
                 break;
         }
-        sleeper.sleep(1000);
+        settler.settle();
     }
 }
@@ -0,0 +1,227 @@
+package com.qa.framework.config;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * app 安装包(apk/ipa/app)的本地缓存, 同一台机器上的多次运行不再重复下载.
+ * 缓存按 url + ETag/Last-Modified/大小 区分, 服务端的包变化后自动重新下载;
+ * 下载先写到 .part 临时文件, 校验大小和 sha-256 后原子地改名, 中断的下载下次从断点继续.
+ * 多个进程同时下载同一个包时通过文件锁只下载一次.
+ * 缓存目录由 config.properties 中的 appCacheDir 配置, 默认为 ~/.appcache.
+ */
+class AppBinCache {
+    private final static Logger logger = Logger.getLogger(AppBinCache.class);
+    private static final int TIMEOUT = 30000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PART_SUFFIX = ".part";
+    private static final String DIGEST_SUFFIX = ".sha256";
+
+    /**
+     * Gets the app binary of the url, downloads it when it is not cached.
+     *
+     * @param url  the url
+     * @param name the file name of the app binary
+     * @return the cached file
+     * @throws IOException the io exception
+     */
+    static File get(String url, String name) throws IOException {
+        Validator validator = head(url);
+        if (!validator.isCacheable()) {
+            logger.info("no ETag/Last-Modified for " + url + ", it is downloaded again");
+        }
+        File dir = new File(getCacheDir(), sha256(url + "|" + validator));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("create cache dir failed: " + dir);
+        }
+        File target = new File(dir, name);
+        // 其他进程正在下载时等待它完成
+        try (RandomAccessFile lockFile = new RandomAccessFile(new File(dir, ".lock"), "rw");
+             FileChannel channel = lockFile.getChannel();
+             FileLock ignored = channel.lock()) {
+            if (validator.isCacheable() && isComplete(target, validator)) {
+                if (verify(target)) {
+                    logger.info("use cached app binary " + target);
+                    return target;
+                }
+                logger.warn("checksum of cached app binary " + target + " mismatch, it is downloaded again");
+                Files.delete(target.toPath());
+            }
+            download(url, validator, target);
+            return target;
+        }
+    }
+
+    private static File getCacheDir() {
+        String dir = PropConfig.getAppCacheDir();
+        if (dir == null || dir.isEmpty()) {
+            return new File(System.getProperty("user.home"), ".appcache");
+        }
+        return new File(dir);
+    }
+
+    private static boolean isComplete(File target, Validator validator) {
+        File digest = new File(target.getPath() + DIGEST_SUFFIX);
+        return target.isFile() && digest.isFile()
+                && (validator.length < 0 || target.length() == validator.length);
+    }
+
+    private static Validator head(String url) throws IOException {
+        HttpURLConnection connection = open(url);
+        try {
+            connection.setRequestMethod("HEAD");
+            int code = connection.getResponseCode();
+            if (code >= 400) {
+                throw new IOException("HEAD " + url + " returned " + code);
+            }
+            return new Validator(connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"),
+                    connection.getContentLengthLong());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void download(String url, Validator validator, File target) throws IOException {
+        File part = new File(target.getPath() + PART_SUFFIX);
+        if (!validator.isCacheable()) {
+            // 无法判断断点前后是否为同一个文件
+            Files.deleteIfExists(part.toPath());
+        }
+        MessageDigest digest = newDigest();
+        long offset = part.isFile() ? part.length() : 0;
+        if (validator.length >= 0 && offset > validator.length) {
+            Files.delete(part.toPath());
+            offset = 0;
+        }
+        HttpURLConnection connection = open(url);
+        try {
+            if (offset > 0) {
+                connection.setRequestProperty("Range", "bytes=" + offset + "-");
+                connection.setRequestProperty("If-Range", validator.etag != null ? validator.etag : validator.lastModified);
+            }
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_PARTIAL) {
+                logger.info("resume download of " + url + " from " + offset + " bytes");
+                update(digest, part);
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                offset = 0;
+                logger.info("download file:" + url);
+            } else {
+                throw new IOException("GET " + url + " returned " + code);
+            }
+            try (InputStream in = connection.getInputStream();
+                 OutputStream out = new FileOutputStream(part, offset > 0)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    digest.update(buffer, 0, read);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+        if (validator.length >= 0 && part.length() != validator.length) {
+            // 保留 .part, 下次从断点继续
+            throw new IOException("download of " + url + " is incomplete: " + part.length() + "/" + validator.length);
+        }
+        File digestFile = new File(target.getPath() + DIGEST_SUFFIX);
+        Files.deleteIfExists(digestFile.toPath());
+        Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.write(digestFile.toPath(), toHex(digest.digest()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Verifies the cached file against the recorded sha-256.
+     *
+     * @param target the cached file
+     * @return true if the content matches
+     * @throws IOException the io exception
+     */
+    private static boolean verify(File target) throws IOException {
+        File digestFile = new File(target.getPath() + DIGEST_SUFFIX);
+        if (!target.isFile() || !digestFile.isFile()) {
+            return false;
+        }
+        MessageDigest digest = newDigest();
+        update(digest, target);
+        String expected = new String(Files.readAllBytes(digestFile.toPath()), StandardCharsets.UTF_8).trim();
+        return expected.equalsIgnoreCase(toHex(digest.digest()));
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setInstanceFollowRedirects(true);
+        return connection;
+    }
+
+    private static void update(MessageDigest digest, File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static class Validator {
+        private final String etag;
+        private final String lastModified;
+        private final long length;
+
+        private Validator(String etag, String lastModified, long length) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean isCacheable() {
+            return etag != null || lastModified != null;
+        }
+
+        @Override
+        public String toString() {
+            return etag + "|" + lastModified + "|" + length;
+        }
+    }
+}
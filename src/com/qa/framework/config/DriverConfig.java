@@ -26,10 +26,18 @@ import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.support.ThreadGuard;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,13 +50,14 @@ public class DriverConfig {
     private static final String INTERNET_EXPLORER = "internet explorer";
     private final static Logger logger = Logger
             .getLogger(DriverConfig.class);
-    private static WebDriver driverObject = null;
     private transient static Stack<String> stack = new Stack<String>();
     private transient static selectedBrowser browserType;
     private transient static htmlUnitEmulation emulationType;
-    private static boolean isFirstLaunch = true;
-    private static boolean isDownloaded = false;
-    private static String appBinName = "";
+    private static final AtomicReference<FutureTask<String>> emulatorRestart = new AtomicReference<FutureTask<String>>();
+    private static final AtomicReference<FutureTask<File>> appBin = new AtomicReference<FutureTask<File>>();
+    private static final Map<selectedBrowser, DesiredCapabilities> capabilitiesCache = new ConcurrentHashMap<selectedBrowser, DesiredCapabilities>();
+    private static final Semaphore launchPermits = PropConfig.getDriverLaunchConcurrency() > 0
+            ? new Semaphore(PropConfig.getDriverLaunchConcurrency(), true) : null;
 
     static {
         if (PropConfig.getCoreType().contains(",")) {
@@ -117,119 +126,96 @@ public class DriverConfig {
      * @return WebDriver driver object
      * @throws Exception the exception
      */
-    public static synchronized WebDriver getDriverObject(selectedBrowser browserType) throws Exception {
+    public static WebDriver getDriverObject(selectedBrowser browserType) throws Exception {
+        WebDriver driver = createDriverObject(browserType);
+        return isThreadGuarded(browserType) ? ThreadGuard.protect(driver) : driver;
+    }
+
+    /**
+     * Whether the driver of the browser type is only used by the thread that gets it.
+     *
+     * @param browserType the browser type
+     * @return the boolean
+     */
+    public static boolean isThreadGuarded(selectedBrowser browserType) {
+        switch (browserType) {
+            case FIREFOX:
+            case IE:
+            case GOOGLECHROME:
+            case SAFARI:
+            case OPERA:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Create the driver object of the browser type, without the ThreadGuard.
+     * Drivers are created in parallel, at most driverLaunchConcurrency at a time.
+     *
+     * @param browserType the browser type
+     * @return WebDriver driver object
+     * @throws Exception the exception
+     */
+    public static WebDriver createDriverObject(selectedBrowser browserType) throws Exception {
+        if (launchPermits != null) {
+            launchPermits.acquire();
+        }
         try {
-            String appiumServerUrl;
-            File app;
-            DesiredCapabilities capabilities = null;
+            WebDriver driverObject;
+            DesiredCapabilities capabilities = getCapabilities(browserType);
             switch (browserType) {
                 case FIREFOX:
-                    System.setProperty("webdriver.gecko.driver", ProjectEnvironment.getGeckoDriverLocation());
-                    FirefoxProfile fp = new FirefoxProfile();
-                    fp.setPreference("browser.startup.homepage", "about:blank");
-                    fp.setPreference("startup.homepage_welcome_url", "about:blank");
-                    fp.setPreference("startup.homepage_welcome_url.additional", "about:blank");
-                    if (PropConfig.isDebug()) {
-                        List<String> xpiFiles = IOHelper.listFilesInDirectory(ProjectEnvironment.getFirefoxExtensionsLocation(), "*.xpi");
-                        for (String xpi : xpiFiles) {
-                            fp.addExtension(new File(xpi));
-                        }
-                    }
-                    driverObject = ThreadGuard.protect(new FirefoxDriver(fp));
+                    driverObject = new FirefoxDriver(createFirefoxProfile());
                     logger.info("Using FIREFOX Driver...");
                     break;
                 case IE:
-                    System.setProperty("webdriver.ie.driver", ProjectEnvironment.getIEDriverLocation());
-                    capabilities = DesiredCapabilities.internetExplorer();
-                    capabilities.setCapability(InternetExplorerDriver.INTRODUCE_FLAKINESS_BY_IGNORING_SECURITY_DOMAINS, true);
-                    capabilities.setCapability("requireWindowFocus", true);
-                    driverObject = ThreadGuard.protect(new InternetExplorerDriver(capabilities));
+                    driverObject = new InternetExplorerDriver(capabilities);
                     logger.info("Using INTERNET EXPLORER Driver...");
                     break;
                 case GOOGLECHROME:
-                    System.setProperty("webdriver.chrome.driver",
-                            ProjectEnvironment.getChromeDriverLocation());
-                    capabilities = DesiredCapabilities.chrome();
-                    LoggingPreferences loggingprefs = new LoggingPreferences();
-                    loggingprefs.enable(LogType.BROWSER, Level.ALL);
-                    capabilities.setCapability(CapabilityType.LOGGING_PREFS, loggingprefs);
-                    if (PropConfig.isDebug()) {
-                        ChromeOptions options = new ChromeOptions();
-                        List<String> crxFiles = IOHelper.listFilesInDirectory(ProjectEnvironment.getChromeExtensionsLocation(), "*.crx");
-                        for (String crx : crxFiles) {
-                            options.addExtensions(new File(crx));
-                        }
-                        capabilities.setCapability(ChromeOptions.CAPABILITY, options);
-                    }
-                    driverObject = ThreadGuard.protect(new ChromeDriver(capabilities));
+                    driverObject = new ChromeDriver(capabilities);
                     logger.info("Using GOOGLECHROME Driver...");
                     break;
                 case HTMLUNIT:
+                    driverObject = new HtmlUnitDriver(capabilities);
                     if (PropConfig.getHtmlUnitProxy() != null) {
-                        driverObject = new HtmlUnitDriver(
-                                setHTMLUnitCapabilitiesWithProxy(
-                                        PropConfig.getHtmlUnitProxy(),
-                                        emulationType));
                         logger.info("Using HTMLUNIT Driver... with proxy "
                                 + PropConfig.getHtmlUnitProxy());
                     } else {
-                        driverObject = new HtmlUnitDriver(
-                                setHTMLUnitCapabilities(emulationType));
                         logger.info("Using HTMLUNIT Driver...");
                     }
                     break;
                 case SAFARI:
-                    driverObject = ThreadGuard.protect(new SafariDriver());
+                    driverObject = new SafariDriver();
                     logger.info("Using Opera Driver...");
                     break;
                 case OPERA:
-                    driverObject = ThreadGuard.protect(new OperaDriver());
+                    driverObject = new OperaDriver();
                     logger.info("Using Opera Driver...");
                     break;
                 case ANDROIDAPP:
-                    appiumServerUrl = getAppiumServerUrl();
-                    app = getAppBin();
-                    capabilities = new DesiredCapabilities();
-                    if (PropConfig.getDeviceName() != null && isFirstLaunch) {
-                        Emulator emulator = new Emulator(PropConfig.getDeviceName());
-                        emulator.restartEmulator();
-                        capabilities.setCapability("deviceName", emulator.getDeviceName());
-                        isFirstLaunch = false;
+                    String restartedDevice = PropConfig.getDeviceName() != null ? restartEmulatorOnce() : null;
+                    if (restartedDevice != null) {
+                        capabilities.setCapability("deviceName", restartedDevice);
                     } else {
                         IDevice device = DebugBridge.getDevice();
                         if (device != null) {
                             capabilities.setCapability("deviceName", device.getSerialNumber());
                         }
                     }
-                    if (PropConfig.isNoReset()) {
-                        capabilities.setCapability("noReset", true);
-                    }
-                    capabilities.setCapability("app", app.getAbsolutePath());
-                    capabilities.setCapability("unicodeKeyboard", true);
-                    capabilities.setCapability("resetKeyboard", true);
-                    driverObject = new AndroidDriver<>(new URL(appiumServerUrl), capabilities);
+                    driverObject = new AndroidDriver<>(new URL(getAppiumServerUrl()), capabilities);
                     logger.info("Using Android Driver...");
                     break;
                 case IOSAPP:
-                    appiumServerUrl = getAppiumServerUrl();
-                    app = getAppBin();
-                    capabilities = new DesiredCapabilities();
-                    if (PropConfig.getDeviceName() != null && PropConfig.getUuid() != null & PropConfig.getPlantfromVersion() != null) {
-                        capabilities.setCapability("deviceName", PropConfig.getDeviceName());
-                        capabilities.setCapability("udid", PropConfig.getUuid());
-                        capabilities.setCapability("plantfromVersion", PropConfig.getPlantfromVersion());
-                    } else {
+                    if (capabilities.getCapability("udid") == null) {
                         IDevice device = DebugBridge.getDevice();
                         if (device != null) {
                             capabilities.setCapability("deviceName", device.getSerialNumber());
                         }
                     }
-                    capabilities.setCapability("platfromName", "ios");
-                    capabilities.setCapability("unicodeKeyboard", true);
-                    capabilities.setCapability("resetKeyboard", true);
-                    capabilities.setCapability("nativeWebTap", true);
-                    capabilities.setCapability("app", app.getAbsolutePath());
-                    driverObject = new IOSDriver<>(new URL(appiumServerUrl), capabilities);
+                    driverObject = new IOSDriver<>(new URL(getAppiumServerUrl()), capabilities);
                     logger.info("Using IOS Driver...");
                     break;
                 default:
@@ -237,22 +223,174 @@ public class DriverConfig {
                     throw new Exception("'" + browserType
                             + UNKNOWN_BROWSER_TYPE);
             }
-
+            return driverObject;
         } catch (Exception x) {
             logger.error("Error in getDriverObject{}" + x.getMessage());
             throw new Exception("Error in getDriverObject{}" + x.getMessage());
+        } finally {
+            if (launchPermits != null) {
+                launchPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Restart the emulator before the first android launch. The other launches wait until the restart
+     * finishes and then use the device from the debug bridge.
+     *
+     * @return the device name for the launch that restarted the emulator, null for the other launches
+     */
+    private static String restartEmulatorOnce() throws Exception {
+        FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                Emulator emulator = new Emulator(PropConfig.getDeviceName());
+                emulator.restartEmulator();
+                return emulator.getDeviceName();
+            }
+        });
+        if (emulatorRestart.compareAndSet(null, task)) {
+            task.run();
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                throw new Exception("restart emulator failed: " + e.getCause(), e.getCause());
+            }
+        }
+        try {
+            emulatorRestart.get().get();
+        } catch (ExecutionException e) {
+            throw new Exception("restart emulator failed: " + e.getCause(), e.getCause());
+        }
+        return null;
+    }
+
+    private static FirefoxProfile createFirefoxProfile() {
+        // the profile is copied to a temp dir for every session, it can't be shared
+        FirefoxProfile fp = new FirefoxProfile();
+        fp.setPreference("browser.startup.homepage", "about:blank");
+        fp.setPreference("startup.homepage_welcome_url", "about:blank");
+        fp.setPreference("startup.homepage_welcome_url.additional", "about:blank");
+        if (PropConfig.isDebug()) {
+            List<String> xpiFiles = IOHelper.listFilesInDirectory(ProjectEnvironment.getFirefoxExtensionsLocation(), "*.xpi");
+            for (String xpi : xpiFiles) {
+                fp.addExtension(new File(xpi));
+            }
+        }
+        return fp;
+    }
+
+    /**
+     * Gets a copy of the capabilities of the browser type, they are built once per browser type.
+     */
+    private static DesiredCapabilities getCapabilities(selectedBrowser browserType) throws Exception {
+        DesiredCapabilities capabilities = capabilitiesCache.get(browserType);
+        if (capabilities == null) {
+            synchronized (capabilitiesCache) {
+                capabilities = capabilitiesCache.get(browserType);
+                if (capabilities == null) {
+                    capabilities = buildCapabilities(browserType);
+                    capabilitiesCache.put(browserType, capabilities);
+                }
+            }
+        }
+        return new DesiredCapabilities(capabilities);
+    }
+
+    private static DesiredCapabilities buildCapabilities(selectedBrowser browserType) throws Exception {
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        switch (browserType) {
+            case FIREFOX:
+                System.setProperty("webdriver.gecko.driver", ProjectEnvironment.getGeckoDriverLocation());
+                break;
+            case IE:
+                System.setProperty("webdriver.ie.driver", ProjectEnvironment.getIEDriverLocation());
+                capabilities = DesiredCapabilities.internetExplorer();
+                capabilities.setCapability(InternetExplorerDriver.INTRODUCE_FLAKINESS_BY_IGNORING_SECURITY_DOMAINS, true);
+                capabilities.setCapability("requireWindowFocus", true);
+                break;
+            case GOOGLECHROME:
+                System.setProperty("webdriver.chrome.driver",
+                        ProjectEnvironment.getChromeDriverLocation());
+                capabilities = DesiredCapabilities.chrome();
+                LoggingPreferences loggingprefs = new LoggingPreferences();
+                loggingprefs.enable(LogType.BROWSER, Level.ALL);
+                capabilities.setCapability(CapabilityType.LOGGING_PREFS, loggingprefs);
+                if (PropConfig.isDebug()) {
+                    ChromeOptions options = new ChromeOptions();
+                    List<String> crxFiles = IOHelper.listFilesInDirectory(ProjectEnvironment.getChromeExtensionsLocation(), "*.crx");
+                    for (String crx : crxFiles) {
+                        options.addExtensions(new File(crx));
+                    }
+                    capabilities.setCapability(ChromeOptions.CAPABILITY, options);
+                }
+                break;
+            case HTMLUNIT:
+                if (PropConfig.getHtmlUnitProxy() != null) {
+                    capabilities = setHTMLUnitCapabilitiesWithProxy(PropConfig.getHtmlUnitProxy(), emulationType);
+                } else {
+                    capabilities = setHTMLUnitCapabilities(emulationType);
+                }
+                break;
+            case ANDROIDAPP:
+                if (PropConfig.isNoReset()) {
+                    capabilities.setCapability("noReset", true);
+                }
+                capabilities.setCapability("app", getAppBin().getAbsolutePath());
+                capabilities.setCapability("unicodeKeyboard", true);
+                capabilities.setCapability("resetKeyboard", true);
+                break;
+            case IOSAPP:
+                if (PropConfig.getDeviceName() != null && PropConfig.getUuid() != null & PropConfig.getPlantfromVersion() != null) {
+                    capabilities.setCapability("deviceName", PropConfig.getDeviceName());
+                    capabilities.setCapability("udid", PropConfig.getUuid());
+                    capabilities.setCapability("plantfromVersion", PropConfig.getPlantfromVersion());
+                }
+                capabilities.setCapability("platfromName", "ios");
+                capabilities.setCapability("unicodeKeyboard", true);
+                capabilities.setCapability("resetKeyboard", true);
+                capabilities.setCapability("nativeWebTap", true);
+                capabilities.setCapability("app", getAppBin().getAbsolutePath());
+                break;
+            default:
+                break;
         }
-        return driverObject;
+        return capabilities;
     }
 
-    private static File getAppBin() {
+    /**
+     * Gets the app binary, it is resolved (and downloaded) once, concurrent callers wait for the first one.
+     */
+    private static File getAppBin() throws Exception {
+        FutureTask<File> task = appBin.get();
+        if (task == null) {
+            FutureTask<File> newTask = new FutureTask<File>(new Callable<File>() {
+                @Override
+                public File call() throws IOException {
+                    return resolveAppBin();
+                }
+            });
+            if (appBin.compareAndSet(null, newTask)) {
+                newTask.run();
+            }
+            task = appBin.get();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            // let the next launch try again
+            appBin.compareAndSet(task, null);
+            throw new Exception("resolve app binary failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static File resolveAppBin() throws IOException {
         File app = null;
-        if (PropConfig.getAppBin().contains("http") && !isDownloaded)
+        String appBinName = "";
+        if (PropConfig.getAppBin().contains("http"))
             if (PropConfig.getAppBin().endsWith("apk") || PropConfig.getAppBin().endsWith("ipa") || PropConfig.getAppBin().endsWith("app")) {
                 appBinName = IOHelper.getName(PropConfig.getAppBin());
-                IOHelper.deleteFile(ProjectEnvironment.resourcePath() + appBinName);
-                IOHelper.downFileFromUrl(PropConfig.getAppBin(), ProjectEnvironment.resourcePath() + appBinName);
-                app = new File(ProjectEnvironment.resourcePath(), appBinName);
+                app = AppBinCache.get(PropConfig.getAppBin(), appBinName);
             } else {
                 String source = IOHelper.getSourceFromUrl(PropConfig.getAppBin());
                 List<String> lines = StringHelper.getTokensList(source, "\n");
@@ -325,18 +463,10 @@ public class DriverConfig {
                         fullUrl = PropConfig.getAppBin() + "/" + matchedNumber + "/" + appBinName;
                     }
                 }
-                logger.info("download file:" + fullUrl);
-                IOHelper.deleteFile(ProjectEnvironment.resourcePath() + appBinName);
-                IOHelper.downFileFromUrl(fullUrl, ProjectEnvironment.resourcePath() + appBinName);
-                app = new File(ProjectEnvironment.resourcePath(), appBinName);
-                isDownloaded = true;
+                app = AppBinCache.get(fullUrl, IOHelper.getName(appBinName));
             }
         else {
-            if (PropConfig.getAppBin().contains("http")) {
-                app = new File(ProjectEnvironment.resourcePath(), appBinName);
-            } else {
-                app = new File(ProjectEnvironment.resourcePath(), PropConfig.getAppBin());
-            }
+            app = new File(ProjectEnvironment.resourcePath(), PropConfig.getAppBin());
         }
         return app;
     }
@@ -346,7 +476,7 @@ public class DriverConfig {
      *
      * @return the appium server url
      */
-    public static String getAppiumServerUrl() {
+    public static synchronized String getAppiumServerUrl() {
         String appiumServerUrl = PropConfig.getAppiumServerUrl();
         if (appiumServerUrl == null) {
             AppiumServer.start("127.0.0.1", 4723);
@@ -369,10 +499,19 @@ public class DriverConfig {
      * @throws Exception the exception
      */
     public static WebDriver getDriverObject() throws Exception {
+        return getDriverObject(nextBrowserType());
+    }
+
+    /**
+     * Selects the next browser type when several are configured in coreType.
+     *
+     * @return the browser type
+     */
+    public static synchronized selectedBrowser nextBrowserType() {
         if (!stack.isEmpty()) {
             setBrowser(stack.pop());
         }
-        return getDriverObject(browserType);
+        return browserType;
     }
 
     /**
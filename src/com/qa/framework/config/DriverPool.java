@@ -0,0 +1,238 @@
+package com.qa.framework.config;
+
+import io.appium.java_client.AppiumDriver;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ThreadGuard;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Driver 会话池, 同样配置(key)的会话在测试方法之间复用, 避免每个测试方法都重新启动浏览器或 app.
+ * 归还时清理会话: web 清除每个窗口的 localStorage, sessionStorage 并关闭多余窗口, driver 支持 DevTools(executeCdpCommand)时
+ * 清除所有域名的 cookie 以及这些窗口和 cookie 所属 origin 的存储, 否则只能清除当前域名的 cookie; app 重置(noReset 时不重置);
+ * 借出时先检查会话是否可用, 一个会话最多使用 driverMaxReuse 次, driverMaxReuse 为 0 时不复用.
+ * 会话以原始 driver 保存, 每次借出时再用 ThreadGuard 绑定到借用的线程, 所以可以被其他线程再次借出.
+ */
+public class DriverPool {
+    private final static Logger logger = Logger.getLogger(DriverPool.class);
+    private static final Map<String, Queue<Session>> idleSessions = new ConcurrentHashMap<String, Queue<Session>>();
+    private static final ThreadLocal<Session> leasedSession = new ThreadLocal<Session>();
+    private static final String CLEAR_STORAGE_SCRIPT = "try { window.localStorage.clear(); } catch (e) {}"
+            + "try { window.sessionStorage.clear(); } catch (e) {}"
+            + "return window.location.origin;";
+
+    /**
+     * 借出一个会话, 没有可用的空闲会话时创建
+     *
+     * @param key         the key, sessions with the same key are interchangeable
+     * @param threadGuard true to bind the returned driver to the current thread
+     * @param factory     the factory creating the raw driver
+     * @return the driver
+     * @throws Exception the exception
+     */
+    public static WebDriver lease(String key, boolean threadGuard, DriverFactory factory) throws Exception {
+        Session session = null;
+        if (PropConfig.getDriverMaxReuse() > 0) {
+            Queue<Session> queue = getIdleSessions(key);
+            Session idle;
+            while (session == null && (idle = queue.poll()) != null) {
+                if (idle.isHealthy()) {
+                    session = idle;
+                } else {
+                    idle.quit();
+                }
+            }
+        }
+        if (session == null) {
+            session = new Session(key, threadGuard, factory.create());
+        }
+        session.leases++;
+        leasedSession.set(session);
+        return session.threadGuard ? ThreadGuard.protect(session.driver) : session.driver;
+    }
+
+    /**
+     * 归还当前线程借出的会话, 不能复用时关闭
+     *
+     * @param driver the driver got from lease
+     */
+    public static void release(WebDriver driver) {
+        Session session = leasedSession.get();
+        leasedSession.remove();
+        if (session == null) {
+            // 不是从会话池借出的
+            if (driver != null) {
+                driver.quit();
+            }
+            return;
+        }
+        if (session.leases >= PropConfig.getDriverMaxReuse() || !session.reset()) {
+            session.quit();
+            return;
+        }
+        getIdleSessions(session.key).add(session);
+    }
+
+    /**
+     * 关闭所有空闲会话
+     */
+    public static void shutdown() {
+        List<Session> sessions = new ArrayList<Session>();
+        for (Queue<Session> queue : idleSessions.values()) {
+            Session session;
+            while ((session = queue.poll()) != null) {
+                sessions.add(session);
+            }
+        }
+        for (Session session : sessions) {
+            session.quit();
+        }
+    }
+
+    private static Queue<Session> getIdleSessions(String key) {
+        Queue<Session> queue = idleSessions.get(key);
+        if (queue == null) {
+            synchronized (idleSessions) {
+                queue = idleSessions.get(key);
+                if (queue == null) {
+                    queue = new ConcurrentLinkedQueue<Session>();
+                    idleSessions.put(key, queue);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * 创建原始 driver
+     */
+    public interface DriverFactory {
+        /**
+         * Create web driver.
+         *
+         * @return the web driver
+         * @throws Exception the exception
+         */
+        WebDriver create() throws Exception;
+    }
+
+    private static class Session {
+        private final String key;
+        private final boolean threadGuard;
+        private final WebDriver driver;
+        private int leases = 0;
+
+        private Session(String key, boolean threadGuard, WebDriver driver) {
+            this.key = key;
+            this.threadGuard = threadGuard;
+            this.driver = driver;
+        }
+
+        private boolean isHealthy() {
+            try {
+                if (driver instanceof AppiumDriver) {
+                    ((AppiumDriver<?>) driver).getContext();
+                } else {
+                    driver.getWindowHandle();
+                }
+                return true;
+            } catch (Exception e) {
+                logger.info("driver session of " + key + " is not usable: " + e.getMessage());
+                return false;
+            }
+        }
+
+        private boolean reset() {
+            try {
+                if (driver instanceof AppiumDriver) {
+                    if (!PropConfig.isNoReset()) {
+                        ((AppiumDriver<?>) driver).resetApp();
+                    }
+                    return true;
+                }
+                Set<String> origins = new LinkedHashSet<String>();
+                List<String> handles = new ArrayList<String>(driver.getWindowHandles());
+                for (int i = handles.size() - 1; i >= 0; i--) {
+                    driver.switchTo().window(handles.get(i));
+                    if (driver instanceof JavascriptExecutor) {
+                        Object origin = ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+                        if (origin instanceof String && ((String) origin).startsWith("http")) {
+                            origins.add((String) origin);
+                        }
+                    }
+                    if (i > 0) {
+                        driver.close();
+                    }
+                }
+                if (!clearBrowserData(origins)) {
+                    // 只能清除当前域名的 cookie
+                    driver.manage().deleteAllCookies();
+                }
+                driver.get("about:blank");
+                return true;
+            } catch (Exception e) {
+                logger.info("reset driver session of " + key + " failed: " + e.getMessage());
+                return false;
+            }
+        }
+
+        /**
+         * 通过 DevTools 清除所有域名的 cookie, 以及窗口和 cookie 所属 origin 的存储
+         *
+         * @return false if the driver has no executeCdpCommand
+         */
+        @SuppressWarnings("unchecked")
+        private boolean clearBrowserData(Set<String> origins) {
+            Method executeCdpCommand;
+            try {
+                executeCdpCommand = driver.getClass().getMethod("executeCdpCommand", String.class, Map.class);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+            try {
+                Map<String, Object> result = (Map<String, Object>) executeCdpCommand.invoke(driver, "Network.getAllCookies", new HashMap<String, Object>());
+                List<Map<String, Object>> cookies = (List<Map<String, Object>>) result.get("cookies");
+                if (cookies != null) {
+                    for (Map<String, Object> cookie : cookies) {
+                        String domain = String.valueOf(cookie.get("domain"));
+                        if (domain.startsWith(".")) {
+                            domain = domain.substring(1);
+                        }
+                        origins.add("http://" + domain);
+                        origins.add("https://" + domain);
+                    }
+                }
+                for (String origin : origins) {
+                    Map<String, Object> params = new HashMap<String, Object>();
+                    params.put("origin", origin);
+                    params.put("storageTypes", "all");
+                    executeCdpCommand.invoke(driver, "Storage.clearDataForOrigin", params);
+                }
+                executeCdpCommand.invoke(driver, "Network.clearBrowserCookies", new HashMap<String, Object>());
+                return true;
+            } catch (Exception e) {
+                logger.debug("clear browser data by DevTools failed: " + e.toString());
+                return false;
+            }
+        }
+
+        private void quit() {
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                logger.debug("quit driver session of " + key + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
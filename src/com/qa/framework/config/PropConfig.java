@@ -94,6 +94,84 @@ public class PropConfig {
     //单例测试
     @Value("noReset")
     private static boolean noReset;
+
+    //元素等待
+    @Value("waitEngine")
+    private static String waitEngine;
+
+    //操作后等待页面稳定: auto, fixed, none
+    @Value("settleMode")
+    private static String settleMode = "auto";
+    @Value("settleTimeout")
+    private static int settleTimeout = 500;
+    @Value("settleTime")
+    private static int settleTime = 500;
+    @Value("settleQuietPeriod")
+    private static int settleQuietPeriod = 300;
+
+    //截图后台写入: block, drop, oldest
+    @Value("screenshotQueuePolicy")
+    private static String screenshotQueuePolicy = "block";
+    @Value("screenshotQueueSize")
+    private static int screenshotQueueSize = 64;
+    @Value("screenshotThreads")
+    private static int screenshotThreads = 2;
+    @Value("screenshotMaxWidth")
+    private static int screenshotMaxWidth = 0;
+
+    //http 连接池
+    @Value("httpMaxTotal")
+    private static int httpMaxTotal = 200;
+    @Value("httpMaxPerRoute")
+    private static int httpMaxPerRoute = 50;
+    @Value("httpIdleTimeout")
+    private static int httpIdleTimeout = 30000;
+    @Value("httpAsyncThreads")
+    private static int httpAsyncThreads = 16;
+
+    //driver 复用次数, 0 表示每个测试方法结束后关闭 driver. 复用的浏览器归还时清除 cookie 和存储,
+    //driver 不支持 DevTools(executeCdpCommand)时只清除当前域名的 cookie 和打开的窗口的存储, 其他域名的登录状态会保留到下一个测试
+    @Value("driverMaxReuse")
+    private static int driverMaxReuse = 0;
+    //同时启动的 driver 个数, 0 表示不限制
+    @Value("driverLaunchConcurrency")
+    private static int driverLaunchConcurrency = 4;
+    //app 安装包的缓存目录, 为空时使用 ~/.appcache
+    @Value("appCacheDir")
+    private static String appCacheDir = "";
+    //DBHelper.executeBatch 每批的行数
+    @Value("dbBatchSize")
+    private static int dbBatchSize = 1000;
+    //DBHelper 流式查询每次读取的行数
+    @Value("dbFetchSize")
+    private static int dbFetchSize = 500;
+    //每个数据库连接缓存的 PreparedStatement 个数, 0 表示不缓存
+    @Value("dbStatementCacheSize")
+    private static int dbStatementCacheSize = 64;
+    //DBHelper.initSQL 脚本中语句的分隔方式: line(每行一条语句), delimiter(语句以 ; 或 DELIMITER 指定的分隔符结束)
+    @Value("dbScriptMode")
+    private static String dbScriptMode = "line";
+    //是否在 excel 数据文件旁保存解析后的快照
+    @Value("excelSnapshot")
+    private static boolean excelSnapshot = false;
+    //图片比较时超过色差阈值的像素超过该数量就停止比较, -1 表示比较所有像素
+    @Value("imageDiffBudget")
+    private static int imageDiffBudget = -1;
+    //两张图片的 dHash 汉明距离不超过该值时认为相同, 不再逐像素比较, -1 表示不使用 dHash
+    @Value("imageHashTolerance")
+    private static int imageHashTolerance = -1;
+    //图片比较时忽略的区域, 格式为 x,y,width,height, 多个区域用 ; 分隔
+    @Value("imageIgnoreRegions")
+    private static String imageIgnoreRegions = "";
+    //内存中缓存的基准图片像素的总大小(MB)
+    @Value("imageBaselineCacheSize")
+    private static int imageBaselineCacheSize = 256;
+    //是否在基准图片旁保存解码后的 ARGB 像素
+    @Value("imageRawBaseline")
+    private static boolean imageRawBaseline = false;
+    //uiautomator dump 是否使用 --compressed, 只输出重要的控件
+    @Value("uiDumpCompressed")
+    private static boolean uiDumpCompressed = true;
     private static Properties props;
 
     static {
@@ -549,6 +627,222 @@ public class PropConfig {
         PropConfig.noReset = noReset;
     }
 
+    public static String getWaitEngine() {
+        return waitEngine;
+    }
+
+    public static void setWaitEngine(String waitEngine) {
+        PropConfig.waitEngine = waitEngine;
+    }
+
+    public static String getSettleMode() {
+        return settleMode;
+    }
+
+    public static void setSettleMode(String settleMode) {
+        PropConfig.settleMode = settleMode;
+    }
+
+    public static int getSettleTimeout() {
+        return settleTimeout;
+    }
+
+    public static void setSettleTimeout(String val) {
+        settleTimeout = Integer.parseInt(val);
+    }
+
+    public static int getSettleTime() {
+        return settleTime;
+    }
+
+    public static void setSettleTime(String val) {
+        settleTime = Integer.parseInt(val);
+    }
+
+    public static int getSettleQuietPeriod() {
+        return settleQuietPeriod;
+    }
+
+    public static void setSettleQuietPeriod(String val) {
+        settleQuietPeriod = Integer.parseInt(val);
+    }
+
+    public static String getScreenshotQueuePolicy() {
+        return screenshotQueuePolicy;
+    }
+
+    public static void setScreenshotQueuePolicy(String val) {
+        screenshotQueuePolicy = val;
+    }
+
+    public static int getScreenshotQueueSize() {
+        return screenshotQueueSize;
+    }
+
+    public static void setScreenshotQueueSize(String val) {
+        screenshotQueueSize = Integer.parseInt(val);
+    }
+
+    public static int getScreenshotThreads() {
+        return screenshotThreads;
+    }
+
+    public static void setScreenshotThreads(String val) {
+        screenshotThreads = Integer.parseInt(val);
+    }
+
+    public static int getScreenshotMaxWidth() {
+        return screenshotMaxWidth;
+    }
+
+    public static void setScreenshotMaxWidth(String val) {
+        screenshotMaxWidth = Integer.parseInt(val);
+    }
+
+    public static int getHttpMaxTotal() {
+        return httpMaxTotal;
+    }
+
+    public static void setHttpMaxTotal(String val) {
+        httpMaxTotal = Integer.parseInt(val);
+    }
+
+    public static int getHttpMaxPerRoute() {
+        return httpMaxPerRoute;
+    }
+
+    public static void setHttpMaxPerRoute(String val) {
+        httpMaxPerRoute = Integer.parseInt(val);
+    }
+
+    public static int getHttpIdleTimeout() {
+        return httpIdleTimeout;
+    }
+
+    public static void setHttpIdleTimeout(String val) {
+        httpIdleTimeout = Integer.parseInt(val);
+    }
+
+    public static int getHttpAsyncThreads() {
+        return httpAsyncThreads;
+    }
+
+    public static void setHttpAsyncThreads(String val) {
+        httpAsyncThreads = Integer.parseInt(val);
+    }
+
+    public static int getDriverMaxReuse() {
+        return driverMaxReuse;
+    }
+
+    public static void setDriverMaxReuse(String val) {
+        driverMaxReuse = Integer.parseInt(val);
+    }
+
+    public static int getDriverLaunchConcurrency() {
+        return driverLaunchConcurrency;
+    }
+
+    public static void setDriverLaunchConcurrency(String val) {
+        driverLaunchConcurrency = Integer.parseInt(val);
+    }
+
+    public static String getAppCacheDir() {
+        return appCacheDir;
+    }
+
+    public static void setAppCacheDir(String val) {
+        appCacheDir = val;
+    }
+
+    public static int getDbBatchSize() {
+        return dbBatchSize;
+    }
+
+    public static void setDbBatchSize(String val) {
+        dbBatchSize = Integer.parseInt(val);
+    }
+
+    public static int getDbFetchSize() {
+        return dbFetchSize;
+    }
+
+    public static void setDbFetchSize(String val) {
+        dbFetchSize = Integer.parseInt(val);
+    }
+
+    public static int getDbStatementCacheSize() {
+        return dbStatementCacheSize;
+    }
+
+    public static void setDbStatementCacheSize(String val) {
+        dbStatementCacheSize = Integer.parseInt(val);
+    }
+
+    public static String getDbScriptMode() {
+        return dbScriptMode;
+    }
+
+    public static void setDbScriptMode(String dbScriptMode) {
+        PropConfig.dbScriptMode = dbScriptMode;
+    }
+
+    public static boolean isExcelSnapshot() {
+        return excelSnapshot;
+    }
+
+    public static void setExcelSnapshot(String val) {
+        excelSnapshot = "true".equalsIgnoreCase(val);
+    }
+
+    public static int getImageDiffBudget() {
+        return imageDiffBudget;
+    }
+
+    public static void setImageDiffBudget(String val) {
+        imageDiffBudget = Integer.parseInt(val);
+    }
+
+    public static int getImageHashTolerance() {
+        return imageHashTolerance;
+    }
+
+    public static void setImageHashTolerance(String val) {
+        imageHashTolerance = Integer.parseInt(val);
+    }
+
+    public static String getImageIgnoreRegions() {
+        return imageIgnoreRegions;
+    }
+
+    public static void setImageIgnoreRegions(String val) {
+        imageIgnoreRegions = val;
+    }
+
+    public static int getImageBaselineCacheSize() {
+        return imageBaselineCacheSize;
+    }
+
+    public static void setImageBaselineCacheSize(String val) {
+        imageBaselineCacheSize = Integer.parseInt(val);
+    }
+
+    public static boolean isImageRawBaseline() {
+        return imageRawBaseline;
+    }
+
+    public static void setImageRawBaseline(String val) {
+        imageRawBaseline = "true".equalsIgnoreCase(val);
+    }
+
+    public static boolean isUiDumpCompressed() {
+        return uiDumpCompressed;
+    }
+
+    public static void setUiDumpCompressed(String val) {
+        uiDumpCompressed = "true".equalsIgnoreCase(val);
+    }
+
     private static void initConfigFields(Class<?> clazz) {
         props = getProperties();
         Field[] fields = clazz.getDeclaredFields();
@@ -5,8 +5,9 @@ import com.qa.framework.ioc.annotation.Service;
 import org.apache.log4j.Logger;
 
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class IocContainer {
     private static final Logger logger = Logger.getLogger(IocContainer.class);
@@ -14,15 +15,13 @@ public class IocContainer {
 
     static {
         try {
-            // 获取应用包路径下所有的类
-            List<Class<?>> classList = ClassFinder.getClassList();
-            for (Class<?> cls : classList) {
-                if (cls.isAnnotationPresent(Service.class)
-                        || cls.isAnnotationPresent(Page.class)) {
-                    Object instance = cls.newInstance();
-                    //container.put(cls, instance);
-                    //logger.info("Add the class " + cls.getName() + " ioc container");
-                }
+            // 获取应用包路径下标注了 Service 或 Page 的类
+            Set<Class<?>> classSet = new LinkedHashSet<Class<?>>(ClassFinder.getClassListByAnnotation(Service.class));
+            classSet.addAll(ClassFinder.getClassListByAnnotation(Page.class));
+            for (Class<?> cls : classSet) {
+                Object instance = cls.newInstance();
+                //container.put(cls, instance);
+                //logger.info("Add the class " + cls.getName() + " ioc container");
             }
         } catch (Exception e) {
             throw new RuntimeException("初始化类出错！" + e.getCause());
@@ -1,48 +1,29 @@
 package com.qa.framework.ioc.impl;
 
 import com.qa.framework.ioc.ClassScanner;
-import com.qa.framework.ioc.impl.support.AnnotationClassTemplate;
-import com.qa.framework.ioc.impl.support.ClassTemplate;
-import com.qa.framework.ioc.impl.support.SupperClassTemplate;
+import com.qa.framework.ioc.impl.support.ClassIndex;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
 
 
 /**
- * 默认类扫描器
+ * 默认类扫描器, 查询结果来自只扫描一次的 {@link ClassIndex}
  */
 public class DefaultClassScanner implements ClassScanner {
 
     @Override
     public List<Class<?>> getClassList(String packageName) {
-        return new ClassTemplate(packageName) {
-            @Override
-            public boolean checkAddClass(Class<?> cls) {
-                String className = cls.getName();
-                String pkgName = className.substring(0, className.lastIndexOf("."));
-                return pkgName.startsWith(packageName);
-            }
-        }.getClassList();
+        return ClassIndex.forPackage(packageName).getClassList();
     }
 
     @Override
     public List<Class<?>> getClassListByAnnotation(String packageName, Class<? extends Annotation> annotationClass) {
-        return new AnnotationClassTemplate(packageName, annotationClass) {
-            @Override
-            public boolean checkAddClass(Class<?> cls) {
-                return cls.isAnnotationPresent(annotationClass);
-            }
-        }.getClassList();
+        return ClassIndex.forPackage(packageName).getClassListByAnnotation(annotationClass);
     }
 
     @Override
     public List<Class<?>> getClassListBySuper(String packageName, Class<?> superClass) {
-        return new SupperClassTemplate(packageName, superClass) {
-            @Override
-            public boolean checkAddClass(Class<?> cls) {
-                return superClass.isAssignableFrom(cls) && !superClass.equals(cls);
-            }
-        }.getClassList();
+        return ClassIndex.forPackage(packageName).getClassListBySuper(superClass);
     }
 }
@@ -0,0 +1,205 @@
+package com.qa.framework.ioc.impl.support;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 类文件头信息: 父类, 接口与类上的注解, 读取时不加载也不初始化类
+ */
+public class ClassHeader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private final String className;
+    private final String superName;
+    private final List<String> interfaces;
+    private final List<String> annotations;
+
+    /**
+     * Instantiates a new Class header.
+     *
+     * @param className   the class name
+     * @param superName   the super class name, null for java.lang.Object and interfaces without super
+     * @param interfaces  the interface names
+     * @param annotations the annotation class names
+     */
+    public ClassHeader(String className, String superName, List<String> interfaces, List<String> annotations) {
+        this.className = className;
+        this.superName = superName;
+        this.interfaces = Collections.unmodifiableList(interfaces);
+        this.annotations = Collections.unmodifiableList(annotations);
+    }
+
+    /**
+     * 从字节码读取类文件头
+     *
+     * @param inputStream the input stream of the class file
+     * @return the class header
+     * @throws IOException the io exception
+     */
+    public static ClassHeader read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a class file");
+        }
+        in.skipBytes(4); // minor, major version
+        int count = in.readUnsignedShort();
+        Object[] pool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    pool[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    pool[i] = in.readUnsignedShort();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.skipBytes(2);
+                    break;
+                default:
+                    throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+        in.skipBytes(2); // access flags
+        String className = className(pool, in.readUnsignedShort());
+        String superName = className(pool, in.readUnsignedShort());
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaces = new ArrayList<String>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(className(pool, in.readUnsignedShort()));
+        }
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+        List<String> annotations = new ArrayList<String>();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = (String) pool[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (ANNOTATIONS.equals(name)) {
+                int annotationCount = in.readUnsignedShort();
+                for (int j = 0; j < annotationCount; j++) {
+                    annotations.add(descriptorToName((String) pool[in.readUnsignedShort()]));
+                    skipElementValuePairs(in);
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassHeader(className, superName, interfaces, annotations);
+    }
+
+    private static String className(Object[] pool, int index) {
+        if (index == 0) {
+            return null;
+        }
+        return ((String) pool[(Integer) pool[index]]).replace('/', '.');
+    }
+
+    private static String descriptorToName(String descriptor) {
+        // Lcom/qa/framework/ioc/annotation/Page;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int memberCount = in.readUnsignedShort();
+        for (int i = 0; i < memberCount; i++) {
+            in.skipBytes(6); // access flags, name, descriptor
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                in.skipBytes(2);
+                in.skipBytes(in.readInt());
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            in.skipBytes(2); // element name
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                in.skipBytes(2);
+                skipElementValuePairs(in);
+                break;
+            case '[':
+                int valueCount = in.readUnsignedShort();
+                for (int i = 0; i < valueCount; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                // B C D F I J S Z s c
+                in.skipBytes(2);
+        }
+    }
+
+    /**
+     * Gets class name.
+     *
+     * @return the class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Gets super name.
+     *
+     * @return the super name
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * Gets interfaces.
+     *
+     * @return the interfaces
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Gets annotations.
+     *
+     * @return the annotations
+     */
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+}
@@ -0,0 +1,492 @@
+package com.qa.framework.ioc.impl.support;
+
+import com.library.common.ClassHelper;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 包下所有类的索引, 每个包只扫描一次.
+ * 扫描只读取类文件头(父类, 接口, 注解), 不加载类; 结果保存在临时目录的缓存文件中,
+ * 类目录与 jar 包的时间戳和大小不变时直接读取缓存文件.
+ * 按父类或注解查询的结果会被缓存, 只有匹配的类才会被加载(不初始化).
+ */
+public class ClassIndex {
+    private static final Logger logger = Logger.getLogger(ClassIndex.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String NONE = "-";
+    private static final Map<String, ClassIndex> indexes = new ConcurrentHashMap<String, ClassIndex>();
+    /**
+     * 不在索引中的祖先类的类文件头, 所有包共用
+     */
+    private static final Map<String, ClassHeader> externalHeaders = new ConcurrentHashMap<String, ClassHeader>();
+    private static final ClassHeader MISSING = new ClassHeader("", null, Collections.<String>emptyList(), Collections.<String>emptyList());
+
+    private final String packageName;
+    private final Map<String, ClassHeader> headers;
+    private final Map<String, Set<String>> ancestors = new ConcurrentHashMap<String, Set<String>>();
+    private final Map<Class<?>, List<Class<?>>> classListBySuper = new ConcurrentHashMap<Class<?>, List<Class<?>>>();
+    private final Map<Class<?>, List<Class<?>>> classListByAnnotation = new ConcurrentHashMap<Class<?>, List<Class<?>>>();
+    private volatile List<Class<?>> classList;
+
+    private ClassIndex(String packageName) {
+        this.packageName = packageName;
+        this.headers = Collections.unmodifiableMap(build());
+    }
+
+    /**
+     * 获取包的索引, 首次调用时扫描
+     *
+     * @param packageName the package name
+     * @return the class index
+     */
+    public static ClassIndex forPackage(String packageName) {
+        ClassIndex index = indexes.get(packageName);
+        if (index == null) {
+            synchronized (indexes) {
+                index = indexes.get(packageName);
+                if (index == null) {
+                    index = new ClassIndex(packageName);
+                    indexes.put(packageName, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取包中所有类名
+     *
+     * @return the class names
+     */
+    public List<String> getClassNames() {
+        return new ArrayList<String>(headers.keySet());
+    }
+
+    /**
+     * 获取包中所有类
+     *
+     * @return the class list
+     */
+    public List<Class<?>> getClassList() {
+        List<Class<?>> list = classList;
+        if (list == null) {
+            list = loadClasses(headers.keySet());
+            classList = list;
+        }
+        return new ArrayList<Class<?>>(list);
+    }
+
+    /**
+     * 获取包中指定父类或接口的相关类, 不包括其本身
+     *
+     * @param superClass the super class
+     * @return the class list by super
+     */
+    public List<Class<?>> getClassListBySuper(Class<?> superClass) {
+        List<Class<?>> list = classListBySuper.get(superClass);
+        if (list == null) {
+            String superName = superClass.getName();
+            List<String> names = new ArrayList<String>();
+            for (String name : headers.keySet()) {
+                if (!name.equals(superName) && getAncestors(name).contains(superName)) {
+                    names.add(name);
+                }
+            }
+            list = loadClasses(names);
+            classListBySuper.put(superClass, list);
+        }
+        return new ArrayList<Class<?>>(list);
+    }
+
+    /**
+     * 获取包中指定注解的相关类
+     *
+     * @param annotationClass the annotation class
+     * @return the class list by annotation
+     */
+    public List<Class<?>> getClassListByAnnotation(Class<? extends Annotation> annotationClass) {
+        List<Class<?>> list = classListByAnnotation.get(annotationClass);
+        if (list == null) {
+            String annotationName = annotationClass.getName();
+            boolean inherited = annotationClass.isAnnotationPresent(Inherited.class);
+            List<String> names = new ArrayList<String>();
+            for (Map.Entry<String, ClassHeader> entry : headers.entrySet()) {
+                if (isAnnotated(entry.getValue(), annotationName, inherited)) {
+                    names.add(entry.getKey());
+                }
+            }
+            list = loadClasses(names);
+            classListByAnnotation.put(annotationClass, list);
+        }
+        return new ArrayList<Class<?>>(list);
+    }
+
+    private boolean isAnnotated(ClassHeader header, String annotationName, boolean inherited) {
+        while (header != MISSING) {
+            if (header.getAnnotations().contains(annotationName)) {
+                return true;
+            }
+            // 与 Class.isAnnotationPresent 一致, @Inherited 注解只沿父类继承
+            if (!inherited || header.getSuperName() == null) {
+                return false;
+            }
+            header = getHeader(header.getSuperName());
+        }
+        return false;
+    }
+
+    private Set<String> getAncestors(String className) {
+        Set<String> result = ancestors.get(className);
+        if (result == null) {
+            result = new HashSet<String>();
+            ClassHeader header = getHeader(className);
+            List<String> parents = new ArrayList<String>(header.getInterfaces());
+            if (header.getSuperName() != null) {
+                parents.add(header.getSuperName());
+            }
+            for (String parent : parents) {
+                result.add(parent);
+                if (!"java.lang.Object".equals(parent)) {
+                    result.addAll(getAncestors(parent));
+                }
+            }
+            ancestors.put(className, result);
+        }
+        return result;
+    }
+
+    private ClassHeader getHeader(String className) {
+        ClassHeader header = headers.get(className);
+        if (header != null) {
+            return header;
+        }
+        header = externalHeaders.get(className);
+        if (header == null) {
+            header = MISSING;
+            InputStream inputStream = ClassHelper.getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class");
+            if (inputStream != null) {
+                try {
+                    header = ClassHeader.read(inputStream);
+                } catch (IOException e) {
+                    logger.debug("读取类文件头出错！" + className + ": " + e.getMessage());
+                } finally {
+                    close(inputStream);
+                }
+            }
+            externalHeaders.put(className, header);
+        }
+        return header;
+    }
+
+    private List<Class<?>> loadClasses(Iterable<String> names) {
+        List<Class<?>> list = new ArrayList<Class<?>>();
+        for (String name : names) {
+            try {
+                list.add(ClassHelper.loadClass(name, false));
+            } catch (RuntimeException | LinkageError e) {
+                logger.error("加载类出错！" + name, e);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private Map<String, ClassHeader> build() {
+        long start = System.currentTimeMillis();
+        List<ClassRoot> roots = findRoots();
+        StringBuilder fingerprint = new StringBuilder();
+        for (ClassRoot root : roots) {
+            fingerprint.append(root.fingerprint()).append('|');
+        }
+        File cacheFile = getCacheFile();
+        Map<String, ClassHeader> result = readCache(cacheFile, fingerprint.toString());
+        if (result != null) {
+            logger.debug("class index of " + packageName + " loaded from " + cacheFile + " in " + (System.currentTimeMillis() - start) + " ms");
+            return result;
+        }
+        result = new LinkedHashMap<String, ClassHeader>();
+        for (ClassRoot root : roots) {
+            root.scan(result);
+        }
+        writeCache(cacheFile, fingerprint.toString(), result);
+        logger.debug("class index of " + packageName + " scanned in " + (System.currentTimeMillis() - start) + " ms");
+        return result;
+    }
+
+    private List<ClassRoot> findRoots() {
+        List<ClassRoot> roots = new ArrayList<ClassRoot>();
+        String packagePath = packageName.replace(".", "/");
+        try {
+            // 从包名获取 URL 类型的资源
+            Enumeration<URL> urls = ClassHelper.getClassLoader().getResources(packagePath);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                logger.debug(url.toString());
+                // 获取协议名（分为 file 与 jar）
+                String protocol = url.getProtocol();
+                if (protocol.equals("file")) {
+                    roots.add(new DirectoryRoot(toFile(url)));
+                } else if (protocol.equals("jar")) {
+                    JarURLConnection jarURLConnection = (JarURLConnection) url.openConnection();
+                    roots.add(new JarRoot(toFile(jarURLConnection.getJarFileURL()), packagePath));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("获取类出错！", e);
+        }
+        return roots;
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath().replaceAll("%20", " "));
+        }
+    }
+
+    private File getCacheFile() {
+        String key = System.getProperty("user.dir") + "|" + packageName;
+        return new File(System.getProperty("java.io.tmpdir"), "qa-framework-class-index-" + Integer.toHexString(key.hashCode()) + ".idx");
+    }
+
+    private Map<String, ClassHeader> readCache(File cacheFile, String fingerprint) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), UTF8));
+            if (!fingerprint.equals(reader.readLine())) {
+                return null;
+            }
+            Map<String, ClassHeader> result = new LinkedHashMap<String, ClassHeader>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", -1);
+                String superName = NONE.equals(columns[1]) ? null : columns[1];
+                result.put(columns[0], new ClassHeader(columns[0], superName, split(columns[2]), split(columns[3])));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("读取类索引缓存出错！" + cacheFile + ": " + e.toString());
+            return null;
+        } finally {
+            close(reader);
+        }
+    }
+
+    private void writeCache(File cacheFile, String fingerprint, Map<String, ClassHeader> result) {
+        File tempFile = new File(cacheFile.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(tempFile), UTF8);
+            writer.write(fingerprint);
+            writer.write('\n');
+            for (ClassHeader header : result.values()) {
+                writer.write(header.getClassName());
+                writer.write('\t');
+                writer.write(header.getSuperName() == null ? NONE : header.getSuperName());
+                writer.write('\t');
+                writer.write(join(header.getInterfaces()));
+                writer.write('\t');
+                writer.write(join(header.getAnnotations()));
+                writer.write('\n');
+            }
+            writer.close();
+            writer = null;
+            if (!tempFile.renameTo(cacheFile) && !(cacheFile.delete() && tempFile.renameTo(cacheFile))) {
+                logger.debug("写入类索引缓存失败！" + cacheFile);
+            }
+        } catch (IOException e) {
+            logger.debug("写入类索引缓存出错！" + cacheFile + ": " + e.toString());
+        } finally {
+            close(writer);
+            tempFile.delete();
+        }
+    }
+
+    private static String join(List<String> names) {
+        if (names.isEmpty()) {
+            return NONE;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String name : names) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(name);
+        }
+        return builder.toString();
+    }
+
+    private static List<String> split(String names) {
+        if (NONE.equals(names)) {
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(Arrays.asList(names.split(",")));
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.debug(e.toString());
+            }
+        }
+    }
+
+    private static void put(Map<String, ClassHeader> result, InputStream inputStream, String source) {
+        try {
+            ClassHeader header = ClassHeader.read(inputStream);
+            if (!result.containsKey(header.getClassName())) {
+                result.put(header.getClassName(), header);
+            }
+        } catch (IOException e) {
+            logger.error("读取类文件头出错！" + source, e);
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    private static boolean isClassFile(String fileName) {
+        // 跳过 package-info 与 module-info
+        return fileName.endsWith(".class") && !fileName.contains("-");
+    }
+
+    /**
+     * 类目录或 jar 包
+     */
+    private interface ClassRoot {
+        /**
+         * 时间戳与大小, 用于判断缓存是否过期
+         *
+         * @return the fingerprint
+         */
+        String fingerprint();
+
+        /**
+         * 读取所有类文件头
+         *
+         * @param result the result
+         */
+        void scan(Map<String, ClassHeader> result);
+    }
+
+    private static class DirectoryRoot implements ClassRoot {
+        private final List<File> classFiles = new ArrayList<File>();
+        private final File dir;
+
+        private DirectoryRoot(File dir) {
+            this.dir = dir;
+            collect(dir);
+        }
+
+        private void collect(File current) {
+            File[] files = current.listFiles(new FileFilter() {
+                @Override
+                public boolean accept(File file) {
+                    return (file.isFile() && isClassFile(file.getName())) || file.isDirectory();
+                }
+            });
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.isFile()) {
+                    classFiles.add(file);
+                } else {
+                    collect(file);
+                }
+            }
+        }
+
+        @Override
+        public String fingerprint() {
+            long lastModified = 0;
+            long length = 0;
+            for (File file : classFiles) {
+                lastModified = Math.max(lastModified, file.lastModified());
+                length += file.length();
+            }
+            return dir.getPath() + ":" + classFiles.size() + ":" + lastModified + ":" + length;
+        }
+
+        @Override
+        public void scan(Map<String, ClassHeader> result) {
+            for (File file : classFiles) {
+                try {
+                    put(result, new FileInputStream(file), file.getPath());
+                } catch (IOException e) {
+                    logger.error("读取类文件头出错！" + file, e);
+                }
+            }
+        }
+    }
+
+    private static class JarRoot implements ClassRoot {
+        private final File jar;
+        private final String packagePath;
+
+        private JarRoot(File jar, String packagePath) {
+            this.jar = jar;
+            this.packagePath = packagePath;
+        }
+
+        @Override
+        public String fingerprint() {
+            return jar.getPath() + "!" + packagePath + ":" + jar.lastModified() + ":" + jar.length();
+        }
+
+        @Override
+        public void scan(Map<String, ClassHeader> result) {
+            JarFile jarFile = null;
+            try {
+                jarFile = new JarFile(jar);
+                Enumeration<JarEntry> jarEntries = jarFile.entries();
+                while (jarEntries.hasMoreElements()) {
+                    JarEntry jarEntry = jarEntries.nextElement();
+                    String jarEntryName = jarEntry.getName();
+                    // 判断该 entry 是否为 class
+                    if (jarEntryName.startsWith(packagePath) && !jarEntryName.contains("/test/") && isClassFile(jarEntryName)) {
+                        put(result, jarFile.getInputStream(jarEntry), jar + "!" + jarEntryName);
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("读取 jar 包出错！" + jar, e);
+            } finally {
+                close(jarFile);
+            }
+        }
+    }
+}
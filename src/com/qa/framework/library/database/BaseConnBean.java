@@ -12,6 +12,13 @@ public class BaseConnBean {
     private int max;
     private long wait;
     private String driver;
+    private int maxIdle;
+    private int minIdle;
+    private String validationQuery;
+    private boolean testOnBorrow;
+    private boolean testWhileIdle;
+    private long timeBetweenEvictionRunsMillis = -1L;
+    private long minEvictableIdleTimeMillis = 1000L * 60L * 30L;
 
     /**
      * Gets driver.
@@ -139,4 +146,130 @@ public class BaseConnBean {
         this.wait = wait;
     }
 
+    /**
+     * Gets max idle, 0 means the same as max.
+     *
+     * @return the max idle
+     */
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Sets max idle.
+     *
+     * @param maxIdle the max idle
+     */
+    public void setMaxIdle(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Gets min idle.
+     *
+     * @return the min idle
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Sets min idle.
+     *
+     * @param minIdle the min idle
+     */
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    /**
+     * Gets validation query, e.g. select 1.
+     *
+     * @return the validation query
+     */
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    /**
+     * Sets validation query.
+     *
+     * @param validationQuery the validation query
+     */
+    public void setValidationQuery(String validationQuery) {
+        this.validationQuery = validationQuery;
+    }
+
+    /**
+     * Is test on borrow boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isTestOnBorrow() {
+        return testOnBorrow;
+    }
+
+    /**
+     * Sets test on borrow.
+     *
+     * @param testOnBorrow the test on borrow
+     */
+    public void setTestOnBorrow(boolean testOnBorrow) {
+        this.testOnBorrow = testOnBorrow;
+    }
+
+    /**
+     * Is test while idle boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isTestWhileIdle() {
+        return testWhileIdle;
+    }
+
+    /**
+     * Sets test while idle.
+     *
+     * @param testWhileIdle the test while idle
+     */
+    public void setTestWhileIdle(boolean testWhileIdle) {
+        this.testWhileIdle = testWhileIdle;
+    }
+
+    /**
+     * Gets time between eviction runs millis, not positive means no eviction thread.
+     *
+     * @return the time between eviction runs millis
+     */
+    public long getTimeBetweenEvictionRunsMillis() {
+        return timeBetweenEvictionRunsMillis;
+    }
+
+    /**
+     * Sets time between eviction runs millis.
+     *
+     * @param timeBetweenEvictionRunsMillis the time between eviction runs millis
+     */
+    public void setTimeBetweenEvictionRunsMillis(long timeBetweenEvictionRunsMillis) {
+        this.timeBetweenEvictionRunsMillis = timeBetweenEvictionRunsMillis;
+    }
+
+    /**
+     * Gets min evictable idle time millis.
+     *
+     * @return the min evictable idle time millis
+     */
+    public long getMinEvictableIdleTimeMillis() {
+        return minEvictableIdleTimeMillis;
+    }
+
+    /**
+     * Sets min evictable idle time millis.
+     *
+     * @param minEvictableIdleTimeMillis the min evictable idle time millis
+     */
+    public void setMinEvictableIdleTimeMillis(long minEvictableIdleTimeMillis) {
+        this.minEvictableIdleTimeMillis = minEvictableIdleTimeMillis;
+    }
+
 }
@@ -6,20 +6,27 @@ import com.library.common.StringHelper;
 import com.qa.framework.config.PropConfig;
 import com.qa.framework.library.httpclient.HttpMethod;
 import org.apache.commons.dbutils.QueryRunner;
-import org.apache.commons.dbutils.handlers.BeanHandler;
-import org.apache.commons.dbutils.handlers.BeanListHandler;
 import org.apache.commons.dbutils.handlers.MapListHandler;
 import org.apache.commons.dbutils.handlers.ScalarHandler;
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The type Db DBHelper.
@@ -116,6 +123,7 @@ public class DBHelper {
         if (conn != null) {
             try {
                 conn.commit();
+                StatementCache.clear();
                 conn.close();
             } catch (SQLException e) {
                 logger.error("提交事务出错！", e);
@@ -134,6 +142,7 @@ public class DBHelper {
         if (conn != null) {
             try {
                 conn.rollback();
+                StatementCache.clear();
                 conn.close();
             } catch (SQLException e) {
                 logger.error("回滚事务出错！", e);
@@ -145,23 +154,82 @@ public class DBHelper {
     }
 
     /**
-     * 初始化 SQL 脚本
+     * 初始化 SQL 脚本, dbScriptMode 为 line 时每行一条语句, 为 delimiter 时语句以 ; 分隔, 连续的更新语句按 dbBatchSize 批量执行
      *
      * @param sqlPath the sql path
      */
     public static void initSQL(String sqlPath) {
         try {
-            File sqlFile = new File(ClassHelper.getClassPath() + sqlPath);
-            List<String> sqlList = FileUtils.readLines(sqlFile, "utf-8");
-            for (String sql : sqlList) {
-                executeUpdate(sql);
-            }
+            newScriptRunner().run(getConnection(), new File(ClassHelper.getClassPath() + sqlPath));
         } catch (Exception e) {
             logger.error("初始化 SQL 脚本出错！", e);
             throw new RuntimeException(e);
         }
     }
 
+    private static SqlScriptRunner newScriptRunner() {
+        return new SqlScriptRunner(PropConfig.getDbBatchSize(), !"delimiter".equalsIgnoreCase(PropConfig.getDbScriptMode()));
+    }
+
+    /**
+     * 并行初始化多个互不依赖的 SQL 脚本, 每个脚本使用连接池中单独的连接和事务
+     *
+     * @param parallelism the max number of scripts running at the same time
+     * @param sqlPaths    the sql paths
+     */
+    public static void initSQL(int parallelism, String... sqlPaths) {
+        if (sqlPaths.length == 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, sqlPaths.length)), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "sql-script-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final String sqlPath : sqlPaths) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Connection conn = DBPoolFactory.getDbConnection(poolName);
+                        try {
+                            newScriptRunner().run(conn, new File(ClassHelper.getClassPath() + sqlPath));
+                        } finally {
+                            DBPoolFactory.close(conn);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            // 等所有脚本结束后再报告第一个错误
+            Throwable failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error("初始化 SQL 脚本出错！", e.getCause());
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * 执行查询语句
      *
@@ -244,6 +312,179 @@ public class DBHelper {
         return rows;
     }
 
+    /**
+     * 批量执行更新语句, 每 dbBatchSize 行发送一次
+     *
+     * @param sql        the sql
+     * @param paramsList the params of each row
+     * @return the update counts of each row
+     */
+    public static int[] executeBatch(String sql, List<Object[]> paramsList) {
+        return executeBatch(sql, paramsList, PropConfig.getDbBatchSize());
+    }
+
+    /**
+     * 批量执行更新语句（包括：update、insert、delete）, 每 batchSize 行发送一次;
+     * 不在事务中时每批提交一次
+     *
+     * @param sql        the sql
+     * @param paramsList the params of each row
+     * @param batchSize  the batch size
+     * @return the update counts of each row
+     */
+    public static int[] executeBatch(String sql, List<Object[]> paramsList, int batchSize) {
+        int[] rows = new int[paramsList.size()];
+        if (paramsList.isEmpty()) {
+            return rows;
+        }
+        batchSize = Math.max(1, batchSize);
+        Connection conn = getConnection();
+        PreparedStatement stmt = null;
+        boolean autoCommit = true;
+        try {
+            autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+            stmt = conn.prepareStatement(sql);
+            int sent = 0;
+            for (int i = 0; i < paramsList.size(); i++) {
+                queryRunner.fillStatement(stmt, paramsList.get(i));
+                stmt.addBatch();
+                if ((i + 1) % batchSize == 0 || i == paramsList.size() - 1) {
+                    int[] counts = stmt.executeBatch();
+                    System.arraycopy(counts, 0, rows, sent, counts.length);
+                    sent += counts.length;
+                    if (autoCommit) {
+                        conn.commit();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            if (autoCommit) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.error("rollback batch failure", ex);
+                }
+            }
+            logger.error("execute batch failure", e);
+            throw new RuntimeException(e);
+        } finally {
+            closeQuietly(null, stmt);
+            if (autoCommit) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.error("restore auto commit failure", e);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 查询并把每一行转换为对象, 不创建每行的 Map
+     *
+     * @param <T>    the type parameter
+     * @param sql    the sql
+     * @param mapper the row mapper
+     * @param params the params
+     * @return the list
+     */
+    public static <T> List<T> queryList(String sql, RowMapper<T> mapper, Object... params) {
+        List<T> result = new ArrayList<T>();
+        try (ResultStream<T> stream = queryStream(mapper, sql, params)) {
+            for (T row : stream) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 流式查询, 使用只进游标并按 dbFetchSize 分批读取, 结果不会全部加载到内存;
+     * 返回的 ResultStream 需要关闭. MySQL 需要在 jdbc url 中加 useCursorFetch=true 才会按 fetch size 读取.
+     *
+     * @param <T>    the type parameter
+     * @param mapper the row mapper
+     * @param sql    the sql
+     * @param params the params
+     * @return the result stream
+     */
+    public static <T> ResultStream<T> queryStream(RowMapper<T> mapper, String sql, Object... params) {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = prepareQuery(sql, params);
+            rs = stmt.executeQuery();
+            return new ResultStream<T>(stmt, rs, mapper);
+        } catch (SQLException e) {
+            closeQuietly(rs, stmt);
+            logger.error("execute query failure", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 流式查询, 逐行回调, 回调返回 false 时停止读取
+     *
+     * @param sql      the sql
+     * @param callback the row callback
+     * @param params   the params
+     * @return the number of rows processed
+     */
+    public static int forEachRow(String sql, RowCallback callback, Object... params) {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int rowNum = 0;
+        try {
+            stmt = prepareQuery(sql, params);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (!callback.processRow(rs, rowNum++)) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("execute query failure", e);
+            throw new RuntimeException(e);
+        } finally {
+            closeQuietly(rs, stmt);
+        }
+        return rowNum;
+    }
+
+    private static PreparedStatement prepareQuery(String sql, Object... params) throws SQLException {
+        Connection conn = getConnection();
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(PropConfig.getDbFetchSize());
+            queryRunner.fillStatement(stmt, params);
+        } catch (SQLException e) {
+            closeQuietly(null, stmt);
+            throw e;
+        }
+        return stmt;
+    }
+
+    static void closeQuietly(ResultSet rs, Statement stmt) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            logger.debug(e.toString());
+        }
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            logger.debug(e.toString());
+        }
+    }
+
     /**
      * 查询实体列表
      *
@@ -254,15 +495,12 @@ public class DBHelper {
      * @return the list
      */
     public static <T> List<T> queryEntityList(Class<T> entityClass, String sql, Object... params) {
-        List<T> entityList;
         try {
-            Connection conn = getConnection();
-            entityList = queryRunner.query(conn, sql, new BeanListHandler<T>(entityClass), params);
+            return queryCachedEntities(entityClass, sql, Integer.MAX_VALUE, params);
         } catch (SQLException e) {
             logger.error("query entity list failure", e);
             throw new RuntimeException(e);
         }
-        return entityList;
     }
 
     /**
@@ -275,15 +513,13 @@ public class DBHelper {
      * @return the t
      */
     public static <T> T queryEntity(Class<T> entityClass, String sql, Object... params) {
-        T entity;
         try {
-            Connection conn = getConnection();
-            entity = queryRunner.query(conn, sql, new BeanHandler<T>(entityClass), params);
+            List<T> entityList = queryCachedEntities(entityClass, sql, 1, params);
+            return entityList.isEmpty() ? null : entityList.get(0);
         } catch (SQLException e) {
             logger.error("query entity failure", e);
             throw new RuntimeException(e);
         }
-        return entity;
     }
 
     /**
@@ -300,20 +536,10 @@ public class DBHelper {
             return false;
         }
 
-        String sql = "INSERT INTO " + getTableName(entityClass);
-        StringBuilder columns = new StringBuilder("(");
-        StringBuilder values = new StringBuilder("(");
-        for (String fieldName : fieldMap.keySet()) {
-            columns.append(fieldName).append(", ");
-            values.append("?, ");
-        }
-        columns.replace(columns.lastIndexOf(", "), columns.length(), ")");
-        values.replace(values.lastIndexOf(", "), values.length(), ")");
-        sql += columns + " VALUES " + values;
-
+        String sql = EntityMeta.of(entityClass).getInsertSql(fieldMap.keySet());
         Object[] params = fieldMap.values().toArray();
 
-        return executeUpdate(sql, params) == 1;
+        return executeCachedUpdate(sql, params) == 1;
     }
 
     /**
@@ -331,19 +557,14 @@ public class DBHelper {
             return false;
         }
 
-        String sql = "UPDATE " + getTableName(entityClass) + " SET ";
-        StringBuilder columns = new StringBuilder();
-        for (String fieldName : fieldMap.keySet()) {
-            columns.append(fieldName).append(" = ?, ");
-        }
-        sql += columns.substring(0, columns.lastIndexOf(", ")) + " WHERE id = ?";
+        String sql = EntityMeta.of(entityClass).getUpdateSql(fieldMap.keySet());
 
         List<Object> paramList = new ArrayList<Object>();
         paramList.addAll(fieldMap.values());
         paramList.add(id);
         Object[] params = paramList.toArray();
 
-        return executeUpdate(sql, params) == 1;
+        return executeCachedUpdate(sql, params) == 1;
     }
 
     /**
@@ -355,12 +576,44 @@ public class DBHelper {
      * @return the boolean
      */
     public static <T> boolean deleteEntity(Class<T> entityClass, long id) {
-        String sql = "DELETE FROM " + getTableName(entityClass) + " WHERE id = ?";
-        return executeUpdate(sql, id) == 1;
+        return executeCachedUpdate(EntityMeta.of(entityClass).getDeleteSql(), id) == 1;
+    }
+
+    private static <T> List<T> queryCachedEntities(Class<T> entityClass, String sql, int maxRows, Object... params) throws SQLException {
+        RowMapper<T> mapper = EntityMeta.of(entityClass).getRowMapper(sql);
+        PreparedStatement stmt = null;
+        boolean failed = true;
+        try {
+            stmt = StatementCache.prepare(getConnection(), sql);
+            queryRunner.fillStatement(stmt, params);
+            List<T> entityList = new ArrayList<T>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (entityList.size() < maxRows && rs.next()) {
+                    entityList.add(mapper.mapRow(rs, entityList.size()));
+                }
+            }
+            failed = false;
+            return entityList;
+        } finally {
+            StatementCache.release(sql, stmt, failed);
+        }
     }
 
-    private static String getTableName(Class<?> entityClass) {
-        return entityClass.getSimpleName();
+    private static int executeCachedUpdate(String sql, Object... params) {
+        PreparedStatement stmt = null;
+        boolean failed = true;
+        try {
+            stmt = StatementCache.prepare(getConnection(), sql);
+            queryRunner.fillStatement(stmt, params);
+            int rows = stmt.executeUpdate();
+            failed = false;
+            return rows;
+        } catch (SQLException e) {
+            logger.error("execute update failure", e);
+            throw new RuntimeException(e);
+        } finally {
+            StatementCache.release(sql, stmt, failed);
+        }
     }
 
     /**
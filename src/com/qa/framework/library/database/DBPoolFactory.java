@@ -4,52 +4,32 @@ import org.apache.commons.dbcp.ConnectionFactory;
 import org.apache.commons.dbcp.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp.PoolableConnectionFactory;
 import org.apache.commons.dbcp.PoolingDriver;
-import org.apache.commons.pool.ObjectPool;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.log4j.Logger;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The type Db pool factory.
+ * 每个 poolname 对应一个独立的连接池, 第一次使用时根据 db 配置文件创建;
+ * 创建后获取连接不再加锁, 直接从该连接池借出.
  */
 public class DBPoolFactory {
 
     private final static Logger logger = Logger
             .getLogger(DBPoolFactory.class);
-
-    private static String dbJdbc = null;
-    private static String dbUser = null;
-    private static String dbPwd = null;
-    private static int max;
-    private static long wait;
-    private static String driver = null;
-    @SuppressWarnings("rawtypes")
-    private static Class driverClass = null;
-    private static ObjectPool connectionPool = null;
-    private static Map<String, Boolean> poolNameMap = new HashMap<>();
-
-    /**
-     * Initial DataSource
-     */
-    private static synchronized void initDataSource() {
-        // drive data source
-        if (driverClass == null) {
-            try {
-                driverClass = Class.forName(driver);
-            } catch (ClassNotFoundException e) {
-                logger.error(e.toString());
-            }
-        }
-    }
+    private static final String POOLING_DRIVER_URL = "jdbc:apache:commons:dbcp:";
+    private static final Map<String, Pool> pools = new ConcurrentHashMap<String, Pool>();
 
     /**
-     * Start Pool
+     * Start Pool, an existing pool with the same name is closed first
      *
      * @param poolname the poolname
      * @param dbJdbc   the db jdbc
@@ -58,41 +38,94 @@ public class DBPoolFactory {
      * @param max      the max
      * @param wait     the wait
      */
-    public static synchronized void startPool(String poolname, String dbJdbc,
-                                              String dbUser, String dbPwd, int max, long wait) {
-        // Initial DataSource
-        initDataSource();
+    public static void startPool(String poolname, String dbJdbc,
+                                 String dbUser, String dbPwd, int max, long wait) {
+        BaseConnBean baseConnBean = new BaseConnBean();
+        baseConnBean.setName(poolname);
+        baseConnBean.setJdbcurl(dbJdbc);
+        baseConnBean.setUsername(dbUser);
+        baseConnBean.setPassword(dbPwd);
+        baseConnBean.setMax(max);
+        baseConnBean.setWait(wait);
+        startPool(baseConnBean);
+    }
 
-        if (connectionPool != null) {
-            shutdownPool();
+    /**
+     * Start Pool, an existing pool with the same name is closed first
+     *
+     * @param baseConnBean the pool config
+     */
+    public static void startPool(BaseConnBean baseConnBean) {
+        synchronized (pools) {
+            shutdownPool(baseConnBean.getName());
+            try {
+                pools.put(baseConnBean.getName(), createPool(baseConnBean));
+            } catch (Exception e) {
+                logger.error(e.toString());
+            }
+        }
+    }
+
+    private static Pool createPool(BaseConnBean baseConnBean) throws Exception {
+        // drive data source
+        if (baseConnBean.getDriver() != null) {
+            Class.forName(baseConnBean.getDriver());
         }
+        GenericObjectPool connectionPool = new GenericObjectPool(null, baseConnBean.getMax(),
+                GenericObjectPool.WHEN_EXHAUSTED_BLOCK, baseConnBean.getWait());
+        // 空闲连接数默认与最大连接数相同, 避免并发时连接反复关闭和创建
+        connectionPool.setMaxIdle(baseConnBean.getMaxIdle() > 0 ? baseConnBean.getMaxIdle() : baseConnBean.getMax());
+        connectionPool.setMinIdle(baseConnBean.getMinIdle());
+        connectionPool.setTestOnBorrow(baseConnBean.isTestOnBorrow());
+        connectionPool.setTestWhileIdle(baseConnBean.isTestWhileIdle());
+        connectionPool.setTimeBetweenEvictionRunsMillis(baseConnBean.getTimeBetweenEvictionRunsMillis());
+        connectionPool.setMinEvictableIdleTimeMillis(baseConnBean.getMinEvictableIdleTimeMillis());
+        ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(
+                baseConnBean.getJdbcurl(), baseConnBean.getUsername(), baseConnBean.getPassword());
+        new PoolableConnectionFactory(connectionFactory, connectionPool,
+                null, baseConnBean.getValidationQuery(), false, true);
+        // 注册到 PoolingDriver, 仍可通过 jdbc:apache:commons:dbcp:poolname 获取连接
+        getPoolingDriver().registerPool(baseConnBean.getName(), connectionPool);
+        logger.info("Create " + baseConnBean.getName()
+                + " for Database Connection Succees.");
+        return new Pool(connectionPool);
+    }
+
+    private static PoolingDriver getPoolingDriver() throws SQLException {
         try {
-            connectionPool = new GenericObjectPool(null, max, (byte) 1, wait);
-            ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(
-                    dbJdbc, dbUser, dbPwd);
-            new PoolableConnectionFactory(connectionFactory, connectionPool,
-                    null, null, false, true);
             Class.forName("org.apache.commons.dbcp.PoolingDriver");
-            PoolingDriver driver = (PoolingDriver) DriverManager
-                    .getDriver("jdbc:apache:commons:dbcp:");
-            driver.registerPool(poolname, connectionPool);
-            logger.info("Create " + poolname
-                    + " for Database Connection Succees.");
-        } catch (Exception e) {
-            logger.error(e.toString());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(e);
         }
+        return (PoolingDriver) DriverManager.getDriver(POOLING_DRIVER_URL);
     }
 
     /**
-     * Release Pool
+     * Release all the pools
      */
     public static void shutdownPool() {
-        try {
-            PoolingDriver driver = (PoolingDriver) DriverManager
-                    .getDriver("jdbc:apache:commons:dbcp:");
-            driver.closePool("dbpool");
-        } catch (SQLException e) {
-            logger.error(e.toString());
+        synchronized (pools) {
+            for (String poolname : pools.keySet()) {
+                shutdownPool(poolname);
+            }
+        }
+    }
+
+    /**
+     * Release Pool
+     *
+     * @param poolname the poolname
+     */
+    public static void shutdownPool(String poolname) {
+        synchronized (pools) {
+            if (pools.remove(poolname) == null) {
+                return;
+            }
+            try {
+                getPoolingDriver().closePool(poolname);
+            } catch (SQLException e) {
+                logger.error(e.toString());
+            }
         }
     }
 
@@ -103,25 +136,50 @@ public class DBPoolFactory {
      * @return pool stats
      */
     public static String getPoolStats(String poolname) {
-
-        StringBuilder stat = new StringBuilder();
-        try {
-            PoolingDriver driver = (PoolingDriver) DriverManager
-                    .getDriver("jdbc:apache:commons:dbcp:");
-            ObjectPool connectionPool = driver.getConnectionPool(poolname);
-
-            stat.append("-- Active Connection: ");
-            stat.append(connectionPool.getNumActive());
-            stat.append(" ,");
-            stat.append("Free Connection: ");
-            stat.append(connectionPool.getNumIdle());
-            stat.append(" . --");
-        } catch (Exception e) {
-            logger.error(e.toString());
+        Pool pool = pools.get(poolname);
+        if (pool == null) {
+            return "";
         }
+        GenericObjectPool connectionPool = pool.connectionPool;
+        long borrowed = pool.borrowed.get();
+        StringBuilder stat = new StringBuilder();
+        stat.append("-- Active Connection: ");
+        stat.append(connectionPool.getNumActive());
+        stat.append(" ,");
+        stat.append("Free Connection: ");
+        stat.append(connectionPool.getNumIdle());
+        stat.append(" ,");
+        stat.append("Max Connection: ");
+        stat.append(connectionPool.getMaxActive());
+        stat.append(" ,");
+        stat.append("Borrowed: ");
+        stat.append(borrowed);
+        stat.append(" ,");
+        stat.append("Failed: ");
+        stat.append(pool.failed.get());
+        stat.append(" ,");
+        stat.append("Avg Wait(ms): ");
+        stat.append(borrowed == 0 ? 0 : pool.waitNanos.get() / borrowed / 1000000);
+        stat.append(" ,");
+        stat.append("Max Wait(ms): ");
+        stat.append(pool.maxWaitNanos.get() / 1000000);
+        stat.append(" . --");
         return stat.toString();
     }
 
+    /**
+     * Get the status of all the pools
+     *
+     * @return pool stats by poolname
+     */
+    public static Map<String, String> getAllPoolStats() {
+        Map<String, String> stats = new LinkedHashMap<String, String>();
+        for (String poolname : pools.keySet()) {
+            stats.put(poolname, getPoolStats(poolname));
+        }
+        return stats;
+    }
+
     /**
      * Get connection in pool
      *
@@ -129,14 +187,12 @@ public class DBPoolFactory {
      * @return Connection db connection
      * @throws Exception the exception
      */
-    public synchronized static Connection getDbConnection(String poolname) throws Exception {
-        if (poolNameMap.get(poolname) == null) {
-            init(poolname);
-            startPool(poolname, dbJdbc, dbUser, dbPwd, max, wait);
-            poolNameMap.put(poolname, true);
+    public static Connection getDbConnection(String poolname) throws Exception {
+        Pool pool = pools.get(poolname);
+        if (pool == null) {
+            pool = initPool(poolname);
         }
-        return DriverManager.getConnection("jdbc:apache:commons:dbcp:"
-                + poolname);
+        return pool.borrow();
     }
 
     /**
@@ -144,21 +200,26 @@ public class DBPoolFactory {
      *
      * @param poolname
      */
-    private static void init(String poolname) throws Exception {
-        List<BaseConnBean> pools = XmlToBean.read();
-        for (BaseConnBean baseConnBean : pools) {
-            if (baseConnBean.getName().equals(poolname)) {
-                dbJdbc = baseConnBean.getJdbcurl();
-                dbUser = baseConnBean.getUsername();
-                dbPwd = baseConnBean.getPassword();
-                max = baseConnBean.getMax();
-                wait = baseConnBean.getWait();
-                driver = baseConnBean.getDriver();
-                break;
+    private static Pool initPool(String poolname) throws Exception {
+        synchronized (pools) {
+            Pool pool = pools.get(poolname);
+            if (pool != null) {
+                return pool;
             }
-        }
-        if (driver == null) {
-            throw new Exception("The poolName is not exist or Config is not set true");
+            BaseConnBean poolConfig = null;
+            List<BaseConnBean> baseConnBeans = XmlToBean.read();
+            for (BaseConnBean baseConnBean : baseConnBeans) {
+                if (baseConnBean.getName().equals(poolname)) {
+                    poolConfig = baseConnBean;
+                    break;
+                }
+            }
+            if (poolConfig == null || poolConfig.getDriver() == null) {
+                throw new Exception("The poolName is not exist or Config is not set true");
+            }
+            pool = createPool(poolConfig);
+            pools.put(poolname, pool);
+            return pool;
         }
     }
 
@@ -177,4 +238,38 @@ public class DBPoolFactory {
         }
     }
 
+    private static class Pool {
+        private final GenericObjectPool connectionPool;
+        private final AtomicLong borrowed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Pool(GenericObjectPool connectionPool) {
+            this.connectionPool = connectionPool;
+        }
+
+        private Connection borrow() throws SQLException {
+            long start = System.nanoTime();
+            try {
+                // 关闭 PoolableConnection 时连接归还到连接池
+                Connection connection = (Connection) connectionPool.borrowObject();
+                borrowed.incrementAndGet();
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                failed.incrementAndGet();
+                throw e;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                throw new SQLException("Cannot get a connection, pool error " + e.getMessage(), e);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                waitNanos.addAndGet(elapsed);
+                long max = maxWaitNanos.get();
+                while (elapsed > max && !maxWaitNanos.compareAndSet(max, elapsed)) {
+                    max = maxWaitNanos.get();
+                }
+            }
+        }
+    }
 }
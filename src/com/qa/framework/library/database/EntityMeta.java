@@ -0,0 +1,279 @@
+package com.qa.framework.library.database;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体类的元数据: 表名, 可写属性以及生成的 sql, 每个实体类只解析一次.
+ * 列与属性按名称匹配, 忽略大小写, 与 dbutils 的 BeanProcessor 相同; 查询结果的列与 setter 的对应关系按 sql 缓存,
+ * 最多缓存 MAX_MAPPINGS 条 sql, 按最近使用淘汰.
+ *
+ * @param <T> the entity type
+ */
+class EntityMeta<T> {
+    private static final int MAX_MAPPINGS = 256;
+    private static final Map<Class<?>, EntityMeta<?>> metas = new ConcurrentHashMap<Class<?>, EntityMeta<?>>();
+    private final Class<T> entityClass;
+    private final String tableName;
+    private final String deleteSql;
+    private final Map<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
+    private final Map<String, String> insertSql = new ConcurrentHashMap<String, String>();
+    private final Map<String, String> updateSql = new ConcurrentHashMap<String, String>();
+    // 按访问顺序排列, 所有访问都要同步
+    private final Map<String, Mapping> mappings = new LinkedHashMap<String, Mapping>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Mapping> eldest) {
+            return size() > MAX_MAPPINGS;
+        }
+    };
+
+    private EntityMeta(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        this.tableName = entityClass.getSimpleName();
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE id = ?";
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(entityClass);
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                if (descriptor.getWriteMethod() != null) {
+                    properties.put(normalize(descriptor.getName()), descriptor);
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("introspect " + entityClass.getName() + " failure", e);
+        }
+    }
+
+    /**
+     * Gets the metadata of the entity class.
+     *
+     * @param <T>         the type parameter
+     * @param entityClass the entity class
+     * @return the entity meta
+     */
+    @SuppressWarnings("unchecked")
+    static <T> EntityMeta<T> of(Class<T> entityClass) {
+        EntityMeta<T> meta = (EntityMeta<T>) metas.get(entityClass);
+        if (meta == null) {
+            synchronized (metas) {
+                meta = (EntityMeta<T>) metas.get(entityClass);
+                if (meta == null) {
+                    meta = new EntityMeta<T>(entityClass);
+                    metas.put(entityClass, meta);
+                }
+            }
+        }
+        return meta;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    String getDeleteSql() {
+        return deleteSql;
+    }
+
+    /**
+     * Gets the insert sql of the columns, in the iteration order of the column names.
+     *
+     * @param columnNames the column names
+     * @return the sql
+     */
+    String getInsertSql(Iterable<String> columnNames) {
+        String key = key(columnNames);
+        String sql = insertSql.get(key);
+        if (sql == null) {
+            StringBuilder columns = new StringBuilder("(");
+            StringBuilder values = new StringBuilder("(");
+            for (String columnName : columnNames) {
+                columns.append(columnName).append(", ");
+                values.append("?, ");
+            }
+            columns.replace(columns.lastIndexOf(", "), columns.length(), ")");
+            values.replace(values.lastIndexOf(", "), values.length(), ")");
+            sql = "INSERT INTO " + tableName + columns + " VALUES " + values;
+            insertSql.put(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Gets the update-by-id sql of the columns, in the iteration order of the column names.
+     *
+     * @param columnNames the column names
+     * @return the sql
+     */
+    String getUpdateSql(Iterable<String> columnNames) {
+        String key = key(columnNames);
+        String sql = updateSql.get(key);
+        if (sql == null) {
+            StringBuilder columns = new StringBuilder();
+            for (String columnName : columnNames) {
+                columns.append(columnName).append(" = ?, ");
+            }
+            sql = "UPDATE " + tableName + " SET " + columns.substring(0, columns.lastIndexOf(", ")) + " WHERE id = ?";
+            updateSql.put(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Gets a row mapper for the result of the sql, the column mapping is resolved once per result set
+     * and shared by the queries of the same sql.
+     *
+     * @param sql the sql
+     * @return the row mapper
+     */
+    RowMapper<T> getRowMapper(final String sql) {
+        return new RowMapper<T>() {
+            private volatile Resolved resolved;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                Resolved current = resolved;
+                if (current == null || current.rs != rs) {
+                    current = new Resolved(rs, getMapping(sql, rs.getMetaData()));
+                    resolved = current;
+                }
+                return toBean(rs, current.mapping);
+            }
+        };
+    }
+
+    /**
+     * Gets a row mapper resolving the column mapping once per result set, from its metadata.
+     *
+     * @return the row mapper
+     */
+    RowMapper<T> getRowMapper() {
+        return new RowMapper<T>() {
+            private volatile Resolved resolved;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                Resolved current = resolved;
+                if (current == null || current.rs != rs) {
+                    current = new Resolved(rs, resolve(rs.getMetaData()));
+                    resolved = current;
+                }
+                return toBean(rs, current.mapping);
+            }
+        };
+    }
+
+    private Mapping getMapping(String sql, ResultSetMetaData metaData) throws SQLException {
+        Mapping mapping;
+        synchronized (mappings) {
+            mapping = mappings.get(sql);
+        }
+        // 表结构变化后列数不同时重新解析
+        if (mapping == null || mapping.setters.length != metaData.getColumnCount()) {
+            mapping = resolve(metaData);
+            synchronized (mappings) {
+                mappings.put(sql, mapping);
+            }
+        }
+        return mapping;
+    }
+
+    private Mapping resolve(ResultSetMetaData metaData) throws SQLException {
+        Method[] setters = new Method[metaData.getColumnCount()];
+        Class<?>[] types = new Class<?>[setters.length];
+        String[] names = new String[setters.length];
+        for (int i = 0; i < setters.length; i++) {
+            String label = metaData.getColumnLabel(i + 1);
+            if (label == null || label.isEmpty()) {
+                label = metaData.getColumnName(i + 1);
+            }
+            PropertyDescriptor descriptor = properties.get(normalize(label));
+            if (descriptor != null) {
+                setters[i] = descriptor.getWriteMethod();
+                types[i] = descriptor.getPropertyType();
+                names[i] = descriptor.getName();
+            }
+        }
+        return new Mapping(setters, types, names);
+    }
+
+    private T toBean(ResultSet rs, Mapping mapping) throws SQLException {
+        T bean;
+        try {
+            bean = entityClass.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("cannot create " + entityClass.getName() + ": " + e.getMessage(), e);
+        }
+        for (int i = 0; i < mapping.setters.length; i++) {
+            if (mapping.setters[i] == null) {
+                continue;
+            }
+            Class<?> type = mapping.types[i];
+            Object value;
+            try {
+                value = RowMappers.convert(rs.getObject(i + 1), type);
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("cannot set " + mapping.names[i] + ": " + e.getMessage(), e);
+            }
+            if (value == null && type.isPrimitive()) {
+                continue;
+            }
+            if (value != null && !RowMappers.wrap(type).isInstance(value)) {
+                throw new SQLException("cannot set " + mapping.names[i] + ": incompatible types, cannot convert "
+                        + value.getClass().getName() + " to " + type.getName());
+            }
+            try {
+                mapping.setters[i].invoke(bean, value);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new SQLException("cannot set " + mapping.names[i] + ": " + e.getMessage(), e);
+            } catch (InvocationTargetException e) {
+                throw new SQLException("cannot set " + mapping.names[i] + ": " + e.getCause(), e.getCause());
+            }
+        }
+        return bean;
+    }
+
+    private static String key(Iterable<String> columnNames) {
+        StringBuilder key = new StringBuilder();
+        for (String columnName : columnNames) {
+            key.append(columnName).append(',');
+        }
+        return key.toString();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Mapping {
+        private final Method[] setters;
+        private final Class<?>[] types;
+        private final String[] names;
+
+        private Mapping(Method[] setters, Class<?>[] types, String[] names) {
+            this.setters = setters;
+            this.types = types;
+            this.names = names;
+        }
+    }
+
+    private static class Resolved {
+        private final ResultSet rs;
+        private final Mapping mapping;
+
+        private Resolved(ResultSet rs, Mapping mapping) {
+            this.rs = rs;
+            this.mapping = mapping;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.qa.framework.library.database;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 查询结果的流式读取, 每次只在内存中保留一行, 用完后需要关闭(读完所有行时自动关闭).
+ * <pre>
+ * try (ResultStream&lt;Order&gt; orders = DBHelper.queryStream(RowMappers.bean(Order.class), sql, userId)) {
+ *     for (Order order : orders) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the row object
+ */
+public class ResultStream<T> implements Iterator<T>, Iterable<T>, Closeable {
+    private final static Logger logger = Logger.getLogger(ResultStream.class);
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final RowMapper<T> mapper;
+    private int rowNum = 0;
+    private Boolean hasNext;
+    private boolean closed = false;
+
+    ResultStream(PreparedStatement statement, ResultSet resultSet, RowMapper<T> mapper) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            try {
+                hasNext = !closed && resultSet.next();
+            } catch (SQLException e) {
+                close();
+                logger.error("read result set failure", e);
+                throw new RuntimeException(e);
+            }
+            if (!hasNext) {
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        try {
+            return mapper.mapRow(resultSet, rowNum++);
+        } catch (SQLException e) {
+            close();
+            logger.error("map row failure", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Close the result set and the statement, the connection stays with the thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasNext = false;
+        DBHelper.closeQuietly(resultSet, statement);
+    }
+}
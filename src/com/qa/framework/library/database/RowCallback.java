@@ -0,0 +1,19 @@
+package com.qa.framework.library.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 逐行处理查询结果, 用于 {@link DBHelper#forEachRow(String, RowCallback, Object...)}.
+ */
+public interface RowCallback {
+    /**
+     * Process the current row of the result set.
+     *
+     * @param rs     the result set, positioned on the row
+     * @param rowNum the row number, starting with 0
+     * @return false to stop reading the remaining rows
+     * @throws SQLException the sql exception
+     */
+    boolean processRow(ResultSet rs, int rowNum) throws SQLException;
+}
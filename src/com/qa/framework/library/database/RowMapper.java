@@ -0,0 +1,21 @@
+package com.qa.framework.library.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 把结果集的当前行转换为对象, 不会为每一行创建 Map.
+ *
+ * @param <T> the type of the row object
+ */
+public interface RowMapper<T> {
+    /**
+     * Map the current row of the result set.
+     *
+     * @param rs     the result set, positioned on the row
+     * @param rowNum the row number, starting with 0
+     * @return the row object
+     * @throws SQLException the sql exception
+     */
+    T mapRow(ResultSet rs, int rowNum) throws SQLException;
+}
@@ -0,0 +1,162 @@
+package com.qa.framework.library.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * 常用的 {@link RowMapper}.
+ */
+public class RowMappers {
+
+    /**
+     * Map each row to an array of the column values. The column count is read once per result set.
+     *
+     * @return the row mapper
+     */
+    public static RowMapper<Object[]> array() {
+        return new RowMapper<Object[]>() {
+            private volatile ColumnCount columns;
+
+            @Override
+            public Object[] mapRow(ResultSet rs, int rowNum) throws SQLException {
+                ColumnCount current = columns;
+                if (current == null || current.rs != rs) {
+                    current = new ColumnCount(rs, rs.getMetaData().getColumnCount());
+                    columns = current;
+                }
+                Object[] row = new Object[current.count];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Map each row to the value of one column.
+     *
+     * @param <T>         the type parameter
+     * @param columnIndex the column index, starting with 1
+     * @param type        the type of the column value, a primitive type is mapped to its wrapper
+     * @return the row mapper
+     */
+    public static <T> RowMapper<T> column(final int columnIndex, final Class<T> type) {
+        return new RowMapper<T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                Object value;
+                try {
+                    value = convert(rs.getObject(columnIndex), type);
+                } catch (IllegalArgumentException e) {
+                    throw new SQLException("cannot convert column " + columnIndex + ": " + e.getMessage(), e);
+                }
+                if (value != null && !wrap(type).isInstance(value)) {
+                    throw new SQLException("cannot convert column " + columnIndex + " from "
+                            + value.getClass().getName() + " to " + type.getName());
+                }
+                return (T) value;
+            }
+        };
+    }
+
+    /**
+     * Map each row to a bean, columns are matched to properties by name ignoring case.
+     * The matching is resolved once per result set from its metadata.
+     *
+     * @param <T>      the type parameter
+     * @param beanType the bean type, with a public no-arg constructor
+     * @return the row mapper
+     */
+    public static <T> RowMapper<T> bean(Class<T> beanType) {
+        return EntityMeta.of(beanType).getRowMapper();
+    }
+
+    /**
+     * 与 BeanProcessor 相同的转换: 数值转换为属性的数值类型, java.util.Date 转换为 java.sql.Date/Time/Timestamp,
+     * 字符串转换为枚举.
+     *
+     * @throws IllegalArgumentException 字符串不是枚举的常量
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) {
+                return number.intValue();
+            } else if (type == long.class || type == Long.class) {
+                return number.longValue();
+            } else if (type == double.class || type == Double.class) {
+                return number.doubleValue();
+            } else if (type == float.class || type == Float.class) {
+                return number.floatValue();
+            } else if (type == short.class || type == Short.class) {
+                return number.shortValue();
+            } else if (type == byte.class || type == Byte.class) {
+                return number.byteValue();
+            } else if (type == boolean.class || type == Boolean.class) {
+                return number.intValue() != 0;
+            }
+        }
+        if (value instanceof java.util.Date) {
+            long time = ((java.util.Date) value).getTime();
+            if (type == java.sql.Date.class) {
+                return new java.sql.Date(time);
+            } else if (type == Time.class) {
+                return new Time(time);
+            } else if (type == Timestamp.class) {
+                Timestamp timestamp = new Timestamp(time);
+                if (value instanceof Timestamp) {
+                    timestamp.setNanos(((Timestamp) value).getNanos());
+                }
+                return timestamp;
+            }
+        }
+        if (value instanceof String && type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, (String) value);
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
+    private static class ColumnCount {
+        private final ResultSet rs;
+        private final int count;
+
+        private ColumnCount(ResultSet rs, int count) {
+            this.rs = rs;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.qa.framework.library.database;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 逐条读取 sql 脚本中的语句, 不会把整个文件读入内存.
+ * 语句以分隔符(默认 ;)结束, 引号('', "", ``)中的分隔符和注释(-- 与 /* *&#47;)不会被当作分隔符,
+ * 注释不包含在语句中(/*! 和 /*+ 开头的提示除外); 支持 mysql 客户端的 DELIMITER 命令.
+ * 行模式下每一行是一条语句, 行尾的分隔符会被去掉, 用于旧脚本; 模式由调用方指定, 不根据脚本内容猜测.
+ */
+class SqlScriptReader implements Closeable {
+    private static final Pattern DELIMITER_COMMAND = Pattern.compile("^DELIMITER\\s+(\\S+)$", Pattern.CASE_INSENSITIVE);
+    private final PushbackReader reader;
+    private final boolean lineMode;
+    private String delimiter = ";";
+    private int line = 1;
+    private int statementLine = 1;
+
+    /**
+     * Instantiates a new Sql script reader.
+     *
+     * @param reader   the reader
+     * @param lineMode true if every line is a statement
+     */
+    SqlScriptReader(Reader reader, boolean lineMode) {
+        this.reader = new PushbackReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader), 2);
+        this.lineMode = lineMode;
+    }
+
+    /**
+     * Open the sql file.
+     *
+     * @param file     the sql file, utf-8
+     * @param lineMode true if every line is a statement
+     * @return the sql script reader
+     * @throws IOException the io exception
+     */
+    static SqlScriptReader open(File file, boolean lineMode) throws IOException {
+        return new SqlScriptReader(newReader(file), lineMode);
+    }
+
+    private static Reader newReader(File file) throws IOException {
+        return new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the line number where the last statement returned by next starts.
+     *
+     * @return the line number
+     */
+    int getStatementLine() {
+        return statementLine;
+    }
+
+    /**
+     * Read the next statement.
+     *
+     * @return the statement without the delimiter, null at the end of the script
+     * @throws IOException the io exception
+     */
+    String next() throws IOException {
+        StringBuilder sql = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (sql.length() == 0 && Character.isWhitespace(c)) {
+                if (c == '\n') {
+                    line++;
+                }
+                continue;
+            }
+            if (sql.length() == 0) {
+                statementLine = line;
+            }
+            if (c == '\n') {
+                line++;
+                String command = sql.toString().trim();
+                Matcher matcher = DELIMITER_COMMAND.matcher(command);
+                if (matcher.matches()) {
+                    delimiter = matcher.group(1);
+                    sql.setLength(0);
+                    continue;
+                }
+                if (lineMode) {
+                    command = stripDelimiter(command);
+                    if (command.isEmpty()) {
+                        sql.setLength(0);
+                        continue;
+                    }
+                    return command;
+                }
+                sql.append('\n');
+            } else if (c == '\'' || c == '"' || c == '`') {
+                sql.append((char) c);
+                readQuoted(sql, c);
+            } else if (c == '-' && peek() == '-') {
+                skipLine();
+                if (lineMode) {
+                    String command = stripDelimiter(sql.toString().trim());
+                    if (command.length() > 0) {
+                        return command;
+                    }
+                    sql.setLength(0);
+                    continue;
+                }
+                if (sql.length() > 0) {
+                    sql.append('\n');
+                }
+            } else if (c == '/' && peek() == '*') {
+                reader.read();
+                int hint = peek();
+                if (hint == '!' || hint == '+') {
+                    sql.append("/*");
+                    readComment(sql);
+                } else {
+                    readComment(null);
+                    sql.append(' ');
+                }
+            } else {
+                sql.append((char) c);
+                if (!lineMode && endsWithDelimiter(sql) && !isDelimiterCommand(sql)) {
+                    sql.setLength(sql.length() - delimiter.length());
+                    String statement = sql.toString().trim();
+                    if (statement.isEmpty()) {
+                        sql.setLength(0);
+                        continue;
+                    }
+                    return statement;
+                }
+            }
+        }
+        String statement = sql.toString().trim();
+        if (DELIMITER_COMMAND.matcher(statement).matches()) {
+            return null;
+        }
+        if (lineMode) {
+            statement = stripDelimiter(statement);
+        }
+        return statement.isEmpty() ? null : statement;
+    }
+
+    private String stripDelimiter(String command) {
+        while (command.endsWith(delimiter)) {
+            command = command.substring(0, command.length() - delimiter.length()).trim();
+        }
+        return command;
+    }
+
+    private boolean endsWithDelimiter(StringBuilder sql) {
+        int start = sql.length() - delimiter.length();
+        return start >= 0 && sql.indexOf(delimiter, start) == start;
+    }
+
+    private boolean isDelimiterCommand(StringBuilder sql) {
+        // 行中的 DELIMITER 命令在换行时处理
+        String command = sql.toString().trim();
+        return command.length() > 9 && command.regionMatches(true, 0, "DELIMITER", 0, 9)
+                && Character.isWhitespace(command.charAt(9)) && command.indexOf('\n') < 0;
+    }
+
+    private void readQuoted(StringBuilder sql, int quote) throws IOException {
+        int c;
+        while ((c = reader.read()) != -1) {
+            sql.append((char) c);
+            if (c == '\n') {
+                line++;
+            } else if (c == '\\' && quote != '`') {
+                int escaped = reader.read();
+                if (escaped != -1) {
+                    sql.append((char) escaped);
+                }
+            } else if (c == quote) {
+                if (peek() == quote) {
+                    sql.append((char) reader.read());
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readComment(StringBuilder sql) throws IOException {
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (sql != null) {
+                sql.append((char) c);
+            }
+            if (c == '\n') {
+                line++;
+            } else if (c == '*' && peek() == '/') {
+                reader.read();
+                if (sql != null) {
+                    sql.append('/');
+                }
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                line++;
+                return;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        int c = reader.read();
+        if (c != -1) {
+            reader.unread(c);
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,213 @@
+package com.qa.framework.library.database;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 执行 sql 脚本: 逐条读取语句, 连续的 insert/update/delete/replace 合并为 JDBC batch 发送,
+ * 连接为自动提交时整个脚本在一个事务中执行, 出错时回滚; 已在事务中时由调用方提交.
+ * 每条语句(或每个 batch)的耗时以 debug 级别输出, 超过 1 秒的以 info 级别输出.
+ */
+class SqlScriptRunner {
+    private final static Logger logger = Logger.getLogger(SqlScriptRunner.class);
+    private static final Pattern DML = Pattern.compile("^(INSERT|UPDATE|DELETE|REPLACE)\\s", Pattern.CASE_INSENSITIVE);
+    private static final long SLOW_MILLIS = 1000;
+    private static final int SLOWEST_COUNT = 10;
+    private final int batchSize;
+    private final boolean lineMode;
+
+    /**
+     * Instantiates a new Sql script runner.
+     *
+     * @param batchSize the max number of statements in a batch
+     * @param lineMode  true if every line of the script is a statement
+     */
+    SqlScriptRunner(int batchSize, boolean lineMode) {
+        this.batchSize = Math.max(1, batchSize);
+        this.lineMode = lineMode;
+    }
+
+    /**
+     * Run the sql file on the connection.
+     *
+     * @param conn the connection
+     * @param file the sql file
+     * @return the report
+     * @throws IOException  the io exception
+     * @throws SQLException the sql exception
+     */
+    Report run(Connection conn, File file) throws IOException, SQLException {
+        Report report = new Report(file.getName());
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        boolean completed = false;
+        try (SqlScriptReader reader = SqlScriptReader.open(file, lineMode);
+             Statement stmt = conn.createStatement()) {
+            List<String> batch = new ArrayList<String>();
+            int batchLine = 0;
+            String sql;
+            while ((sql = reader.next()) != null) {
+                if (DML.matcher(sql).find()) {
+                    if (batch.isEmpty()) {
+                        batchLine = reader.getStatementLine();
+                    }
+                    stmt.addBatch(sql);
+                    batch.add(sql);
+                    if (batch.size() >= batchSize) {
+                        executeBatch(stmt, batch, batchLine, report);
+                    }
+                    continue;
+                }
+                executeBatch(stmt, batch, batchLine, report);
+                long statementStart = System.nanoTime();
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException(file.getName() + " line " + reader.getStatementLine() + ": " + e.getMessage(), e);
+                }
+                report.add(reader.getStatementLine(), sql, 1, System.nanoTime() - statementStart);
+            }
+            executeBatch(stmt, batch, batchLine, report);
+            if (autoCommit) {
+                conn.commit();
+            }
+            completed = true;
+        } finally {
+            if (autoCommit && !completed) {
+                try {
+                    conn.rollback();
+                } catch (SQLException e) {
+                    logger.error("rollback " + file.getName() + " failure", e);
+                }
+            }
+            if (autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        logger.info(report);
+        return report;
+    }
+
+    private void executeBatch(Statement stmt, List<String> batch, int line, Report report) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new SQLException(report.name + " batch from line " + line + ": " + e.getMessage(), e);
+        } finally {
+            stmt.clearBatch();
+        }
+        report.add(line, batch.get(0), batch.size(), System.nanoTime() - start);
+        report.batches++;
+        batch.clear();
+    }
+
+    /**
+     * The result of a sql script.
+     */
+    static class Report {
+        private final String name;
+        private final List<Timing> slowest = new ArrayList<Timing>();
+        private int statements = 0;
+        private int batches = 0;
+        private long elapsedNanos;
+
+        private Report(String name) {
+            this.name = name;
+        }
+
+        private void add(int line, String sql, int count, long nanos) {
+            statements += count;
+            Timing timing = new Timing(line, sql, count, nanos);
+            if (timing.millis() >= SLOW_MILLIS) {
+                logger.info(name + " " + timing);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug(name + " " + timing);
+            }
+            if (slowest.size() < SLOWEST_COUNT || nanos > slowest.get(slowest.size() - 1).nanos) {
+                slowest.add(timing);
+                Collections.sort(slowest, new Comparator<Timing>() {
+                    @Override
+                    public int compare(Timing o1, Timing o2) {
+                        return Long.compare(o2.nanos, o1.nanos);
+                    }
+                });
+                if (slowest.size() > SLOWEST_COUNT) {
+                    slowest.remove(slowest.size() - 1);
+                }
+            }
+        }
+
+        /**
+         * Gets the number of statements executed.
+         *
+         * @return the statements
+         */
+        int getStatements() {
+            return statements;
+        }
+
+        /**
+         * Gets the elapsed millis.
+         *
+         * @return the elapsed millis
+         */
+        long getElapsedMillis() {
+            return elapsedNanos / 1000000;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(name).append(": ").append(statements).append(" statements, ")
+                    .append(batches).append(" batches in ").append(getElapsedMillis()).append(" ms");
+            if (!slowest.isEmpty()) {
+                report.append(", slowest:");
+                for (Timing timing : slowest) {
+                    report.append("\n  ").append(timing);
+                }
+            }
+            return report.toString();
+        }
+    }
+
+    private static class Timing {
+        private final int line;
+        private final String sql;
+        private final int count;
+        private final long nanos;
+
+        private Timing(int line, String sql, int count, long nanos) {
+            this.line = line;
+            this.sql = sql.length() > 100 ? sql.substring(0, 100) + "..." : sql;
+            this.count = count;
+            this.nanos = nanos;
+        }
+
+        private long millis() {
+            return nanos / 1000000;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + (count > 1 ? " (batch of " + count + ")" : "") + ": " + millis() + " ms " + sql;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.qa.framework.library.database;
+
+import com.qa.framework.config.PropConfig;
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 每个线程的连接上缓存 PreparedStatement, 按最近使用淘汰, 最多 dbStatementCacheSize 个(0 表示不缓存).
+ * DBHelper 的连接绑定在线程上, 所以缓存也按线程保存; 连接变化(事务提交或回滚后关闭)时缓存的语句全部关闭.
+ */
+class StatementCache {
+    private final static Logger logger = Logger.getLogger(StatementCache.class);
+    private static final ThreadLocal<StatementCache> caches = new ThreadLocal<StatementCache>();
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    private StatementCache(Connection connection, final int maxSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    DBHelper.closeQuietly(null, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached statement of the sql, or prepares one. The statement must be given back with release.
+     *
+     * @param conn the connection of the current thread
+     * @param sql  the sql
+     * @return the prepared statement
+     * @throws SQLException the sql exception
+     */
+    static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        int maxSize = PropConfig.getDbStatementCacheSize();
+        if (maxSize <= 0) {
+            return conn.prepareStatement(sql);
+        }
+        StatementCache cache = caches.get();
+        if (cache == null || cache.connection != conn) {
+            clear();
+            cache = new StatementCache(conn, maxSize);
+            caches.set(cache);
+        }
+        PreparedStatement stmt = cache.statements.get(sql);
+        if (stmt == null || stmt.isClosed()) {
+            stmt = conn.prepareStatement(sql);
+            cache.statements.put(sql, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        return stmt;
+    }
+
+    /**
+     * Gives back the statement got from prepare, it is closed when it is not cached.
+     *
+     * @param sql    the sql
+     * @param stmt   the statement
+     * @param failed true if the statement failed, it is removed from the cache
+     */
+    static void release(String sql, PreparedStatement stmt, boolean failed) {
+        if (stmt == null) {
+            return;
+        }
+        StatementCache cache = caches.get();
+        if (cache == null || cache.statements.get(sql) != stmt) {
+            DBHelper.closeQuietly(null, stmt);
+        } else if (failed) {
+            cache.statements.remove(sql);
+            DBHelper.closeQuietly(null, stmt);
+        }
+    }
+
+    /**
+     * Close the cached statements of the current thread.
+     */
+    static void clear() {
+        StatementCache cache = caches.get();
+        if (cache == null) {
+            return;
+        }
+        caches.remove();
+        List<PreparedStatement> closing = new ArrayList<PreparedStatement>(cache.statements.values());
+        cache.statements.clear();
+        for (PreparedStatement stmt : closing) {
+            DBHelper.closeQuietly(null, stmt);
+        }
+        logger.debug("closed " + closing.size() + " cached statements");
+    }
+}
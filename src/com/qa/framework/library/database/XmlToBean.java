@@ -56,9 +56,44 @@ public class XmlToBean {
                 bcBean.setWait(-1L);
             }
             bcBean.setDriver(XmlUtil.getChildText(pool, "driver").trim());
+            // 以下为可选配置
+            String text = optionalText(XmlUtil, pool, "maxIdle");
+            if (text != null) {
+                bcBean.setMaxIdle(Integer.parseInt(text));
+            }
+            text = optionalText(XmlUtil, pool, "minIdle");
+            if (text != null) {
+                bcBean.setMinIdle(Integer.parseInt(text));
+            }
+            bcBean.setValidationQuery(optionalText(XmlUtil, pool, "validationQuery"));
+            text = optionalText(XmlUtil, pool, "testOnBorrow");
+            bcBean.setTestOnBorrow(text != null ? Boolean.parseBoolean(text) : bcBean.getValidationQuery() != null);
+            text = optionalText(XmlUtil, pool, "testWhileIdle");
+            if (text != null) {
+                bcBean.setTestWhileIdle(Boolean.parseBoolean(text));
+            }
+            text = optionalText(XmlUtil, pool, "timeBetweenEvictionRunsMillis");
+            if (text != null) {
+                bcBean.setTimeBetweenEvictionRunsMillis(Long.parseLong(text));
+            }
+            text = optionalText(XmlUtil, pool, "minEvictableIdleTimeMillis");
+            if (text != null) {
+                bcBean.setMinEvictableIdleTimeMillis(Long.parseLong(text));
+            }
             pools.add(bcBean);
         }
         return pools;
     }
 
+    private static String optionalText(XmlHelper XmlUtil, Element pool, String name) {
+        if (pool.element(name) == null) {
+            return null;
+        }
+        String text = XmlUtil.getChildText(pool, name);
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        return text.trim();
+    }
+
 }
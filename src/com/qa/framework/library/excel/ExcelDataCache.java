@@ -0,0 +1,210 @@
+package com.qa.framework.library.excel;
+
+import com.qa.framework.config.PropConfig;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 进程内共享的工作表数据缓存, 按 (文件, sheet, 修改时间) 缓存解析后的 {@link SheetData}.
+ * 多个线程同时读取同一个 sheet 时只解析一次; 文件修改后重新解析.
+ * config.properties 中 excelSnapshot=true 时, 解析结果以二进制快照保存在工作簿旁边(.文件名.sheet.snapshot),
+ * 下次运行文件未修改时直接读取快照.
+ */
+public class ExcelDataCache {
+    private final static Logger logger = Logger.getLogger(ExcelDataCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x584C5344;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Gets the parsed data of the sheet.
+     *
+     * @param sWorkBook  Path to the Excel WorkBook
+     * @param iWorkSheet Number of the WorkSheet
+     * @return the sheet data
+     */
+    public static SheetData get(String sWorkBook, final int iWorkSheet) {
+        final File file = new File(sWorkBook).getAbsoluteFile();
+        if (!file.isFile()) {
+            throw new IllegalArgumentException(sWorkBook + " does not exist");
+        }
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        String key = file.getPath() + "#" + iWorkSheet;
+        Entry entry = entries.get(key);
+        if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+            Entry newEntry = new Entry(lastModified, length, new FutureTask<SheetData>(new Callable<SheetData>() {
+                @Override
+                public SheetData call() {
+                    return load(file, iWorkSheet, lastModified, length);
+                }
+            }));
+            synchronized (entries) {
+                entry = entries.get(key);
+                if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+                    entries.put(key, newEntry);
+                    entry = newEntry;
+                }
+            }
+            if (entry == newEntry) {
+                newEntry.data.run();
+            }
+        }
+        try {
+            return entry.data.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            // 下次重新解析
+            entries.remove(key);
+            throw new IllegalStateException("parse " + sWorkBook + " failure", e.getCause());
+        }
+    }
+
+    /**
+     * Remove all the cached sheets.
+     */
+    public static void clear() {
+        entries.clear();
+    }
+
+    private static SheetData load(File file, int iWorkSheet, long lastModified, long length) {
+        File snapshot = new File(file.getParentFile(), "." + file.getName() + "." + iWorkSheet + ".snapshot");
+        if (PropConfig.isExcelSnapshot() && snapshot.isFile()) {
+            try {
+                SheetData data = readSnapshot(snapshot, lastModified, length);
+                if (data != null) {
+                    logger.info("load " + file.getName() + " sheet " + iWorkSheet + " from snapshot");
+                    return data;
+                }
+            } catch (IOException e) {
+                logger.warn("read snapshot " + snapshot + " failure: " + e.getMessage());
+            }
+        }
+        long start = System.currentTimeMillis();
+        SheetData data = SheetData.parse(file.getPath(), iWorkSheet);
+        logger.info("parse " + file.getName() + " sheet " + iWorkSheet + ": " + data.getUsedRowsCount()
+                + " rows in " + (System.currentTimeMillis() - start) + " ms");
+        if (PropConfig.isExcelSnapshot()) {
+            try {
+                writeSnapshot(snapshot, data, lastModified, length);
+            } catch (IOException e) {
+                logger.warn("write snapshot " + snapshot + " failure: " + e.getMessage());
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 快照格式: magic, version, 工作簿修改时间和大小, 去重后的字符串表, 每行的列数和每个单元格在字符串表中的序号
+     */
+    private static void writeSnapshot(File snapshot, SheetData data, long lastModified, long length) throws IOException {
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        List<String> values = new ArrayList<String>();
+        String[][] rows = data.getRows();
+        for (String[] row : rows) {
+            for (String value : row) {
+                if (!indexes.containsKey(value)) {
+                    indexes.put(value, values.size());
+                    values.add(value);
+                }
+            }
+        }
+        File temp = new File(snapshot.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lastModified);
+            out.writeLong(length);
+            out.writeInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(rows.length);
+            for (String[] row : rows) {
+                writeVarInt(out, row.length);
+                for (String value : row) {
+                    writeVarInt(out, indexes.get(value));
+                }
+            }
+        }
+        Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SheetData readSnapshot(File snapshot, long lastModified, long length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION
+                    || in.readLong() != lastModified || in.readLong() != length) {
+                return null;
+            }
+            String[] values = new String[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            String[][] rows = new String[in.readInt()][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new String[readVarInt(in)];
+                for (int j = 0; j < rows[i].length; j++) {
+                    rows[i][j] = values[readVarInt(in)];
+                }
+            }
+            return new SheetData(rows);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final long length;
+        private final FutureTask<SheetData> data;
+
+        private Entry(long lastModified, long length, FutureTask<SheetData> data) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.data = data;
+        }
+    }
+}
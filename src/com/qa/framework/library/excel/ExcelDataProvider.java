@@ -0,0 +1,104 @@
+package com.qa.framework.library.excel;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * TestNG 数据驱动的数据源, 数据来自 {@link ExcelDataCache}, 同一个 sheet 在进程内只解析一次;
+ * 返回的 Iterator 在 TestNG 取下一组参数时才生成该行的参数.
+ * <pre>
+ * &#64;DataProvider(name = "login", parallel = true)
+ * public Iterator&lt;Object[]&gt; loginData() {
+ *     return ExcelDataProvider.rowHeadingDicts("data/login.xlsx", 0, 0);
+ * }
+ *
+ * &#64;Test(dataProvider = "login")
+ * public void login(Map&lt;String, String&gt; row) { ... }
+ * </pre>
+ */
+public class ExcelDataProvider {
+
+    /**
+     * Each row after the heading row as one parameter, a map of heading to value.
+     *
+     * @param sWorkBook   Path to the Excel WorkBook
+     * @param iWorkSheet  Number of the WorkSheet
+     * @param iHeadingRow the heading row
+     * @return the parameters
+     */
+    public static Iterator<Object[]> rowHeadingDicts(String sWorkBook, int iWorkSheet, final int iHeadingRow) {
+        final SheetData data = ExcelDataCache.get(sWorkBook, iWorkSheet);
+        return new RowIterator(data, iHeadingRow + 1) {
+            @Override
+            protected Object[] toParameters(int iRow) {
+                return new Object[]{data.buildRowHeadingDictionary(iHeadingRow, iRow)};
+            }
+        };
+    }
+
+    /**
+     * Each row after the skipped rows as the parameters, one string per column.
+     *
+     * @param sWorkBook  Path to the Excel WorkBook
+     * @param iWorkSheet Number of the WorkSheet
+     * @param skipRows   the number of rows to skip, e.g. 1 for a heading row
+     * @return the parameters
+     */
+    public static Iterator<Object[]> rows(String sWorkBook, int iWorkSheet, int skipRows) {
+        final SheetData data = ExcelDataCache.get(sWorkBook, iWorkSheet);
+        return new RowIterator(data, skipRows) {
+            @Override
+            protected Object[] toParameters(int iRow) {
+                return data.getRow(iRow).toArray();
+            }
+        };
+    }
+
+    private abstract static class RowIterator implements Iterator<Object[]> {
+        private final SheetData data;
+        private int next;
+
+        private RowIterator(SheetData data, int first) {
+            this.data = data;
+            this.next = Math.max(0, first);
+            skipEmptyRows();
+        }
+
+        protected abstract Object[] toParameters(int iRow);
+
+        @Override
+        public boolean hasNext() {
+            return next < data.getUsedRowsCount();
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] parameters = toParameters(next++);
+            skipEmptyRows();
+            return parameters;
+        }
+
+        private void skipEmptyRows() {
+            while (next < data.getUsedRowsCount() && isEmpty(next)) {
+                next++;
+            }
+        }
+
+        private boolean isEmpty(int iRow) {
+            for (int iCol = 0; iCol < data.getUsedColumnsCount(); iCol++) {
+                if (!data.getCellValue(iRow, iCol).isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
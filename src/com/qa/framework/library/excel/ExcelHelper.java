@@ -5,6 +5,8 @@ import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -24,6 +26,11 @@ public class ExcelHelper {
     private final static Logger logger = Logger
             .getLogger(ExcelHelper.class);
 
+    /**
+     * The rows kept in memory by a streaming workbook
+     */
+    private static final int STREAMING_WINDOW = 100;
+
     /**
      * The WorkBook path created in LoadFile
      */
@@ -39,6 +46,18 @@ public class ExcelHelper {
      */
     private transient Sheet sheet;
 
+    /**
+     * The used rows and columns of the sheet, computed on first use and reset when the sheet changes
+     */
+    private transient int usedRowsCount = -1;
+    private transient int usedColumnsCount = -1;
+
+    /**
+     * Cell styles and fonts created in the workbook, shared by the cells with the same look
+     */
+    private transient Map<String, CellStyle> cellStyles = new HashMap<String, CellStyle>();
+    private transient Map<String, Font> fonts = new HashMap<String, Font>();
+
     /**
      * Sets the region instances for Excel WorkBook and WorkSheet. These
      * instances for the Excel source are created only once and used by other
@@ -55,25 +74,50 @@ public class ExcelHelper {
             InputStream fis = new FileInputStream(sWorkBookPath);
             try {
                 workbook = WorkbookFactory.create(fis);
+                workbookChanged();
             } catch (InvalidFormatException e) {
                 logger.error(e.toString());
             }
 
             // setHssfsheet(getHssfworkbook().getSheetAt(iWorkSheet));
             sheet = getWorkbook().getSheetAt(iWorkSheet);
+            dimensionsChanged();
         } catch (IOException e) {
             logger.error(e.toString());
         }
         return this;
     }
 
+    /**
+     * Opens a reader returning the rows of the WorkSheet one by one. xlsx files are parsed as a
+     * stream without loading the workbook, other files are loaded first.
+     *
+     * @param sWorkBook  Path to the Excel WorkBook
+     * @param iWorkSheet Number of the WorkSheet
+     * @return the sheet row reader, to be closed when not read to the end
+     */
+    public static SheetRowReader openSheetReader(String sWorkBook, int iWorkSheet) {
+        if (sWorkBook.toLowerCase().endsWith(".xlsx") || sWorkBook.toLowerCase().endsWith(".xlsm")) {
+            try {
+                return new XlsxSheetReader(sWorkBook, iWorkSheet);
+            } catch (Exception e) {
+                logger.error("open " + sWorkBook + " failure", e);
+                throw new IllegalStateException(e);
+            }
+        }
+        return new WorkbookSheetReader(new ExcelHelper().loadFile(sWorkBook, iWorkSheet));
+    }
+
     /**
      * Finds the number of used rows in the Excel WorkSheet
      *
      * @return The number of used rows
      */
     public int getUsedRowsCount() {
-        return (getSheet().getLastRowNum() + 1);
+        if (usedRowsCount < 0) {
+            usedRowsCount = getSheet().getLastRowNum() + 1;
+        }
+        return usedRowsCount;
     }
 
     /**
@@ -82,16 +126,32 @@ public class ExcelHelper {
      * @return The number of used columns
      */
     public int getUsedColumnsCount() {
-        int MaxColumnsCount = 0;
-        for (int i = 0; i < getUsedRowsCount(); i++) {
-            Row row = sheet.getRow(i);
-            if (row != null && row.getLastCellNum() > MaxColumnsCount) {
-                MaxColumnsCount = row.getLastCellNum();
+        if (usedColumnsCount < 0) {
+            int MaxColumnsCount = 0;
+            for (Row row : sheet) {
+                if (row.getLastCellNum() > MaxColumnsCount) {
+                    MaxColumnsCount = row.getLastCellNum();
+                }
             }
-
+            usedColumnsCount = MaxColumnsCount;
         }
-        return MaxColumnsCount;
+        return usedColumnsCount;
+    }
+
+    /**
+     * Forgets the styles of the previous workbook
+     */
+    private void workbookChanged() {
+        cellStyles = new HashMap<String, CellStyle>();
+        fonts = new HashMap<String, Font>();
+    }
 
+    /**
+     * Resets the cached dimensions after rows or cells are created or removed
+     */
+    private void dimensionsChanged() {
+        usedRowsCount = -1;
+        usedColumnsCount = -1;
     }
 
     /**
@@ -133,18 +193,7 @@ public class ExcelHelper {
                     SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd HHmmss");
                     return sdf.format(date);
                 }
-                String retVal = String.valueOf(cell.getNumericCellValue());
-                if (retVal.endsWith(".0")) {
-                    // In order to fix integer number issue, e.g. 9 -> 9.0
-                    int length = retVal.length() - 2;
-                    retVal = retVal.substring(0, length);
-                }
-                if (retVal.contains("E")) {
-                    // In order to fix big number
-                    retVal = String.valueOf(cell.getNumericCellValue());
-                    retVal = new BigDecimal(retVal).toString();
-                }
-                return retVal;
+                return formatNumber(cell.getNumericCellValue());
             case Cell.CELL_TYPE_BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case Cell.CELL_TYPE_ERROR:
@@ -156,6 +205,27 @@ public class ExcelHelper {
         }
     }
 
+    /**
+     * Format a numeric cell value, e.g. 9.0 -> 9, 1.0E10 -> 10000000000
+     *
+     * @param number the number
+     * @return string value
+     */
+    static String formatNumber(double number) {
+        String retVal = String.valueOf(number);
+        if (retVal.endsWith(".0")) {
+            // In order to fix integer number issue, e.g. 9 -> 9.0
+            int length = retVal.length() - 2;
+            retVal = retVal.substring(0, length);
+        }
+        if (retVal.contains("E")) {
+            // In order to fix big number
+            retVal = String.valueOf(number);
+            retVal = new BigDecimal(retVal).toString();
+        }
+        return retVal;
+    }
+
     /**
      * Get formula type value
      *
@@ -211,12 +281,14 @@ public class ExcelHelper {
      * @return 2D array
      */
     public String[][] get2DArrayFromSheet() {
-        String[][] Array2DFromSheet = new String[getUsedRowsCount()][getUsedColumnsCount()];
+        int rowsCount = getUsedRowsCount();
+        int columnsCount = getUsedColumnsCount();
+        String[][] Array2DFromSheet = new String[rowsCount][columnsCount];
         try {
-            for (int i = 0; i < getUsedRowsCount(); i++) {
+            for (int i = 0; i < rowsCount; i++) {
                 Row row = sheet.getRow(i);
                 if (row != null) {
-                    for (int j = 0; j < getUsedColumnsCount(); j++) {
+                    for (int j = 0; j < columnsCount; j++) {
                         Cell cell = row.getCell(j);
                         if (cell != null) {
                             Array2DFromSheet[i][j] = getCellValue(cell);
@@ -226,7 +298,7 @@ public class ExcelHelper {
 
                     }
                 } else {
-                    for (int j = 0; j < getUsedColumnsCount(); j++) {
+                    for (int j = 0; j < columnsCount; j++) {
                         Array2DFromSheet[i][j] = "";
                     }
                 }
@@ -280,13 +352,15 @@ public class ExcelHelper {
      * @return the 2 d data from sheet
      */
     public List<List<String>> get2DDataFromSheet() {
-        List<List<String>> data2DFromSheet = new ArrayList<List<String>>();
-        List<String> rowData = new ArrayList<String>();
+        int rowsCount = getUsedRowsCount();
+        int columnsCount = getUsedColumnsCount();
+        List<List<String>> data2DFromSheet = new ArrayList<List<String>>(rowsCount);
         try {
-            for (int i = 0; i < getUsedRowsCount(); i++) {
+            for (int i = 0; i < rowsCount; i++) {
+                List<String> rowData = new ArrayList<String>(columnsCount);
                 Row row = sheet.getRow(i);
                 if (row != null) {
-                    for (int j = 0; j < getUsedColumnsCount(); j++) {
+                    for (int j = 0; j < columnsCount; j++) {
                         Cell cell = row.getCell(j);
                         if (cell != null) {
                             rowData.add(getCellValue(cell));
@@ -296,7 +370,7 @@ public class ExcelHelper {
 
                     }
                 } else {
-                    for (int j = 0; j < getUsedColumnsCount(); j++) {
+                    for (int j = 0; j < columnsCount; j++) {
                         rowData.add("");
                     }
                 }
@@ -317,13 +391,15 @@ public class ExcelHelper {
      */
     public List<String> getColumnData(int iColumn) {
         List<String> columnData = new ArrayList<String>();
-        String[][] data = get2DArrayFromSheet();
-        for (String[] aData : data) {
-            for (int j = 0; j < aData.length; j++) {
-                if (j == iColumn) {
-                    if (!aData[j].isEmpty()) {
-                        columnData.add(aData[j]);
-                    }
+        if (iColumn >= getUsedColumnsCount()) {
+            return columnData;
+        }
+        for (Row row : sheet) {
+            Cell cell = row.getCell(iColumn);
+            if (cell != null) {
+                String value = getCellValue(cell);
+                if (!value.isEmpty()) {
+                    columnData.add(value);
                 }
             }
         }
@@ -339,14 +415,13 @@ public class ExcelHelper {
     public void setForegroundColor(int iRow, int iColumn) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-        style.setFillForegroundColor(IndexedColors.CORAL.getIndex());
+        CellStyle style = getCellStyle(IndexedColors.CORAL.getIndex(), null, false, null);
         if (cell != null) {
             cell.setCellStyle(style);
         } else {
             cell = row.createCell(iColumn);
             cell.setCellStyle(style);
+            dimensionsChanged();
         }
     }
 
@@ -359,16 +434,60 @@ public class ExcelHelper {
     public void setToDefaultForegroundColor(int iRow, int iColumn) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-        style.setFillForegroundColor(IndexedColors.WHITE.getIndex());
-
+        CellStyle style = getCellStyle(IndexedColors.WHITE.getIndex(), null, false, null);
         if (cell != null) {
             cell.setCellStyle(style);
         } else {
             cell = row.createCell(iColumn);
             cell.setCellStyle(style);
+            dimensionsChanged();
+        }
+    }
+
+    /**
+     * Gets a cell style of the workbook, a style is created once for each combination and then reused,
+     * so that coloring many cells doesn't hit the style limit of the workbook.
+     *
+     * @param fillColor the solid foreground fill color, null for no fill
+     * @param fontColor the font color, null for the default font
+     * @param underline true to underline the font
+     * @param format    the data format, null for the default format
+     * @return the cell style
+     */
+    public CellStyle getCellStyle(Short fillColor, Short fontColor, boolean underline, String format) {
+        String key = fillColor + "|" + fontColor + "|" + underline + "|" + format;
+        CellStyle style = cellStyles.get(key);
+        if (style == null) {
+            style = workbook.createCellStyle();
+            if (fillColor != null) {
+                style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+                style.setFillForegroundColor(fillColor);
+            }
+            if (fontColor != null || underline) {
+                style.setFont(getFont(fontColor, underline));
+            }
+            if (format != null) {
+                style.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(format));
+            }
+            cellStyles.put(key, style);
+        }
+        return style;
+    }
+
+    private Font getFont(Short color, boolean underline) {
+        String key = color + "|" + underline;
+        Font font = fonts.get(key);
+        if (font == null) {
+            font = workbook.createFont();
+            if (color != null) {
+                font.setColor(color);
+            }
+            if (underline) {
+                font.setUnderline(Font.U_SINGLE);
+            }
+            fonts.put(key, font);
         }
+        return font;
     }
 
     /**
@@ -394,15 +513,13 @@ public class ExcelHelper {
     public void setFontColor(int iRow, int iColumn, long color) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setColor((short) color);
-        style.setFont(font);
+        CellStyle style = getCellStyle(null, (short) color, false, null);
         if (cell != null) {
             cell.setCellStyle(style);
         } else {
             cell = row.createCell(iColumn);
             cell.setCellStyle(style);
+            dimensionsChanged();
         }
     }
 
@@ -415,15 +532,13 @@ public class ExcelHelper {
     public void setFontColorToRed(int iRow, int iColumn) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setColor(IndexedColors.RED.getIndex());
-        style.setFont(font);
+        CellStyle style = getCellStyle(null, IndexedColors.RED.getIndex(), false, null);
         if (cell != null) {
             cell.setCellStyle(style);
         } else {
             cell = row.createCell(iColumn);
             cell.setCellStyle(style);
+            dimensionsChanged();
         }
     }
 
@@ -436,15 +551,13 @@ public class ExcelHelper {
     public void setToDefaultFontColor(int iRow, int iColumn) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setColor(IndexedColors.BLACK.getIndex());
-        style.setFont(font);
+        CellStyle style = getCellStyle(null, IndexedColors.BLACK.getIndex(), false, null);
         if (cell != null) {
             cell.setCellStyle(style);
         } else {
             cell = row.createCell(iColumn);
             cell.setCellStyle(style);
+            dimensionsChanged();
         }
     }
 
@@ -483,6 +596,7 @@ public class ExcelHelper {
             cell = row.createCell(iColumn);
             cell.setCellType(Cell.CELL_TYPE_BLANK);
             cell.setCellValue(value);
+            dimensionsChanged();
         }
     }
 
@@ -493,13 +607,15 @@ public class ExcelHelper {
      */
     public void saveWorkbook() {
         // Write the output to a file
-        try {
-            FileOutputStream fileOut = new FileOutputStream(sWorkBookPath);
+        try (FileOutputStream fileOut = new FileOutputStream(sWorkBookPath)) {
             workbook.write(fileOut);
-            fileOut.close();
         } catch (IOException e) {
             logger.error(e.toString());
         }
+        if (workbook instanceof SXSSFWorkbook) {
+            // 流式写入的 workbook 只能保存一次, 删除临时文件
+            ((SXSSFWorkbook) workbook).dispose();
+        }
     }
 
     /**
@@ -511,10 +627,7 @@ public class ExcelHelper {
     public void setCellTypeToDate(int iRow, int iColumn) {
         Row row = sheet.getRow(iRow);
         Cell cell = row.getCell(iColumn);
-        CellStyle style = workbook.createCellStyle();
-        CreationHelper createHelper = workbook.getCreationHelper();
-        style.setDataFormat(createHelper.createDataFormat().getFormat("m/d/yy"));
-        cell.setCellStyle(style);
+        cell.setCellStyle(getCellStyle(null, null, false, "m/d/yy"));
     }
 
     /**
@@ -552,6 +665,7 @@ public class ExcelHelper {
         if (cell == null) {
             cell = row.createCell(columnIndex);
             cell.setCellType(Cell.CELL_TYPE_BLANK);
+            dimensionsChanged();
         }
         return cell;
 
@@ -676,16 +790,47 @@ public class ExcelHelper {
      * @param sheetName  the sheet name
      */
     public void createExcel(String outputFile, String sheetName) {
+        createExcel(outputFile, sheetName, false);
+    }
+
+    /**
+     * Create the workbook and work sheet. In streaming mode (xlsx only) only the last
+     * STREAMING_WINDOW rows are kept in memory, older rows are flushed to a temp file,
+     * so rows must be written in order and flushed rows can't be read, shifted or changed again.
+     *
+     * @param outputFile the output file
+     * @param sheetName  the sheet name
+     * @param streaming  true to write the rows through a sliding window
+     */
+    public void createExcel(String outputFile, String sheetName, boolean streaming) {
         sWorkBookPath = outputFile;
         if (sWorkBookPath.endsWith("xls")) {
             workbook = new HSSFWorkbook();
+        } else if (streaming) {
+            workbook = new SXSSFWorkbook(STREAMING_WINDOW);
         } else {
             workbook = new XSSFWorkbook();
         }
+        workbookChanged();
         sheet = workbook.createSheet(sheetName);
+        dimensionsChanged();
         // saveWorkbook();
     }
 
+    /**
+     * Flush the rows kept in memory to the temp file of a streaming workbook,
+     * the rows can't be accessed afterwards. Does nothing for other workbooks.
+     */
+    public void flushRows() {
+        if (sheet instanceof SXSSFSheet) {
+            try {
+                ((SXSSFSheet) sheet).flushRows();
+            } catch (IOException e) {
+                logger.error(e.toString());
+            }
+        }
+    }
+
     /**
      * Create the cells for the worksheet
      *
@@ -701,6 +846,7 @@ public class ExcelHelper {
                 row.createCell(j);
             }
         }
+        dimensionsChanged();
     }
 
     /**
@@ -713,6 +859,7 @@ public class ExcelHelper {
     public Cell createCell(int rowIndex, int columnIndex) {
         // Create a row and put some cells in it. Rows are 0 based.
         Row row = sheet.createRow((int) rowIndex);
+        dimensionsChanged();
         // Create a cell and put a value in it.
         return row.createCell(columnIndex);
 
@@ -728,17 +875,8 @@ public class ExcelHelper {
      */
     public void createHyperlink(Cell cell, String address, boolean isPass) {
         // cell style for hyperlinks
-        CellStyle hlink_style = workbook.createCellStyle();
-        Font hlink_font = workbook.createFont();
-        hlink_font.setUnderline(Font.U_SINGLE);
-
-        if (isPass) {
-            hlink_font.setColor(IndexedColors.BLUE.getIndex());
-        } else {
-            hlink_font.setColor(IndexedColors.RED.getIndex());
-        }
-
-        hlink_style.setFont(hlink_font);
+        short color = isPass ? IndexedColors.BLUE.getIndex() : IndexedColors.RED.getIndex();
+        CellStyle hlink_style = getCellStyle(null, color, true, null);
 
         writeHyperlinkToCell(cell, address, hlink_style);
     }
@@ -792,6 +930,7 @@ public class ExcelHelper {
         for (int i = 0; i < rows; i++) {
             sheet.createRow(++startRowIndex);
         }
+        dimensionsChanged();
     }
 
     /**
@@ -810,6 +949,7 @@ public class ExcelHelper {
                 sheet.removeRow(removingRow);
             }
         }
+        dimensionsChanged();
 
     }
 
@@ -822,25 +962,28 @@ public class ExcelHelper {
      */
     public void exportListMapToExcel(List<Map<String, String>> listMap,
                                      String outputFile, String sheetName) {
-        this.createExcel(outputFile, sheetName);
-        this.createCells(listMap.size() + 1, listMap.get(0).size());
+        this.createExcel(outputFile, sheetName, true);
         logger.info("Start to export to the result file " + outputFile);
+        // 按顺序逐行写入, 流式 workbook 中只保留最近的行
         int iRow = 0;
         int iCol = 0;
         // Fill the header row
+        Row row = sheet.createRow(iRow);
         for (Map.Entry<String, String> entry : listMap.get(0).entrySet()) {
-            this.setCellValue(0, iCol, entry.getKey());
+            row.createCell(iCol).setCellValue(entry.getKey());
             iCol++;
         }
         // Fill the data row
         for (Map<String, String> map : listMap) {
             iRow++;
             iCol = 0;
+            row = sheet.createRow(iRow);
             for (Map.Entry<String, String> entry : map.entrySet()) {
-                this.setCellValue(iRow, iCol, entry.getValue());
+                row.createCell(iCol).setCellValue(entry.getValue());
                 iCol++;
             }
         }
+        dimensionsChanged();
         // Save
         this.saveWorkbook();
         logger.info("The export process are done!");
@@ -862,6 +1005,8 @@ public class ExcelHelper {
      */
     public void setWorkbook(Workbook workbook) {
         this.workbook = workbook;
+        workbookChanged();
+        dimensionsChanged();
     }
 
     /**
@@ -880,6 +1025,7 @@ public class ExcelHelper {
      */
     public void setSheet(Sheet sheet) {
         this.sheet = sheet;
+        dimensionsChanged();
     }
 
     /**
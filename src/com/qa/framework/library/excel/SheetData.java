@@ -0,0 +1,171 @@
+package com.qa.framework.library.excel;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析后的工作表数据, 不可修改, 可以在线程之间共享. 单元格的值与 {@link ExcelHelper#getCellValue(int, int)} 相同,
+ * 相同的值只保存一份; 按表头生成的 Map 在使用时才创建.
+ */
+public class SheetData {
+    private final String[][] rows;
+    private final int columnCount;
+
+    /**
+     * Instantiates a new Sheet data.
+     *
+     * @param rows the cell values of each row, the arrays are not copied
+     */
+    SheetData(String[][] rows) {
+        this.rows = rows;
+        int max = 0;
+        for (String[] row : rows) {
+            max = Math.max(max, row.length);
+        }
+        this.columnCount = max;
+    }
+
+    /**
+     * Parse the sheet with the streaming reader.
+     *
+     * @param sWorkBook  Path to the Excel WorkBook
+     * @param iWorkSheet Number of the WorkSheet
+     * @return the sheet data
+     */
+    static SheetData parse(String sWorkBook, int iWorkSheet) {
+        List<String[]> rows = new ArrayList<String[]>();
+        Map<String, String> values = new HashMap<String, String>();
+        try (SheetRowReader reader = ExcelHelper.openSheetReader(sWorkBook, iWorkSheet)) {
+            for (List<String> row : reader) {
+                String[] cells = new String[row.size()];
+                for (int i = 0; i < cells.length; i++) {
+                    String value = row.get(i);
+                    String shared = values.get(value);
+                    if (shared == null) {
+                        values.put(value, value);
+                        shared = value;
+                    }
+                    cells[i] = shared;
+                }
+                rows.add(cells);
+            }
+        }
+        return new SheetData(rows.toArray(new String[rows.size()][]));
+    }
+
+    /**
+     * Gets the number of used rows.
+     *
+     * @return the rows count
+     */
+    public int getUsedRowsCount() {
+        return rows.length;
+    }
+
+    /**
+     * Gets the number of used columns.
+     *
+     * @return the columns count
+     */
+    public int getUsedColumnsCount() {
+        return columnCount;
+    }
+
+    /**
+     * Reads the value of a cell.
+     *
+     * @param iRow    Row Number
+     * @param iColumn Column Number
+     * @return the cell value, "" for an empty cell
+     */
+    public String getCellValue(int iRow, int iColumn) {
+        String[] row = rows[iRow];
+        return iColumn < row.length ? row[iColumn] : "";
+    }
+
+    /**
+     * Gets the values of a row.
+     *
+     * @param iRow Row Number
+     * @return the unmodifiable cell values, padded to the used columns
+     */
+    public List<String> getRow(final int iRow) {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= columnCount) {
+                    throw new IndexOutOfBoundsException("column " + index);
+                }
+                return getCellValue(iRow, index);
+            }
+
+            @Override
+            public int size() {
+                return columnCount;
+            }
+        };
+    }
+
+    /**
+     * Build a dictionary of a row with the header.
+     *
+     * @param iHeadingRow the heading row
+     * @param iRow        the row
+     * @return the unmodifiable map of heading to value, in column order
+     */
+    public Map<String, String> buildRowHeadingDictionary(int iHeadingRow, int iRow) {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (int iCol = 0; iCol < columnCount; iCol++) {
+            map.put(getCellValue(iHeadingRow, iCol), getCellValue(iRow, iCol));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Gets the values of a column, without the empty cells.
+     *
+     * @param iColumn the column
+     * @return the column data
+     */
+    public List<String> getColumnData(int iColumn) {
+        List<String> columnData = new ArrayList<String>();
+        for (int i = 0; i < rows.length; i++) {
+            String value = getCellValue(i, iColumn);
+            if (!value.isEmpty()) {
+                columnData.add(value);
+            }
+        }
+        return columnData;
+    }
+
+    /**
+     * Returns a copy of the data as a 2D array.
+     *
+     * @return 2D array
+     */
+    public String[][] get2DArray() {
+        String[][] array = new String[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            array[i] = Arrays.copyOf(rows[i], columnCount);
+            for (int j = rows[i].length; j < columnCount; j++) {
+                array[i][j] = "";
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Gets the rows, for the snapshot.
+     *
+     * @return the rows
+     */
+    String[][] getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,112 @@
+package com.qa.framework.library.excel;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行读取工作表, 每次只读取下一行, 适合行数很多的数据表. 每一行是单元格值的列表(值的格式与
+ * {@link ExcelHelper#getCellValue(org.apache.poi.ss.usermodel.Cell)} 相同), 中间的空行以空列表返回,
+ * 读完所有行时自动关闭, 提前结束时需要调用 close.
+ * <pre>
+ * try (SheetRowReader rows = ExcelHelper.openSheetReader("data.xlsx", 0)) {
+ *     for (List&lt;String&gt; row : rows) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public abstract class SheetRowReader implements Iterator<List<String>>, Iterable<List<String>>, Closeable {
+    private List<String> next;
+    private int rowIndex = -1;
+    private boolean closed = false;
+
+    /**
+     * Read the next row.
+     *
+     * @return the cell values of the row, null at the end of the sheet
+     * @throws Exception the exception
+     */
+    protected abstract List<String> readRow() throws Exception;
+
+    /**
+     * Release the underlying file.
+     *
+     * @throws Exception the exception
+     */
+    protected abstract void release() throws Exception;
+
+    /**
+     * Gets the number of used rows, from the sheet dimension when the file records it.
+     *
+     * @return the rows count, -1 if unknown
+     */
+    public abstract int getUsedRowsCount();
+
+    /**
+     * Gets the number of used columns, from the sheet dimension when the file records it.
+     *
+     * @return the columns count, -1 if unknown
+     */
+    public abstract int getUsedColumnsCount();
+
+    /**
+     * Gets the index of the row last returned by next.
+     *
+     * @return the row index, starting with 0
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public Iterator<List<String>> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            try {
+                next = readRow();
+            } catch (Exception e) {
+                close();
+                throw new IllegalStateException("read row " + (rowIndex + 1) + " failure", e);
+            }
+            if (next == null) {
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> row = next;
+        next = null;
+        rowIndex++;
+        return row;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            release();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.qa.framework.library.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 逐行读取已加载的工作表, 用于 xls 等不能流式读取的文件.
+ */
+class WorkbookSheetReader extends SheetRowReader {
+    private final ExcelHelper excelHelper;
+    private final int usedRowsCount;
+    private final int usedColumnsCount;
+    private int nextRowIndex = 0;
+
+    /**
+     * Instantiates a new Workbook sheet reader.
+     *
+     * @param excelHelper the excel helper with the sheet loaded
+     */
+    WorkbookSheetReader(ExcelHelper excelHelper) {
+        this.excelHelper = excelHelper;
+        this.usedRowsCount = excelHelper.getUsedRowsCount();
+        this.usedColumnsCount = excelHelper.getUsedColumnsCount();
+    }
+
+    @Override
+    public int getUsedRowsCount() {
+        return usedRowsCount;
+    }
+
+    @Override
+    public int getUsedColumnsCount() {
+        return usedColumnsCount;
+    }
+
+    @Override
+    protected List<String> readRow() {
+        if (nextRowIndex >= usedRowsCount) {
+            return null;
+        }
+        Sheet sheet = excelHelper.getSheet();
+        Row row = sheet.getRow(nextRowIndex++);
+        if (row == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<String>(usedColumnsCount);
+        for (int j = 0; j < usedColumnsCount; j++) {
+            Cell cell = row.getCell(j);
+            values.add(cell != null ? excelHelper.getCellValue(cell) : "");
+        }
+        return values;
+    }
+
+    @Override
+    protected void release() {
+        excelHelper.setWorkbook(null);
+        excelHelper.setSheet(null);
+    }
+}
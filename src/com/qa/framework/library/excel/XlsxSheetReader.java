@@ -0,0 +1,229 @@
+package com.qa.framework.library.excel;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * xlsx 工作表的流式读取, 用 StAX 逐行解析 sheet 的 xml, 不创建 XSSFWorkbook,
+ * 内存中只有共享字符串表, 样式表和当前行.
+ */
+class XlsxSheetReader extends SheetRowReader {
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    private final OPCPackage pkg;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final Map<Integer, Boolean> dateStyles = new HashMap<Integer, Boolean>();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd HHmmss");
+    private int usedRowsCount = -1;
+    private int usedColumnsCount = -1;
+    private int nextRowIndex = 0;
+    private int pendingRowIndex = -1;
+    private List<String> pendingRow;
+
+    /**
+     * Instantiates a new Xlsx sheet reader.
+     *
+     * @param path       the xlsx path
+     * @param sheetIndex the sheet index
+     * @throws Exception the exception
+     */
+    XlsxSheetReader(String path, int sheetIndex) throws Exception {
+        pkg = OPCPackage.open(path, PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            strings = new ReadOnlySharedStringsTable(pkg);
+            styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            InputStream stream = null;
+            for (int i = 0; i <= sheetIndex && sheets.hasNext(); i++) {
+                if (stream != null) {
+                    stream.close();
+                }
+                stream = sheets.next();
+                if (i < sheetIndex) {
+                    stream.close();
+                    stream = null;
+                }
+            }
+            if (stream == null) {
+                throw new IllegalArgumentException("sheet " + sheetIndex + " does not exist in " + path);
+            }
+            sheetStream = stream;
+            xml = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+            readDimension();
+        } catch (Exception e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getUsedRowsCount() {
+        return usedRowsCount;
+    }
+
+    @Override
+    public int getUsedColumnsCount() {
+        return usedColumnsCount;
+    }
+
+    /**
+     * 读取 sheetData 之前的 dimension, 如 A1:F200000
+     */
+    private void readDimension() throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = xml.getLocalName();
+            if ("dimension".equals(name)) {
+                String ref = xml.getAttributeValue(null, "ref");
+                if (ref != null && ref.contains(":")) {
+                    CellReference last = new CellReference(ref.substring(ref.indexOf(':') + 1));
+                    usedRowsCount = last.getRow() + 1;
+                    usedColumnsCount = last.getCol() + 1;
+                }
+            } else if ("sheetData".equals(name)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected List<String> readRow() throws Exception {
+        if (pendingRow == null) {
+            readNextRow();
+        }
+        if (pendingRow == null) {
+            return null;
+        }
+        if (pendingRowIndex > nextRowIndex) {
+            // 文件中不记录空行
+            nextRowIndex++;
+            return Collections.emptyList();
+        }
+        List<String> row = pendingRow;
+        pendingRow = null;
+        nextRowIndex++;
+        return row;
+    }
+
+    private void readNextRow() throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                String r = xml.getAttributeValue(null, "r");
+                pendingRowIndex = r != null ? Integer.parseInt(r) - 1 : nextRowIndex;
+                pendingRow = readCells();
+                return;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                return;
+            }
+        }
+    }
+
+    private List<String> readCells() throws XMLStreamException {
+        List<String> row = new ArrayList<String>(usedColumnsCount > 0 ? usedColumnsCount : 16);
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(xml.getLocalName())) {
+                continue;
+            }
+            String ref = xml.getAttributeValue(null, "r");
+            int column = ref != null ? new CellReference(ref).getCol() : row.size();
+            String type = xml.getAttributeValue(null, "t");
+            String style = xml.getAttributeValue(null, "s");
+            String value = readCellValue(type, style);
+            while (row.size() < column) {
+                row.add("");
+            }
+            row.add(value);
+        }
+        while (row.size() < usedColumnsCount) {
+            row.add("");
+        }
+        return row;
+    }
+
+    private String readCellValue(String type, String style) throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        boolean inValue = false;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                // v 为值(公式为缓存的结果), is/t 为内联字符串, f 为公式本身
+                inValue = "v".equals(name) || "t".equals(name);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("c".equals(xml.getLocalName())) {
+                    break;
+                }
+                inValue = false;
+            } else if (inValue && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                value.append(xml.getText());
+            }
+        }
+        String text = value.toString();
+        if ("s".equals(type)) {
+            return text.isEmpty() ? "" : strings.getEntryAt(Integer.parseInt(text));
+        } else if ("b".equals(type)) {
+            return String.valueOf("1".equals(text));
+        } else if ("str".equals(type) || "inlineStr".equals(type) || "e".equals(type)) {
+            return text;
+        } else if (text.isEmpty()) {
+            return "";
+        }
+        double number = Double.parseDouble(text);
+        if (style != null && isDateStyle(Integer.parseInt(style)) && DateUtil.isValidExcelDate(number)) {
+            return dateFormat.format(DateUtil.getJavaDate(number));
+        }
+        return ExcelHelper.formatNumber(number);
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        Boolean isDate = dateStyles.get(styleIndex);
+        if (isDate == null) {
+            XSSFCellStyle cellStyle = styles.getStyleAt(styleIndex);
+            isDate = cellStyle != null
+                    && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+            dateStyles.put(styleIndex, isDate);
+        }
+        return isDate;
+    }
+
+    @Override
+    protected void release() throws Exception {
+        try {
+            xml.close();
+            sheetStream.close();
+        } finally {
+            pkg.revert();
+        }
+    }
+}
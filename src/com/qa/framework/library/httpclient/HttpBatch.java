@@ -0,0 +1,158 @@
+package com.qa.framework.library.httpclient;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.Cookie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 批量发送请求, 例如并行准备测试数据. 最多同时执行 concurrency 个请求, 结果按添加顺序返回.
+ * 请求在异步请求的共享线程池中执行, 实际并发数不超过 httpAsyncThreads.
+ * useCookie 为 true 时, 在第一次添加这样的请求时(调用线程中)读取一次 driver 的 cookie, 后台线程不访问 driver.
+ * <pre>
+ * List&lt;String&gt; results = new HttpBatch(8)
+ *         .usePostMethod("user/add", params1, false, 2)
+ *         .usePostMethod("user/add", params2, false, 2)
+ *         .execute();
+ * </pre>
+ */
+public class HttpBatch {
+    private final static Logger logger = Logger.getLogger(HttpBatch.class);
+    private final int concurrency;
+    private final List<Callable<String>> requests = new ArrayList<Callable<String>>();
+    private Set<Cookie> driverCookies;
+
+    /**
+     * Instantiates a new Http batch.
+     *
+     * @param concurrency the max number of requests in flight, capped by httpAsyncThreads
+     */
+    public HttpBatch(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        if (this.concurrency > HttpMethod.getAsyncThreads()) {
+            logger.warn("batch concurrency " + this.concurrency + " is capped by httpAsyncThreads(" + HttpMethod.getAsyncThreads() + ")");
+        }
+    }
+
+    /**
+     * Adds a get request.
+     *
+     * @param url      the url
+     * @param trytimes the trytimes
+     * @return the http batch
+     */
+    public HttpBatch get(final String url, final int trytimes) {
+        requests.add(new Callable<String>() {
+            @Override
+            public String call() {
+                return HttpMethod.get(url, trytimes);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Adds a get request.
+     *
+     * @param url       the url
+     * @param params    the params
+     * @param useCookie the use cookie, the cookies of the calling thread's driver, read once per batch
+     * @param trytimes  the trytimes
+     * @return the http batch
+     */
+    public HttpBatch useGetMethod(final String url, final List<Param> params, boolean useCookie, final int trytimes) {
+        final Set<Cookie> cookies = useCookie ? getDriverCookies() : null;
+        requests.add(new Callable<String>() {
+            @Override
+            public String call() {
+                return HttpMethod.useGetMethod(url, params, cookies, trytimes);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Adds a post request.
+     *
+     * @param url       the url
+     * @param params    the params
+     * @param useCookie the use cookie, the cookies of the calling thread's driver, read once per batch
+     * @param trytimes  the trytimes
+     * @return the http batch
+     */
+    public HttpBatch usePostMethod(final String url, final List<Param> params, boolean useCookie, final int trytimes) {
+        final Set<Cookie> cookies = useCookie ? getDriverCookies() : null;
+        requests.add(new Callable<String>() {
+            @Override
+            public String call() {
+                return HttpMethod.usePostMethod(url, params, cookies, trytimes);
+            }
+        });
+        return this;
+    }
+
+    private Set<Cookie> getDriverCookies() {
+        if (driverCookies == null) {
+            driverCookies = HttpMethod.getDriverCookies();
+        }
+        return driverCookies;
+    }
+
+    /**
+     * Starts the requests without waiting for them.
+     *
+     * @return the futures in the order the requests were added
+     */
+    public List<Future<String>> submit() {
+        List<Future<String>> futures = new ArrayList<Future<String>>(requests.size());
+        final Queue<FutureTask<String>> pending = new ConcurrentLinkedQueue<FutureTask<String>>();
+        for (Callable<String> request : requests) {
+            FutureTask<String> future = new FutureTask<String>(request);
+            futures.add(future);
+            pending.add(future);
+        }
+        // 每个 worker 依次执行队列中的请求, worker 的个数即并发上限
+        int workers = Math.min(concurrency, pending.size());
+        for (int i = 0; i < workers; i++) {
+            HttpMethod.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    FutureTask<String> future;
+                    while ((future = pending.poll()) != null) {
+                        future.run();
+                    }
+                }
+            });
+        }
+        return futures;
+    }
+
+    /**
+     * Executes the requests and waits for all of them.
+     *
+     * @return the responses in the order the requests were added, null for a failed request
+     */
+    public List<String> execute() {
+        List<String> results = new ArrayList<String>(requests.size());
+        for (Future<String> future : submit()) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(null);
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage(), e.getCause());
+                results.add(null);
+            }
+        }
+        return results;
+    }
+}
@@ -4,25 +4,27 @@ package com.qa.framework.library.httpclient;
 import com.qa.framework.cache.DriverCache;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.http.HttpEntity;
+import org.apache.http.ParseException;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.BasicCookieStore;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.cookie.BasicClientCookie;
-import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.Cookie;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.Set;
 
 /**
  * Created by apple on 15/11/20.
  */
 public class HttpConnectionImp {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
     private final Logger logger = Logger
             .getLogger(this.getClass());
     private HttpRequestBase baseRequest;
@@ -44,67 +46,92 @@ public class HttpConnectionImp {
      * @return the response result
      */
     public String getResponseResult(boolean storeCookie, boolean useCookie) {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         HttpClientContext clientContext = HttpClientContext.create();
+        // client 在线程间共享, 每个请求使用自己的 cookie store
         if (useCookie) {
             CookieCache.clear();
-            Set<Cookie> driverCookies = DriverCache.get().manage().getCookies();
-            org.apache.http.client.CookieStore cookieStore = new BasicCookieStore();
-            for (Cookie cookie : driverCookies) {
-                BasicClientCookie basicCookie = new BasicClientCookie(cookie.getName(), cookie.getValue());
-                basicCookie.setDomain(cookie.getDomain());
-                basicCookie.setPath(cookie.getPath());
-                basicCookie.setExpiryDate(cookie.getExpiry());
-                cookieStore.addCookie(basicCookie);
-            }
-            String hostName = baseRequest.getURI().getHost();
-            for (Cookie cookie : driverCookies) {
-                if (!cookie.getDomain().equalsIgnoreCase(hostName)) {
-                    BasicClientCookie basicCookie = new BasicClientCookie(cookie.getName(), cookie.getValue());
-                    basicCookie.setDomain(hostName);
-                    basicCookie.setPath(cookie.getPath());
-                    basicCookie.setExpiryDate(cookie.getExpiry());
-                    cookieStore.addCookie(basicCookie);
-                }
-            }
+            CookieStore cookieStore = getCookieStore(DriverCache.get().manage().getCookies());
             CookieCache.set(cookieStore);
             clientContext.setCookieStore(cookieStore);
+        } else {
+            clientContext.setCookieStore(new BasicCookieStore());
         }
-        String responseBody = null;
-        try {
-            CloseableHttpResponse httpResponse = httpClient.execute(baseRequest, clientContext);
-            int status = httpResponse.getStatusLine().getStatusCode();
-            if (storeCookie) {
-                CookieStore cookieStore = clientContext.getCookieStore();
-                CookieCache.set(cookieStore);
-            }
-            if (status >= 200 && status < 300) {
-                //logger.info("expected response status");
+        return execute(clientContext, storeCookie);
+    }
+
+    /**
+     * Gets response result with the driver cookies read beforehand by the calling thread. Used by the async
+     * requests: the driver is not accessed and CookieCache is not changed.
+     *
+     * @param driverCookies the driver cookies, null to send no cookie
+     * @return the response result
+     */
+    String getResponseResult(Set<Cookie> driverCookies) {
+        HttpClientContext clientContext = HttpClientContext.create();
+        clientContext.setCookieStore(driverCookies != null ? getCookieStore(driverCookies) : new BasicCookieStore());
+        return execute(clientContext, false);
+    }
 
-            } else {
-                //logger.info("unexpected response status");
+    private String execute(HttpClientContext clientContext, boolean storeCookie) {
+        // 关闭 response 时连接归还连接池
+        try (CloseableHttpResponse httpResponse = PooledHttpClient.get().execute(baseRequest, clientContext)) {
+            if (storeCookie) {
+                CookieCache.set(clientContext.getCookieStore());
             }
             HttpEntity entity = httpResponse.getEntity();
-            responseBody = entity != null ? EntityUtils.toString(entity) : null;
-            if (responseBody != null) {
-                //统一处理为utf-8
-                responseBody = new String(responseBody.getBytes("UTF-8"), "UTF-8");
-            }
+            return entity != null ? readBody(entity) : null;
         } catch (IOException e) {
             logger.error(e);
             return null;
-        } finally {
-            try {
-                httpClient.close();
-            } catch (IOException e) {
-                //logger.error(e.getMessage());
+        }
+    }
+
+    private CookieStore getCookieStore(Set<Cookie> driverCookies) {
+        CookieStore cookieStore = new BasicCookieStore();
+        for (Cookie cookie : driverCookies) {
+            BasicClientCookie basicCookie = new BasicClientCookie(cookie.getName(), cookie.getValue());
+            basicCookie.setDomain(cookie.getDomain());
+            basicCookie.setPath(cookie.getPath());
+            basicCookie.setExpiryDate(cookie.getExpiry());
+            cookieStore.addCookie(basicCookie);
+        }
+        String hostName = baseRequest.getURI().getHost();
+        for (Cookie cookie : driverCookies) {
+            if (!cookie.getDomain().equalsIgnoreCase(hostName)) {
+                BasicClientCookie basicCookie = new BasicClientCookie(cookie.getName(), cookie.getValue());
+                basicCookie.setDomain(hostName);
+                basicCookie.setPath(cookie.getPath());
+                basicCookie.setExpiryDate(cookie.getExpiry());
+                cookieStore.addCookie(basicCookie);
             }
         }
-        if (responseBody != null) {
-            return removeBOM(responseBody);
-        } else {
-            return null;
+        return cookieStore;
+    }
+
+    /**
+     * 从响应流中逐行读取, 去掉 BOM 与换行, 未指定编码时统一按 utf-8 处理
+     */
+    private String readBody(HttpEntity entity) throws IOException {
+        Charset charset = null;
+        try {
+            ContentType contentType = ContentType.get(entity);
+            if (contentType != null) {
+                charset = contentType.getCharset();
+            }
+        } catch (ParseException | UnsupportedCharsetException e) {
+            logger.debug(e.getMessage());
+        }
+        if (charset == null) {
+            charset = UTF8;
+        }
+        StringBuilder lines = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new BOMInputStream(entity.getContent()), charset))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.append(line);
+            }
         }
+        return lines.toString();
     }
 
     /**
@@ -2,18 +2,31 @@ package com.qa.framework.library.httpclient;
 
 
 import com.library.common.SocketHelper;
+import com.qa.framework.cache.DriverCache;
 import com.qa.framework.config.PropConfig;
 import org.apache.http.HttpHost;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.log4j.Logger;
+import org.openqa.selenium.Cookie;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpMethod {
     /**
@@ -23,6 +36,11 @@ public class HttpMethod {
     private static String localhost;
     private static Integer localport;
     private static Integer timeout;
+    private static final int RETRY_BASE_DELAY = 500;
+    private static final int RETRY_MAX_DELAY = 4000;
+    private static final long PROXY_CHECK_INTERVAL = 10000;
+    private static volatile boolean proxyListening;
+    private static volatile long proxyCheckedAt;
 
     static {
         localhost = PropConfig.getLocalhost();
@@ -107,36 +125,28 @@ public class HttpMethod {
      * @return the string
      */
     public static String useGetMethod(String url, List<Param> params, boolean storeCookie, boolean useCookie, int trytimes) {
+        return execute(newGet(url, params), storeCookie, useCookie, trytimes);
+    }
+
+    /**
+     * get 请求, 使用调用线程事先读取的 driver cookie, 不访问 driver, 用于后台线程
+     *
+     * @param url           the url
+     * @param params        the params
+     * @param driverCookies the driver cookies, null to send no cookie
+     * @param trytimes      the trytimes
+     * @return the string
+     */
+    static String useGetMethod(String url, List<Param> params, Set<Cookie> driverCookies, int trytimes) {
+        return execute(newGet(url, params), driverCookies, trytimes);
+    }
+
+    private static HttpGet newGet(String url, List<Param> params) {
         String uri = getUrl(url, params);
         logger.info("拼接后的web地址为:" + uri);
         HttpGet get = new HttpGet(uri);
-        if (SocketHelper.serverListening(localhost, localport)) {
-            HttpHost proxy = new HttpHost(localhost, localport, "http");
-            RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).setProxy(proxy).build();
-            get.setConfig(requestConfig);
-        } else {
-            RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).build();
-            get.setConfig(requestConfig);
-        }
-        HttpConnectionImp imp = new HttpConnectionImp(get);
-        String returnResult = imp.getResponseResult(storeCookie, useCookie);
-        if (returnResult != null) {
-            logger.info("actual result:" + returnResult);
-            return returnResult;
-        } else {
-            int count = 0;
-            while (count < trytimes && returnResult == null) {
-                returnResult = imp.getResponseResult(storeCookie, useCookie);
-                count++;
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
-                }
-            }
-        }
-        logger.info("actual result:" + returnResult);
-        return returnResult;
+        get.setConfig(getRequestConfig());
+        return get;
     }
 
     /**
@@ -148,33 +158,8 @@ public class HttpMethod {
      */
     public static String get(String url, int trytimes) {
         HttpGet get = new HttpGet(url);
-        if (SocketHelper.serverListening(localhost, localport)) {
-            HttpHost proxy = new HttpHost(localhost, localport, "http");
-            RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).setProxy(proxy).build();
-            get.setConfig(requestConfig);
-        } else {
-            RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).build();
-            get.setConfig(requestConfig);
-        }
-        HttpConnectionImp imp = new HttpConnectionImp(get);
-        String returnResult = imp.getResponseResult(false, false);
-        if (returnResult != null) {
-            logger.info("actual result:" + returnResult);
-            return returnResult;
-        } else {
-            int count = 0;
-            while (count < trytimes && returnResult == null) {
-                returnResult = imp.getResponseResult(false, false);
-                count++;
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
-                }
-            }
-        }
-        logger.info("actual result:" + returnResult);
-        return returnResult;
+        get.setConfig(getRequestConfig());
+        return execute(get, false, false, trytimes);
     }
 
     /**
@@ -187,17 +172,27 @@ public class HttpMethod {
      * @return the string
      */
     public static String usePostMethod(String url, List<Param> params, boolean storeCookie, boolean useCookie, int trytimes) {
+        return execute(newPost(url, params), storeCookie, useCookie, trytimes);
+    }
+
+    /**
+     * post 请求, 使用调用线程事先读取的 driver cookie, 不访问 driver, 用于后台线程
+     *
+     * @param url           the url
+     * @param params        the params
+     * @param driverCookies the driver cookies, null to send no cookie
+     * @param trytimes      the trytimes
+     * @return the string
+     */
+    static String usePostMethod(String url, List<Param> params, Set<Cookie> driverCookies, int trytimes) {
+        return execute(newPost(url, params), driverCookies, trytimes);
+    }
+
+    private static HttpPost newPost(String url, List<Param> params) {
         String uri = postUrl(url);
         logger.info("拼接后的web地址为:" + uri);
         HttpPost httpPost = new HttpPost(uri);
-        RequestConfig requestConfig = null;
-        if (SocketHelper.serverListening(localhost, localport)) {
-            HttpHost proxy = new HttpHost(localhost, localport, "http");
-            requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).setProxy(proxy).build();
-        } else {
-            requestConfig = RequestConfig.custom().setSocketTimeout(timeout).setConnectTimeout(timeout).build();
-        }
-        httpPost.setConfig(requestConfig);
+        httpPost.setConfig(getRequestConfig());
         List<BasicNameValuePair> basicNameValuePairs = new ArrayList<BasicNameValuePair>();
         if (params != null) {
             for (Param param : params) {
@@ -210,28 +205,167 @@ public class HttpMethod {
         } catch (UnsupportedEncodingException e) {
             logger.error(e.getMessage(), e);
         }
-        HttpConnectionImp imp = new HttpConnectionImp(httpPost);
-        String returnResult = imp.getResponseResult(storeCookie, useCookie);
-        if (returnResult != null) {
-            logger.info("actual result:" + returnResult);
-            return returnResult;
-        } else {
-            int count = 0;
-            while (count < trytimes && returnResult == null) {
-                returnResult = imp.getResponseResult(false, false);
-                count++;
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
-                }
+        return httpPost;
+    }
+
+    public static String usePostMethod(String url, List<Param> params, boolean storeCookie, boolean useCookie) {
+        return usePostMethod(url, params, storeCookie, useCookie, 0);
+    }
+
+    /**
+     * 异步 get 请求, 在后台线程中执行. 后台线程的 cookie 不会保存到调用线程的 CookieCache
+     *
+     * @param url       the url
+     * @param params    the params
+     * @param useCookie the use cookie, the cookies of the calling thread's driver, read before the request is submitted
+     * @param trytimes  the trytimes
+     * @return the future of the response
+     */
+    public static Future<String> useGetMethodAsync(final String url, final List<Param> params, boolean useCookie, final int trytimes) {
+        final Set<Cookie> driverCookies = useCookie ? getDriverCookies() : null;
+        return submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return useGetMethod(url, params, driverCookies, trytimes);
+            }
+        });
+    }
+
+    /**
+     * 异步 post 请求, 在后台线程中执行. 后台线程的 cookie 不会保存到调用线程的 CookieCache
+     *
+     * @param url       the url
+     * @param params    the params
+     * @param useCookie the use cookie, the cookies of the calling thread's driver, read before the request is submitted
+     * @param trytimes  the trytimes
+     * @return the future of the response
+     */
+    public static Future<String> usePostMethodAsync(final String url, final List<Param> params, boolean useCookie, final int trytimes) {
+        final Set<Cookie> driverCookies = useCookie ? getDriverCookies() : null;
+        return submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return usePostMethod(url, params, driverCookies, trytimes);
             }
+        });
+    }
+
+    /**
+     * 异步 get 请求, 在后台线程中执行
+     *
+     * @param url      the url
+     * @param trytimes the trytimes
+     * @return the future of the response
+     */
+    public static Future<String> getAsync(final String url, final int trytimes) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return get(url, trytimes);
+            }
+        });
+    }
+
+    private static Future<String> submit(Callable<String> request) {
+        FutureTask<String> future = new FutureTask<String>(request);
+        runAsync(future);
+        return future;
+    }
+
+    /**
+     * Reads the cookies of the current thread's driver. The async requests read them on the calling thread before
+     * submitting, the driver must not be used from the background threads (desktop drivers are wrapped by ThreadGuard).
+     *
+     * @return the cookies
+     */
+    static Set<Cookie> getDriverCookies() {
+        return new HashSet<Cookie>(DriverCache.get().manage().getCookies());
+    }
+
+    /**
+     * 在后台线程中执行, 后台线程不能访问调用线程的 driver
+     *
+     * @param task the task
+     */
+    static void runAsync(Runnable task) {
+        AsyncExecutor.executor.execute(task);
+    }
+
+    /**
+     * Gets the number of threads running the async requests.
+     *
+     * @return the thread count
+     */
+    static int getAsyncThreads() {
+        return Math.max(1, PropConfig.getHttpAsyncThreads());
+    }
+
+    /**
+     * 本地代理(如 fiddler)是否在监听, 每 10 秒检查一次, 不再每个请求都建立一次 socket 连接
+     */
+    private static RequestConfig getRequestConfig() {
+        long now = System.currentTimeMillis();
+        if (now - proxyCheckedAt > PROXY_CHECK_INTERVAL) {
+            proxyListening = SocketHelper.serverListening(localhost, localport);
+            proxyCheckedAt = now;
+        }
+        RequestConfig.Builder builder = RequestConfig.custom()
+                .setSocketTimeout(timeout)
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout);
+        if (proxyListening) {
+            builder.setProxy(new HttpHost(localhost, localport, "http"));
+        }
+        return builder.build();
+    }
+
+    private static String execute(HttpRequestBase request, boolean storeCookie, boolean useCookie, int trytimes) {
+        HttpConnectionImp imp = new HttpConnectionImp(request);
+        String returnResult = imp.getResponseResult(storeCookie, useCookie);
+        for (int count = 0; returnResult == null && count < trytimes; count++) {
+            backoff(count);
+            returnResult = imp.getResponseResult(storeCookie, useCookie);
         }
         logger.info("actual result:" + returnResult);
         return returnResult;
     }
 
-    public static String usePostMethod(String url, List<Param> params, boolean storeCookie, boolean useCookie) {
-        return usePostMethod(url, params, storeCookie, useCookie, 0);
+    private static String execute(HttpRequestBase request, Set<Cookie> driverCookies, int trytimes) {
+        HttpConnectionImp imp = new HttpConnectionImp(request);
+        String returnResult = imp.getResponseResult(driverCookies);
+        for (int count = 0; returnResult == null && count < trytimes; count++) {
+            backoff(count);
+            returnResult = imp.getResponseResult(driverCookies);
+        }
+        logger.info("actual result:" + returnResult);
+        return returnResult;
+    }
+
+    /**
+     * 指数退避并加随机抖动, 避免多个线程同时重试
+     */
+    private static void backoff(int attempt) {
+        int delay = Math.min(RETRY_MAX_DELAY, RETRY_BASE_DELAY << Math.min(attempt, 16));
+        try {
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextInt(delay / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 异步请求的线程池, 第一次使用时创建, 线程数由 httpAsyncThreads 配置
+     */
+    private static class AsyncExecutor {
+        private static final ExecutorService executor = Executors.newFixedThreadPool(getAsyncThreads(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "http-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 }
@@ -0,0 +1,62 @@
+package com.qa.framework.library.httpclient;
+
+import com.qa.framework.config.PropConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 所有请求共用的 http client, 连接按路由复用(keep-alive), 空闲连接由后台线程关闭.
+ * 连接数由 config.properties 中的 httpMaxTotal, httpMaxPerRoute 配置, 空闲超时为 httpIdleTimeout 毫秒.
+ * cookie 不在 client 中共享, 每个请求使用自己的 cookie store.
+ */
+public class PooledHttpClient {
+    private static final Logger logger = Logger.getLogger(PooledHttpClient.class);
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+    private static final PoolingHttpClientConnectionManager connectionManager;
+    private static final CloseableHttpClient httpClient;
+
+    static {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(PropConfig.getHttpMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(PropConfig.getHttpMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(PropConfig.getHttpIdleTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+        Runtime.getRuntime().addShutdownHook(new Thread("http-client-shutdown") {
+            @Override
+            public void run() {
+                try {
+                    httpClient.close();
+                } catch (IOException e) {
+                    logger.debug(e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the shared client, it must not be closed by the caller.
+     *
+     * @return the closeable http client
+     */
+    public static CloseableHttpClient get() {
+        return httpClient;
+    }
+
+    /**
+     * Gets the pool stats, e.g. [leased: 2; pending: 0; available: 8; max: 200].
+     *
+     * @return the stats
+     */
+    public static String getStats() {
+        return connectionManager.getTotalStats().toString();
+    }
+}
@@ -0,0 +1,282 @@
+package com.qa.framework.library.image.compare;
+
+import com.qa.framework.config.PropConfig;
+import org.apache.log4j.Logger;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 基准图片缓存: 每张基准图片只解码一次, 解码后的像素按最近使用的顺序保存在内存中,
+ * 总大小超过 imageBaselineCacheSize(MB) 时丢弃最久未使用的图片; 图片文件修改后重新解码.
+ * config.properties 中 imageRawBaseline=true 时, 解码后的 ARGB 像素保存在基准图片旁边(.文件名.argb),
+ * 下次运行时通过内存映射直接读取, 不再解码 PNG/JPEG.
+ */
+public class BaselineStore {
+    private final static Logger logger = Logger.getLogger(BaselineStore.class);
+    private static final int RAW_MAGIC = 0x41524742;
+    private static final int RAW_VERSION = 1;
+    private static final int RAW_HEADER_SIZE = 32;
+    // 按访问顺序排列, 所有访问都要同步
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private static long cachedBytes = 0;
+
+    /**
+     * Gets the decoded baseline image.
+     *
+     * @param file the baseline image file
+     * @return the baseline
+     * @throws IOException if the image cannot be read
+     */
+    public static Baseline get(File file) throws IOException {
+        final File imageFile = file.getAbsoluteFile();
+        if (!imageFile.isFile()) {
+            throw new IOException(file + " does not exist");
+        }
+        final long lastModified = imageFile.lastModified();
+        final long length = imageFile.length();
+        String key = imageFile.getPath();
+        Entry entry;
+        boolean loader = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+                remove(key);
+                entry = new Entry(lastModified, length, new FutureTask<Baseline>(new Callable<Baseline>() {
+                    @Override
+                    public Baseline call() throws IOException {
+                        return load(imageFile, lastModified, length);
+                    }
+                }));
+                entries.put(key, entry);
+                loader = true;
+            }
+        }
+        if (loader) {
+            entry.baseline.run();
+        }
+        Baseline baseline;
+        try {
+            baseline = entry.baseline.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            // 下次重新解码
+            synchronized (entries) {
+                if (entries.get(key) == entry) {
+                    remove(key);
+                }
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("read " + file + " failure", e.getCause());
+        }
+        if (loader) {
+            synchronized (entries) {
+                if (entries.get(key) == entry) {
+                    entry.bytes = (long) baseline.pixels.length * 4;
+                    cachedBytes += entry.bytes;
+                    evict();
+                }
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Remove all the cached baselines.
+     */
+    public static void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    private static void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            cachedBytes -= entry.bytes;
+        }
+    }
+
+    private static void evict() {
+        long maxBytes = PropConfig.getImageBaselineCacheSize() * 1024L * 1024L;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // 还在解码的图片没有计入大小
+            if (entry.bytes > 0) {
+                cachedBytes -= entry.bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Baseline load(File file, long lastModified, long length) throws IOException {
+        File raw = new File(file.getParentFile(), "." + file.getName() + ".argb");
+        if (PropConfig.isImageRawBaseline() && raw.isFile()) {
+            try {
+                Baseline baseline = readRaw(raw, lastModified, length);
+                if (baseline != null) {
+                    return baseline;
+                }
+            } catch (IOException e) {
+                logger.warn("read " + raw + " failure: " + e.getMessage());
+            }
+        }
+        long start = System.currentTimeMillis();
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("unsupported image format: " + file);
+        }
+        Baseline baseline = new Baseline(image.getWidth(), image.getHeight(), PixelDiff.getPixels(image));
+        logger.debug("decode " + file.getName() + " in " + (System.currentTimeMillis() - start) + " ms");
+        if (PropConfig.isImageRawBaseline()) {
+            try {
+                writeRaw(raw, baseline, lastModified, length);
+            } catch (IOException e) {
+                logger.warn("write " + raw + " failure: " + e.getMessage());
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * 原始格式: magic, version, 图片修改时间和大小, 宽, 高, 每个像素的 ARGB 值, 均为 little endian
+     */
+    private static void writeRaw(File raw, Baseline baseline, long lastModified, long length) throws IOException {
+        File temp = new File(raw.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(RAW_MAGIC).putInt(RAW_VERSION).putLong(lastModified).putLong(length)
+                    .putInt(baseline.width).putInt(baseline.height);
+            for (int pixel : baseline.pixels) {
+                if (buffer.remaining() < 4) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putInt(pixel);
+            }
+            writeFully(channel, buffer);
+        }
+        Files.move(temp.toPath(), raw.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static Baseline readRaw(File raw, long lastModified, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(raw.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < RAW_HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != RAW_MAGIC || buffer.getInt() != RAW_VERSION
+                    || buffer.getLong() != lastModified || buffer.getLong() != length) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width <= 0 || height <= 0 || size != RAW_HEADER_SIZE + (long) width * height * 4) {
+                return null;
+            }
+            int[] pixels = new int[width * height];
+            buffer.asIntBuffer().get(pixels);
+            return new Baseline(width, height, pixels);
+        }
+    }
+
+    /**
+     * A decoded baseline image, shared between the threads.
+     */
+    public static class Baseline {
+        private final int width;
+        private final int height;
+        private final int[] pixels;
+        private volatile boolean hashed = false;
+        private long dHash;
+
+        private Baseline(int width, int height, int[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+
+        /**
+         * Gets the width.
+         *
+         * @return the width
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Gets the height.
+         *
+         * @return the height
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Gets the ARGB pixels row by row, the array is shared and must not be modified.
+         *
+         * @return the pixels
+         */
+        public int[] getPixels() {
+            return pixels;
+        }
+
+        /**
+         * Gets the difference hash, calculated on the first call.
+         *
+         * @return the hash
+         */
+        public long getDHash() {
+            if (!hashed) {
+                dHash = PixelDiff.dHash(pixels, width, height);
+                hashed = true;
+            }
+            return dHash;
+        }
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final long length;
+        private final FutureTask<Baseline> baseline;
+        private long bytes = 0;
+
+        private Entry(long lastModified, long length, FutureTask<Baseline> baseline) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.baseline = baseline;
+        }
+    }
+}
@@ -5,13 +5,17 @@ import com.qa.framework.config.PropConfig;
 import org.apache.log4j.Logger;
 
 import javax.imageio.ImageIO;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * ImageCompare changes image from RGB to LAB and make comparison
+ * ImageCompare changes image from RGB to LAB and make comparison.
+ * 相同的图片直接返回, 不同时只在变化的 tile 中计算色差, 差异图只包含变化的区域
  */
 @SuppressWarnings("restriction")
 public class ImageCompare {
@@ -76,7 +80,54 @@ public class ImageCompare {
     }
 
     /**
-     * compare images
+     * Calculate the color difference of two RGB colors without creating the color objects,
+     * the same as getDelta(xyz2lab(rgb2xyz(rgb1)), xyz2lab(rgb2xyz(rgb2)))
+     *
+     * @param rgb1 the rgb 1
+     * @param rgb2 the rgb 2
+     * @return totalColorDifference delta
+     */
+    public static double getDelta(int rgb1, int rgb2) {
+        return PixelDiff.deltaE(rgb1, rgb2);
+    }
+
+    /**
+     * The difference hash of the image, similar images have hashes with a small hamming distance.
+     *
+     * @param image the image
+     * @return the hash
+     */
+    public static long dHash(BufferedImage image) {
+        return PixelDiff.dHash(PixelDiff.getPixels(image), image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Parse the regions in the format of x,y,width,height;x,y,width,height
+     *
+     * @param regions the regions
+     * @return the rectangles
+     */
+    public static List<Rectangle> parseRegions(String regions) {
+        List<Rectangle> rectangles = new ArrayList<Rectangle>();
+        if (regions == null) {
+            return rectangles;
+        }
+        for (String region : regions.split(";")) {
+            if (region.trim().isEmpty()) {
+                continue;
+            }
+            String[] values = region.split(",");
+            if (values.length != 4) {
+                throw new IllegalArgumentException("invalid region: " + region + ", expected x,y,width,height");
+            }
+            rectangles.add(new Rectangle(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()),
+                    Integer.parseInt(values[2].trim()), Integer.parseInt(values[3].trim())));
+        }
+        return rectangles;
+    }
+
+    /**
+     * compare images, ignoring the regions of imageIgnoreRegions in config.properties
      *
      * @param benchmarkImageName the benchmark image name
      * @param actualImageName    the actual image name
@@ -84,41 +135,70 @@ public class ImageCompare {
      * @throws Exception the exception
      */
     public static boolean compareImages(String benchmarkImageName, String actualImageName) throws Exception {
+        return compareImages(benchmarkImageName, actualImageName, parseRegions(PropConfig.getImageIgnoreRegions()));
+    }
+
+    /**
+     * compare images. Identical images are matched without the color difference being calculated,
+     * otherwise only the changed 32x32 tiles are compared, and the difference image only covers the changed regions.
+     *
+     * @param benchmarkImageName the benchmark image name
+     * @param actualImageName    the actual image name
+     * @param ignoreRegions      the regions to ignore, e.g. the clock or an animation
+     * @return the boolean
+     * @throws Exception the exception
+     */
+    public static boolean compareImages(String benchmarkImageName, String actualImageName,
+                                        List<Rectangle> ignoreRegions) throws Exception {
         boolean isMatched = true;
-        BufferedImage benchmark = null, actual = null, difference = null;
+        BaselineStore.Baseline benchmark = null;
+        BufferedImage actual = null;
         try {
-            benchmark = ImageIO.read(new File(PropConfig.getBenchmarkImagePath() + File.separator + benchmarkImageName));
+            benchmark = BaselineStore.get(new File(PropConfig.getBenchmarkImagePath() + File.separator + benchmarkImageName));
             actual = ImageIO.read(new File(PropConfig.getActualImagePath() + File.separator + actualImageName));
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
         }
         if (benchmark != null) {
-            Integer width = benchmark.getWidth();
-            Integer height = benchmark.getHeight();
-            difference = new BufferedImage(benchmark.getWidth(), benchmark.getHeight(), BufferedImage.TYPE_INT_RGB);
-            for (int y = 0; y < height; ++y) {
-                for (int x = 0; x < width; ++x) {
-                    int expRGB = benchmark.getRGB(x, y);
-                    int actRGB = actual.getRGB(x, y);
-                    int newRGB = actRGB;
-                    if (expRGB != actRGB) {
-                        double deltaE = getDelta(xyz2lab(rgb2xyz(expRGB)), xyz2lab(rgb2xyz(actRGB)));
-                        if (deltaE > PropConfig.getMaxColorThreshold()) {
-                            newRGB = 0xff0000;// set red in difference place
-                        }
-                        isMatched = false;
-                    }
-                    difference.setRGB(x, y, newRGB);
+            int width = benchmark.getWidth();
+            int height = benchmark.getHeight();
+            if (actual == null || actual.getWidth() != width || actual.getHeight() != height) {
+                logger.error("the size of " + actualImageName + " is different from " + benchmarkImageName);
+                return false;
+            }
+            int[] benchmarkPixels = benchmark.getPixels();
+            int[] actualPixels = PixelDiff.getPixels(actual);
+            int hashTolerance = PropConfig.getImageHashTolerance();
+            if (hashTolerance >= 0) {
+                int distance = Long.bitCount(benchmark.getDHash() ^ PixelDiff.dHash(actualPixels, width, height));
+                if (distance <= hashTolerance) {
+                    logger.debug(actualImageName + ": dHash distance " + distance + ", matched");
+                    return true;
                 }
             }
-            FileOutputStream out = null;
+            PixelDiff.Result result = PixelDiff.diff(benchmarkPixels, actualPixels, width, height,
+                    ignoreRegions, PropConfig.getMaxColorThreshold(), PropConfig.getImageDiffBudget());
+            isMatched = result.getDifferentPixels() == 0;
             if (!isMatched) {
+                List<Rectangle> regions = result.getChangedRegions();
+                Rectangle bounds = new Rectangle(regions.get(0));
+                StringBuilder changed = new StringBuilder();
+                for (Rectangle region : regions) {
+                    bounds.add(region);
+                    changed.append(" [").append(region.x).append(',').append(region.y).append(',')
+                            .append(region.width).append(',').append(region.height).append(']');
+                }
+                logger.info(actualImageName + ": " + result.getDifferentPixels() + " pixels different, "
+                        + result.getOverThresholdPixels() + " over the color threshold"
+                        + (result.isStopped() ? ", stopped after the diff budget was exceeded" : "")
+                        + ", changed regions:" + changed);
+                FileOutputStream out = null;
                 try {
                     String baseName = IOHelper.getBaseName(actualImageName);
                     String diffImagePath = PropConfig.getDiffImagePath();
                     IOHelper.createNestDirectory(diffImagePath);
                     out = new FileOutputStream(diffImagePath + File.separator + baseName + ".png");
-                    ImageIO.write(difference, "png", out);
+                    ImageIO.write(PixelDiff.drawDifference(actualPixels, result, bounds), "png", out);
                 } catch (IOException e) {
                     logger.error(e.getMessage(), e);
                 } finally {
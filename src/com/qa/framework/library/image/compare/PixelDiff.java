@@ -0,0 +1,470 @@
+package com.qa.framework.library.image.compare;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 像素比较引擎: 直接读取图片的 int 像素数组, 完全相同时直接返回; 否则按 32x32 的 tile 比较,
+ * 只在不相同的 tile 中计算色差, 被 mask 遮盖的区域不比较. tile 按行分块在 ForkJoin 线程池中并行比较,
+ * 色差用基本类型计算, 不为每个像素创建对象. 超过阈值的像素个数超过 budget 时停止比较.
+ */
+class PixelDiff {
+    /**
+     * The color of the pixels whose color difference is over the threshold
+     */
+    static final int DIFF_COLOR = 0xff0000;
+    private static final int MIN_PIXELS_PER_TASK = 64 * 1024;
+    private static final int TILE_SIZE = 32;
+
+    /**
+     * Gets the pixels of the image as ARGB values, without copying when the image is backed by an int array.
+     *
+     * @param image the image
+     * @return the pixels, row by row
+     */
+    static int[] getPixels(BufferedImage image) {
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) && isPacked(image)) {
+            int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            if (type == BufferedImage.TYPE_INT_ARGB) {
+                return data;
+            }
+            // 与 getRGB 一样, 不透明的图片 alpha 为 ff
+            int[] pixels = new int[data.length];
+            for (int i = 0; i < data.length; i++) {
+                pixels[i] = data[i] | 0xff000000;
+            }
+            return pixels;
+        }
+        BufferedImage argb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = argb.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return ((DataBufferInt) argb.getRaster().getDataBuffer()).getData();
+    }
+
+    private static boolean isPacked(BufferedImage image) {
+        // 子图片的像素数组有偏移或更长的行, 不能直接使用
+        return image.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel
+                && ((SinglePixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride() == image.getWidth()
+                && image.getRaster().getDataBuffer().getOffset() == 0
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0
+                && ((DataBufferInt) image.getRaster().getDataBuffer()).getData().length == image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Compare the pixels tile by tile, the color difference is only calculated in the tiles that are not equal.
+     *
+     * @param expected  the expected pixels
+     * @param actual    the actual pixels
+     * @param width     the width
+     * @param height    the height
+     * @param masks     the regions to ignore, may be empty
+     * @param threshold the max color difference
+     * @param budget    stop after more than budget pixels are over the threshold, negative for no limit
+     * @return the result
+     */
+    static Result diff(int[] expected, int[] actual, int width, int height, List<Rectangle> masks,
+                       double threshold, int budget) {
+        Result result = new Result(width, height, budget);
+        if (masks.isEmpty() && Arrays.equals(expected, actual)) {
+            return result;
+        }
+        Task task = new Task(expected, actual, masks, 0, result.tileRows, threshold, result);
+        if ((long) width * height <= MIN_PIXELS_PER_TASK) {
+            task.compute();
+        } else {
+            Pool.pool.invoke(task);
+        }
+        return result;
+    }
+
+    /**
+     * The difference hash of the image: the image is reduced to 9x8 gray cells,
+     * each bit tells if a cell is brighter than its right neighbour.
+     *
+     * @param pixels the pixels
+     * @param width  the width
+     * @param height the height
+     * @return the hash
+     */
+    static long dHash(int[] pixels, int width, int height) {
+        double[] cells = new double[9 * 8];
+        for (int cy = 0; cy < 8; cy++) {
+            int y0 = cy * height / 8;
+            int y1 = Math.max(y0 + 1, (cy + 1) * height / 8);
+            for (int cx = 0; cx < 9; cx++) {
+                int x0 = cx * width / 9;
+                int x1 = Math.max(x0 + 1, (cx + 1) * width / 9);
+                long sum = 0;
+                for (int y = y0; y < y1 && y < height; y++) {
+                    for (int x = x0; x < x1 && x < width; x++) {
+                        int rgb = pixels[y * width + x];
+                        sum += ((rgb >> 16) & 0xff) * 299 + ((rgb >> 8) & 0xff) * 587 + (rgb & 0xff) * 114;
+                    }
+                }
+                cells[cy * 9 + cx] = (double) sum / ((y1 - y0) * (x1 - x0));
+            }
+        }
+        long hash = 0;
+        for (int cy = 0; cy < 8; cy++) {
+            for (int cx = 0; cx < 8; cx++) {
+                hash <<= 1;
+                if (cells[cy * 9 + cx] > cells[cy * 9 + cx + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Draw the difference of the region: the actual pixels, DIFF_COLOR where the color difference is over the threshold.
+     *
+     * @param actual the actual pixels
+     * @param result the result of diff
+     * @param region the region
+     * @return the difference image
+     */
+    static BufferedImage drawDifference(int[] actual, Result result, Rectangle region) {
+        BufferedImage difference = new BufferedImage(region.width, region.height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) difference.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < region.height; y++) {
+            System.arraycopy(actual, (region.y + y) * result.width + region.x, pixels, y * region.width, region.width);
+        }
+        for (int tile = 0; tile < result.overThreshold.length; tile++) {
+            long[] bits = result.overThreshold[tile];
+            if (bits == null) {
+                continue;
+            }
+            int tileX = (tile % result.tileColumns) * TILE_SIZE;
+            int tileY = (tile / result.tileColumns) * TILE_SIZE;
+            for (int bit = bits.length * 64 - 1; bit >= 0; bit--) {
+                if ((bits[bit >> 6] & (1L << bit)) == 0) {
+                    continue;
+                }
+                int x = tileX + bit % TILE_SIZE - region.x;
+                int y = tileY + bit / TILE_SIZE - region.y;
+                if (x >= 0 && y >= 0 && x < region.width && y < region.height) {
+                    pixels[y * region.width + x] = DIFF_COLOR;
+                }
+            }
+        }
+        return difference;
+    }
+
+    /**
+     * The color difference (delta E) of two RGB colors, the same as
+     * getDelta(xyz2lab(rgb2xyz(rgb1)), xyz2lab(rgb2xyz(rgb2))).
+     *
+     * @param rgb1 the rgb 1
+     * @param rgb2 the rgb 2
+     * @return the delta
+     */
+    static double deltaE(int rgb1, int rgb2) {
+        double[] lab1 = new double[3];
+        double[] lab2 = new double[3];
+        toLab(rgb1, lab1);
+        toLab(rgb2, lab2);
+        return distance(lab1, lab2);
+    }
+
+    private static void toLab(int rgb, double[] lab) {
+        int r = (rgb & 0xff0000) >> 16;
+        int g = (rgb & 0xff00) >> 8;
+        int b = (rgb & 0xff);
+        double x = 0;
+        double y = 0;
+        double z = 0;
+        if (r != 0 || g != 0 || b != 0) {
+            double sum = 0.667 * r + 1.132 * g + 1.200 * b;
+            x = (0.490 * r + 0.310 * g + 0.200 * b) / sum;
+            y = (0.117 * r + 0.812 * g + 0.010 * b) / sum;
+            z = (0.000 * r + 0.010 * g + 0.990 * b) / sum;
+        }
+        x = f(x / 95.047);
+        y = f(y / 100.000);
+        z = f(z / 108.883);
+        // 与 xyz2lab 相同, 再取一次立方根
+        double cy = Math.cbrt(y);
+        lab[0] = 116 * cy - 16;
+        lab[1] = 500 * (Math.cbrt(x) - cy);
+        lab[2] = 200 * (cy - Math.cbrt(z));
+    }
+
+    private static double f(double t) {
+        return (t > 0.008856) ? Math.cbrt(t) : (7.787 * t + 16.0 / 116);
+    }
+
+    private static double distance(double[] lab1, double[] lab2) {
+        double deltaL = lab1[0] - lab2[0];
+        double deltaA = lab1[1] - lab2[1];
+        double deltaB = lab1[2] - lab2[2];
+        return Math.sqrt(deltaL * deltaL + deltaA * deltaA + deltaB * deltaB);
+    }
+
+    /**
+     * The result of the comparison.
+     */
+    static class Result {
+        private final int width;
+        private final int height;
+        private final int tileColumns;
+        private final int tileRows;
+        private final int budget;
+        private final boolean[] changedTiles;
+        // 每个变化的 tile 中超过阈值的像素, 每个 tile 只由一个任务写入
+        private final long[][] overThreshold;
+        private final AtomicInteger differentPixels = new AtomicInteger();
+        private final AtomicInteger overThresholdPixels = new AtomicInteger();
+        private volatile boolean stopped = false;
+
+        private Result(int width, int height, int budget) {
+            this.width = width;
+            this.height = height;
+            this.tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+            this.tileRows = (height + TILE_SIZE - 1) / TILE_SIZE;
+            this.budget = budget;
+            this.changedTiles = new boolean[tileColumns * tileRows];
+            this.overThreshold = new long[changedTiles.length][];
+        }
+
+        private void add(int different, int overThreshold) {
+            if (different > 0) {
+                differentPixels.addAndGet(different);
+            }
+            if (overThreshold > 0 && overThresholdPixels.addAndGet(overThreshold) > budget && budget >= 0) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Gets the number of pixels not exactly equal, outside the masks.
+         *
+         * @return the different pixels
+         */
+        int getDifferentPixels() {
+            return differentPixels.get();
+        }
+
+        /**
+         * Gets the number of pixels whose color difference is over the threshold.
+         *
+         * @return the over threshold pixels
+         */
+        int getOverThresholdPixels() {
+            return overThresholdPixels.get();
+        }
+
+        /**
+         * Whether the comparison stopped early because the budget was exceeded.
+         *
+         * @return true if stopped
+         */
+        boolean isStopped() {
+            return stopped;
+        }
+
+        /**
+         * Gets the changed regions, adjacent changed tiles are merged into one bounding box.
+         *
+         * @return the changed regions
+         */
+        List<Rectangle> getChangedRegions() {
+            List<Rectangle> regions = new ArrayList<Rectangle>();
+            boolean[] visited = new boolean[changedTiles.length];
+            int[] stack = new int[changedTiles.length];
+            for (int start = 0; start < changedTiles.length; start++) {
+                if (!changedTiles[start] || visited[start]) {
+                    continue;
+                }
+                int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+                int size = 0;
+                stack[size++] = start;
+                visited[start] = true;
+                while (size > 0) {
+                    int tile = stack[--size];
+                    int tx = tile % tileColumns;
+                    int ty = tile / tileColumns;
+                    minX = Math.min(minX, tx);
+                    minY = Math.min(minY, ty);
+                    maxX = Math.max(maxX, tx);
+                    maxY = Math.max(maxY, ty);
+                    for (int ny = Math.max(0, ty - 1); ny <= Math.min(tileRows - 1, ty + 1); ny++) {
+                        for (int nx = Math.max(0, tx - 1); nx <= Math.min(tileColumns - 1, tx + 1); nx++) {
+                            int neighbour = ny * tileColumns + nx;
+                            if (changedTiles[neighbour] && !visited[neighbour]) {
+                                visited[neighbour] = true;
+                                stack[size++] = neighbour;
+                            }
+                        }
+                    }
+                }
+                int x = minX * TILE_SIZE;
+                int y = minY * TILE_SIZE;
+                regions.add(new Rectangle(x, y, Math.min(width, (maxX + 1) * TILE_SIZE) - x,
+                        Math.min(height, (maxY + 1) * TILE_SIZE) - y));
+            }
+            return regions;
+        }
+    }
+
+    private static class Task extends RecursiveAction {
+        private final int[] expected;
+        private final int[] actual;
+        private final List<Rectangle> masks;
+        private final int fromTileRow;
+        private final int toTileRow;
+        private final double threshold;
+        private final Result result;
+
+        private Task(int[] expected, int[] actual, List<Rectangle> masks, int fromTileRow, int toTileRow,
+                     double threshold, Result result) {
+            this.expected = expected;
+            this.actual = actual;
+            this.masks = masks;
+            this.fromTileRow = fromTileRow;
+            this.toTileRow = toTileRow;
+            this.threshold = threshold;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            int tileRows = toTileRow - fromTileRow;
+            if (tileRows > 1 && (long) tileRows * TILE_SIZE * result.width > MIN_PIXELS_PER_TASK) {
+                int middle = fromTileRow + tileRows / 2;
+                invokeAll(new Task(expected, actual, masks, fromTileRow, middle, threshold, result),
+                        new Task(expected, actual, masks, middle, toTileRow, threshold, result));
+                return;
+            }
+            double[] expLab = new double[3];
+            double[] actLab = new double[3];
+            Rectangle tileBounds = new Rectangle();
+            for (int ty = fromTileRow; ty < toTileRow && !result.stopped; ty++) {
+                for (int tx = 0; tx < result.tileColumns && !result.stopped; tx++) {
+                    int x0 = tx * TILE_SIZE;
+                    int y0 = ty * TILE_SIZE;
+                    int x1 = Math.min(result.width, x0 + TILE_SIZE);
+                    int y1 = Math.min(result.height, y0 + TILE_SIZE);
+                    tileBounds.setBounds(x0, y0, x1 - x0, y1 - y0);
+                    List<Rectangle> tileMasks = masksOf(tileBounds);
+                    if (tileMasks == null || isTileEqual(x0, y0, x1, y1)) {
+                        continue;
+                    }
+                    compareTile(ty * result.tileColumns + tx, x0, y0, x1, y1, tileMasks, expLab, actLab);
+                }
+            }
+        }
+
+        /**
+         * 与 tile 相交的 mask, tile 完全被遮盖时返回 null
+         */
+        private List<Rectangle> masksOf(Rectangle tileBounds) {
+            List<Rectangle> tileMasks = Collections.emptyList();
+            for (Rectangle mask : masks) {
+                if (mask.contains(tileBounds)) {
+                    return null;
+                }
+                if (mask.intersects(tileBounds)) {
+                    if (tileMasks.isEmpty()) {
+                        tileMasks = new ArrayList<Rectangle>();
+                    }
+                    tileMasks.add(mask);
+                }
+            }
+            return tileMasks;
+        }
+
+        private boolean isTileEqual(int x0, int y0, int x1, int y1) {
+            int width = result.width;
+            for (int y = y0; y < y1; y++) {
+                for (int i = y * width + x0, end = y * width + x1; i < end; i++) {
+                    if (expected[i] != actual[i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void compareTile(int tile, int x0, int y0, int x1, int y1, List<Rectangle> tileMasks,
+                                 double[] expLab, double[] actLab) {
+            int width = result.width;
+            int different = 0;
+            int overThreshold = 0;
+            long[] bits = null;
+            int lastExp = 0;
+            int lastAct = 0;
+            boolean hasExpLab = false;
+            boolean hasActLab = false;
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    int i = y * width + x;
+                    int expRGB = expected[i];
+                    int actRGB = actual[i];
+                    if (expRGB == actRGB || isMasked(tileMasks, x, y)) {
+                        continue;
+                    }
+                    // 相邻的不同像素颜色常常相同, 复用上一次的转换结果
+                    if (!hasExpLab || expRGB != lastExp) {
+                        toLab(expRGB, expLab);
+                        lastExp = expRGB;
+                        hasExpLab = true;
+                    }
+                    if (!hasActLab || actRGB != lastAct) {
+                        toLab(actRGB, actLab);
+                        lastAct = actRGB;
+                        hasActLab = true;
+                    }
+                    if (distance(expLab, actLab) > threshold) {
+                        if (bits == null) {
+                            bits = new long[TILE_SIZE * TILE_SIZE / 64];
+                        }
+                        int bit = (y - y0) * TILE_SIZE + (x - x0);
+                        bits[bit >> 6] |= 1L << bit;
+                        overThreshold++;
+                    }
+                    different++;
+                }
+            }
+            if (different > 0) {
+                result.changedTiles[tile] = true;
+                result.overThreshold[tile] = bits;
+                result.add(different, overThreshold);
+            }
+        }
+
+        private static boolean isMasked(List<Rectangle> tileMasks, int x, int y) {
+            for (Rectangle mask : tileMasks) {
+                if (mask.contains(x, y)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 比较用的 ForkJoin 线程池, 第一次使用时创建
+     */
+    private static class Pool {
+        private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -1,14 +1,18 @@
 package com.qa.framework.pagefactory;
 
 import com.qa.framework.pagefactory.mobile.AppiumFieldDecorator;
+import com.qa.framework.pagefactory.web.CachingElementLocatorFactory;
 import com.qa.framework.pagefactory.web.ElementDecorator;
 import io.appium.java_client.remote.MobilePlatform;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.support.pagefactory.DefaultElementLocatorFactory;
 import org.openqa.selenium.support.pagefactory.FieldDecorator;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.appium.java_client.pagefactory.utils.WebDriverUnpackUtility.getPlatform;
 
@@ -19,6 +23,15 @@ import static io.appium.java_client.pagefactory.utils.WebDriverUnpackUtility.get
 public class PageFactory {
     private final static Logger logger = Logger
             .getLogger(PageFactory.class);
+    /**
+     * Decoratable fields of every page class scanned so far, one map per platform family
+     */
+    private static final ConcurrentHashMap<Class<?>, List<Field>> webPageFields = new ConcurrentHashMap<Class<?>, List<Field>>();
+    private static final ConcurrentHashMap<Class<?>, List<Field>> mobilePageFields = new ConcurrentHashMap<Class<?>, List<Field>>();
+    /**
+     * The decorator built for the driver the current thread is using
+     */
+    private static final ThreadLocal<DecoratorHolder> decoratorHolder = new ThreadLocal<DecoratorHolder>();
 
     /**
      * Init elements.
@@ -27,31 +40,65 @@ public class PageFactory {
      * @param page   the page
      */
     public static void initElements(WebDriver driver, Object page) {
+        FieldDecorator decorator = getDecorator(driver);
+        ConcurrentHashMap<Class<?>, List<Field>> pageFields = decorator instanceof AppiumFieldDecorator ? mobilePageFields : webPageFields;
         Class<?> pageClass = page.getClass();
+        List<Field> fields = pageFields.get(pageClass);
+        if (fields != null) {
+            for (Field field : fields) {
+                setProxy(page, field, decorator.decorate(pageClass.getClassLoader(), field));
+            }
+            return;
+        }
+        fields = new ArrayList<Field>();
         while (pageClass != Object.class) {
-            proxyFields(driver, page, pageClass);
+            proxyFields(decorator, page, pageClass, fields);
             pageClass = pageClass.getSuperclass();
         }
+        pageFields.putIfAbsent(page.getClass(), Collections.unmodifiableList(fields));
     }
 
-    private static void proxyFields(WebDriver driver, Object page, Class<?> pageClass) {
-        Field[] fields = pageClass.getDeclaredFields();
-        for (Field field : fields) {
-            Object proxy = null;
-            FieldDecorator decorator = null;
-            if (getPlatform(driver).equals(MobilePlatform.ANDROID) || getPlatform(driver).equals(MobilePlatform.IOS) || getPlatform(driver).equals(MobilePlatform.FIREFOX_OS)) {
+    /**
+     * Gets the decorator of the driver, a new one is only created when the current thread switches to another driver.
+     *
+     * @param driver the driver
+     * @return the decorator
+     */
+    private static FieldDecorator getDecorator(WebDriver driver) {
+        DecoratorHolder holder = decoratorHolder.get();
+        if (holder == null || holder.driver != driver) {
+            FieldDecorator decorator;
+            String platform = getPlatform(driver);
+            if (MobilePlatform.ANDROID.equals(platform) || MobilePlatform.IOS.equals(platform) || MobilePlatform.FIREFOX_OS.equals(platform)) {
                 decorator = new AppiumFieldDecorator(driver);
             } else {
-                decorator = new ElementDecorator(new DefaultElementLocatorFactory(driver));
+                decorator = new ElementDecorator(new CachingElementLocatorFactory(driver));
             }
-            proxy = decorator.decorate(page.getClass().getClassLoader(), field);
+            holder = new DecoratorHolder(driver, decorator);
+            decoratorHolder.set(holder);
+        }
+        return holder.decorator;
+    }
+
+    private static void proxyFields(FieldDecorator decorator, Object page, Class<?> pageClass, List<Field> decoratedFields) {
+        Field[] fields = pageClass.getDeclaredFields();
+        for (Field field : fields) {
+            Object proxy = decorator.decorate(page.getClass().getClassLoader(), field);
             if (proxy != null) {
-                try {
-                    field.setAccessible(true);
-                    field.set(page, proxy);
-                } catch (IllegalAccessException e) {
-                    logger.error(e.toString(), e);
-                }
+                field.setAccessible(true);
+                decoratedFields.add(field);
+                setProxy(page, field, proxy);
+            }
+        }
+    }
+
+    private static void setProxy(Object page, Field field, Object proxy) {
+        if (proxy != null) {
+            try {
+                field.setAccessible(true);
+                field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                logger.error(e.toString(), e);
             }
         }
     }
@@ -86,4 +133,14 @@ public class PageFactory {
         }
     }
 
+    private static class DecoratorHolder {
+        private final WebDriver driver;
+        private final FieldDecorator decorator;
+
+        private DecoratorHolder(WebDriver driver, FieldDecorator decorator) {
+            this.driver = driver;
+            this.decorator = decorator;
+        }
+    }
+
 }
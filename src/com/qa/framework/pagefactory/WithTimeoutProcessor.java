@@ -1,11 +1,14 @@
 package com.qa.framework.pagefactory;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Processes the iface type into a useful class reference for wrapping WebElements.
  */
 public final class WithTimeoutProcessor {
+    private static final ConcurrentHashMap<Field, Integer> annotatedTimeouts = new ConcurrentHashMap<Field, Integer>();
+
     private WithTimeoutProcessor() {
     }
 
@@ -17,9 +20,14 @@ public final class WithTimeoutProcessor {
      * @return the time out of find
      */
     public static int getTimeOutOfFind(Field field, int type) {
-        if (field.isAnnotationPresent(WithTimeout.class)) {
+        Integer annotatedTimeout = annotatedTimeouts.get(field);
+        if (annotatedTimeout == null) {
             WithTimeout annotation = field.getAnnotation(WithTimeout.class);
-            return annotation.value();
+            annotatedTimeout = annotation != null ? annotation.value() : -1;
+            annotatedTimeouts.putIfAbsent(field, annotatedTimeout);
+        }
+        if (annotatedTimeout >= 0) {
+            return annotatedTimeout;
         }
         if (type == 1) {
             return 10000;
@@ -27,15 +27,22 @@ import org.openqa.selenium.WebDriver;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The type Appium element locator factory.
  */
 class AppiumElementLocatorFactory implements CacheableElementLocatorFactory {
+    /**
+     * Built Bys shared by all the factories with the same builder, platform and automation
+     */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<AnnotatedElement, LocatorMetadata>> metadataCache =
+            new ConcurrentHashMap<String, ConcurrentHashMap<AnnotatedElement, LocatorMetadata>>();
     private final SearchContext searchContext;
     private final TimeOutDuration timeOutDuration;
     private final WebDriver originalWebDriver;
     private final AppiumByBuilder builder;
+    private final ConcurrentHashMap<AnnotatedElement, LocatorMetadata> builtLocators;
 
     /**
      * Instantiates a new Appium element locator factory.
@@ -44,15 +51,26 @@ class AppiumElementLocatorFactory implements CacheableElementLocatorFactory {
      * @param timeOutDuration   the time out duration
      * @param originalWebDriver the original web driver
      * @param builder           the builder
+     * @param platform          the platform the builder was created for
+     * @param automation        the automation the builder was created for
      */
     public AppiumElementLocatorFactory(SearchContext searchContext,
                                        TimeOutDuration timeOutDuration,
                                        WebDriver originalWebDriver,
-                                       AppiumByBuilder builder) {
+                                       AppiumByBuilder builder,
+                                       String platform,
+                                       String automation) {
         this.searchContext = searchContext;
         this.originalWebDriver = originalWebDriver;
         this.timeOutDuration = timeOutDuration;
         this.builder = builder;
+        String cacheKey = builder.getClass().getName() + ":" + platform + ":" + automation;
+        ConcurrentHashMap<AnnotatedElement, LocatorMetadata> locators = metadataCache.get(cacheKey);
+        if (locators == null) {
+            metadataCache.putIfAbsent(cacheKey, new ConcurrentHashMap<AnnotatedElement, LocatorMetadata>());
+            locators = metadataCache.get(cacheKey);
+        }
+        this.builtLocators = locators;
     }
 
     public CacheableLocator createLocator(Field field) {
@@ -69,13 +87,28 @@ class AppiumElementLocatorFactory implements CacheableElementLocatorFactory {
             customDuration = timeOutDuration;
         }
 
-        builder.setAnnotated(annotatedElement);
-        By by = builder.buildBy();
-        if (by != null)
-            return new AppiumElementLocator(searchContext, by, builder.isLookupCached(), customDuration, originalWebDriver);
+        LocatorMetadata metadata = builtLocators.get(annotatedElement);
+        if (metadata == null) {
+            builder.setAnnotated(annotatedElement);
+            By by = builder.buildBy();
+            metadata = new LocatorMetadata(by, by != null && builder.isLookupCached());
+            builtLocators.putIfAbsent(annotatedElement, metadata);
+        }
+        if (metadata.by != null)
+            return new AppiumElementLocator(searchContext, metadata.by, metadata.lookupCached, customDuration, originalWebDriver);
         return null;
     }
 
+    private static class LocatorMetadata {
+        private final By by;
+        private final boolean lookupCached;
+
+        private LocatorMetadata(By by, boolean lookupCached) {
+            this.by = by;
+            this.lookupCached = lookupCached;
+        }
+    }
+
 
 }
 
@@ -43,6 +43,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import static io.appium.java_client.pagefactory.utils.ProxyFactory.getEnhancedProxy;
@@ -75,6 +76,12 @@ public class AppiumFieldDecorator implements FieldDecorator {
 
             };
 
+    /**
+     * Widget constructors read from the field annotations, keyed by platform, automation and field
+     */
+    private static final ConcurrentHashMap<String, Map<ContentType, Constructor<? extends Widget>>> widgetConstructorCache =
+            new ConcurrentHashMap<String, Map<ContentType, Constructor<? extends Widget>>>();
+
     /**
      * The constant DEFAULT_IMPLICITLY_WAIT_TIMEOUT.
      */
@@ -116,7 +123,7 @@ public class AppiumFieldDecorator implements FieldDecorator {
 
         defaultElementFieldDecoracor = new DefaultFieldDecorator(
                 new AppiumElementLocatorFactory(context, timeOutDuration, originalDriver,
-                        new DefaultElementByBuilder(platform, automation))) {
+                        new DefaultElementByBuilder(platform, automation), platform, automation)) {
             @Override
             protected WebElement proxyForLocator(ClassLoader ignored, ElementLocator locator) {
                 return proxyForAnElement(locator);
@@ -157,7 +164,7 @@ public class AppiumFieldDecorator implements FieldDecorator {
         };
 
         widgetLocatorFactory = new AppiumElementLocatorFactory(context, timeOutDuration, originalDriver,
-                new WidgetByBuilder(platform, automation));
+                new WidgetByBuilder(platform, automation), platform, automation);
     }
 
     /**
@@ -211,8 +218,12 @@ public class AppiumFieldDecorator implements FieldDecorator {
         }
 
         CacheableLocator locator = widgetLocatorFactory.createLocator(field);
-        Map<ContentType, Constructor<? extends Widget>> map =
-                OverrideWidgetReader.read(widgetType, field, platform, automation);
+        String cacheKey = platform + ":" + automation + ":" + field.getDeclaringClass().getName() + "." + field.getName();
+        Map<ContentType, Constructor<? extends Widget>> map = widgetConstructorCache.get(cacheKey);
+        if (map == null) {
+            map = OverrideWidgetReader.read(widgetType, field, platform, automation);
+            widgetConstructorCache.putIfAbsent(cacheKey, map);
+        }
 
         if (isAlist) {
             return getEnhancedProxy(ArrayList.class,
@@ -16,11 +16,16 @@ package com.qa.framework.pagefactory.mobile.interceptor;
  * limitations under the License.
  */
 
+import com.qa.framework.InstanceFactory;
 import com.qa.framework.cache.MethodCache;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.ScreenShot;
-import com.qa.framework.common.Sleeper;
+import com.qa.framework.common.Settler;
 import com.qa.framework.pagefactory.mobile.ThrowableUtil;
+import com.qa.framework.pagefactory.wait.Deadline;
+import com.qa.framework.pagefactory.wait.Lookup;
+import com.qa.framework.pagefactory.wait.WaitCondition;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.pagefactory.WithTimeout;
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -35,7 +40,6 @@ import org.openqa.selenium.support.pagefactory.ElementLocator;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.List;
 
 import static com.qa.framework.pagefactory.WithTimeoutProcessor.getTimeOutOfFind;
 
@@ -59,7 +63,8 @@ public class ElementInterceptor implements MethodInterceptor {
      * The Alert.
      */
     protected final Alert alert;
-    private final Sleeper sleeper;
+    private final Settler settler;
+    private final WaitEngine waitEngine;
     /**
      * The Logger.
      */
@@ -77,7 +82,8 @@ public class ElementInterceptor implements MethodInterceptor {
         this.driver = driver;
         this.field = field;
         this.alert = new Alert(driver);
-        this.sleeper = new Sleeper();
+        this.settler = new Settler(driver);
+        this.waitEngine = InstanceFactory.getWaitEngine();
     }
 
     public Object intercept(Object obj, Method method, Object[] args,
@@ -92,7 +98,6 @@ public class ElementInterceptor implements MethodInterceptor {
         }
 
         WebElement realElement = null;
-        List<WebElement> elements = null;
         if (field.isAnnotationPresent(WithTimeout.class)) {
             try {
                 realElement = locator.findElement();
@@ -101,18 +106,14 @@ public class ElementInterceptor implements MethodInterceptor {
                     return "Proxy element for: " + locator.toString();
                 } else throw e;
             }
-        } else {
-            int timeout = getTimeOutOfFind(field, 2);
-            long end = System.currentTimeMillis() + timeout;
-            while (System.currentTimeMillis() < end) {
-                elements = locator.findElements();
-                if (elements != null && elements.size() > 0) {
-                    realElement = elements.get(0);
-                    if (realElement != null && realElement.isDisplayed()) {
-                        break;
-                    }
-                }
-                this.sleeper.sleep(500);
+            return invoke(realElement, method, args);
+        }
+        int timeout = getTimeOutOfFind(field, 2);
+        Deadline deadline = Deadline.start(timeout);
+        try {
+            Lookup lookup = waitEngine.waitFor(driver, locator, WaitCondition.FIRST_VISIBLE, deadline);
+            if (lookup.getElements().size() > 0) {
+                realElement = lookup.getElements().get(0);
             }
             if (realElement == null) {
                 if (!method.getName().equals("isDisplayed")) {
@@ -120,12 +121,17 @@ public class ElementInterceptor implements MethodInterceptor {
                             + " element can't be found and the time(" + String.valueOf(timeout) + ") is out");
                     throw new RuntimeException("the " + this.field.getName()
                             + " element can't be found and the time(" + String.valueOf(timeout) + ") is out");
-                }else {
+                } else {
                     return false;
                 }
             }
+            return invoke(realElement, method, args);
+        } finally {
+            deadline.end();
         }
+    }
 
+    private Object invoke(WebElement realElement, Method method, Object[] args) throws Throwable {
 /*        if (getCurrentContentType(this.driver).equals(ContentType.HTML_OR_DEFAULT)) {
 
         }*/
@@ -133,7 +139,7 @@ public class ElementInterceptor implements MethodInterceptor {
         if (method.getName().equals("click")) {
             String currMethodName = MethodCache.getCurrentMethodName();
             ScreenShot.captureAction(driver, currMethodName, this.field.getName());
-            this.sleeper.sleep(500);
+            this.settler.settle();
         }
 
         if (args != null && args.length > 0) {
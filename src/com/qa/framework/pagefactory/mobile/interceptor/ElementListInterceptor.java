@@ -16,10 +16,14 @@ package com.qa.framework.pagefactory.mobile.interceptor;
  * limitations under the License.
  */
 
+import com.qa.framework.InstanceFactory;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.Sleeper;
 import com.qa.framework.pagefactory.mobile.ProxyUtil;
 import com.qa.framework.pagefactory.mobile.ThrowableUtil;
+import com.qa.framework.pagefactory.wait.Deadline;
+import com.qa.framework.pagefactory.wait.WaitCondition;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.pagefactory.WithTimeout;
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -59,6 +63,7 @@ public class ElementListInterceptor implements MethodInterceptor {
      */
     protected final Alert alert;
     private final Sleeper sleeper;
+    private final WaitEngine waitEngine;
     /**
      * The Logger.
      */
@@ -78,6 +83,7 @@ public class ElementListInterceptor implements MethodInterceptor {
         this.field = field;
         this.alert = new Alert(driver);
         this.sleeper = new Sleeper();
+        this.waitEngine = InstanceFactory.getWaitEngine();
     }
 
     public Object intercept(Object obj, Method method, Object[] args,
@@ -102,15 +108,12 @@ public class ElementListInterceptor implements MethodInterceptor {
             timeout = (int) withTimeout.time() * unit;
         } else {
             timeout = getTimeOutOfFind(field, 2);
-            long end = System.currentTimeMillis() + timeout;
-            while (System.currentTimeMillis() < end) {
-                realElements = locator.findElements();
-                if (realElements != null && realElements.size() > 0) {
-                    break;
-                }
-                this.sleeper.sleep(500);
+            Deadline deadline = Deadline.start(timeout);
+            try {
+                realElements = waitEngine.waitFor(driver, locator, WaitCondition.PRESENT, deadline).getElements();
+            } finally {
+                deadline.end();
             }
-
         }
         if (realElements == null) {
             logger.error("the " + this.field.getName()
@@ -16,10 +16,15 @@ package com.qa.framework.pagefactory.mobile.interceptor;
  * limitations under the License.
  */
 
+import com.qa.framework.InstanceFactory;
 import com.qa.framework.common.Sleeper;
 import com.qa.framework.pagefactory.PageFactory;
 import com.qa.framework.pagefactory.mobile.AppiumFieldDecorator;
 import com.qa.framework.pagefactory.mobile.ThrowableUtil;
+import com.qa.framework.pagefactory.wait.Deadline;
+import com.qa.framework.pagefactory.wait.Lookup;
+import com.qa.framework.pagefactory.wait.WaitCondition;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 import io.appium.java_client.pagefactory.TimeOutDuration;
 import io.appium.java_client.pagefactory.Widget;
 import io.appium.java_client.pagefactory.WithTimeout;
@@ -38,7 +43,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import static com.qa.framework.pagefactory.WithTimeoutProcessor.getTimeOutOfFind;
@@ -65,6 +69,7 @@ public class WidgetInterceptor implements MethodInterceptor {
     private final Map<ContentType, Widget> cachedInstances = new HashMap<>();
     private final TimeOutDuration duration;
     private final Sleeper sleeper;
+    private final WaitEngine waitEngine;
     /**
      * The Logger.
      */
@@ -91,6 +96,7 @@ public class WidgetInterceptor implements MethodInterceptor {
         this.driver = driver;
         this.field = field;
         this.sleeper = new Sleeper();
+        this.waitEngine = InstanceFactory.getWaitEngine();
     }
 
     /**
@@ -131,7 +137,6 @@ public class WidgetInterceptor implements MethodInterceptor {
             }
 
             WebElement realElement = null;
-            List<WebElement> elements = null;
             if (field.isAnnotationPresent(WithTimeout.class)) {
                 try {
                     realElement = locator.findElement();
@@ -140,18 +145,14 @@ public class WidgetInterceptor implements MethodInterceptor {
                         return "Proxy element for: " + locator.toString();
                     } else throw e;
                 }
-            } else {
-                int timeout = getTimeOutOfFind(field, 2);
-                long end = System.currentTimeMillis() + timeout;
-                while (System.currentTimeMillis() < end) {
-                    elements = locator.findElements();
-                    if (elements != null && elements.size() > 0) {
-                        realElement = elements.get(0);
-                        if (realElement != null && realElement.isDisplayed()) {
-                            break;
-                        }
-                    }
-                    this.sleeper.sleep(500);
+                return getObject(realElement, method, args);
+            }
+            int timeout = getTimeOutOfFind(field, 2);
+            Deadline deadline = Deadline.start(timeout);
+            try {
+                Lookup lookup = waitEngine.waitFor(driver, locator, WaitCondition.FIRST_VISIBLE, deadline);
+                if (lookup.getElements().size() > 0) {
+                    realElement = lookup.getElements().get(0);
                 }
                 if (realElement == null) {
                     logger.error("the " + this.field.getName()
@@ -159,9 +160,11 @@ public class WidgetInterceptor implements MethodInterceptor {
                     throw new RuntimeException("the " + this.field.getName()
                             + " element can't be found and the time(" + String.valueOf(timeout) + ") is out");
                 }
+                // the widget methods run under the same deadline, so their elements can't wait longer than the widget
+                return getObject(realElement, method, args);
+            } finally {
+                deadline.end();
             }
-
-            return getObject(realElement, method, args);
         }
         return getObject(cachedElement, method, args);
     }
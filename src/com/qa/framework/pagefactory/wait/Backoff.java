@@ -0,0 +1,36 @@
+package com.qa.framework.pagefactory.wait;
+
+import com.qa.framework.common.Sleeper;
+
+/**
+ * Adaptive pause between two polls, it starts short so an element showing up right after the first miss is
+ * found quickly and doubles up to a cap so slow pages are not flooded with requests.
+ */
+public class Backoff {
+    /**
+     * The constant MIN_INTERVAL.
+     */
+    public static final int MIN_INTERVAL = 10;
+    /**
+     * The constant MAX_INTERVAL.
+     */
+    public static final int MAX_INTERVAL = 250;
+    private final Sleeper sleeper = new Sleeper();
+    private int interval = MIN_INTERVAL;
+
+    /**
+     * Sleeps the next interval, never past the deadline.
+     *
+     * @param deadline the deadline
+     * @return false if the deadline is already expired and nothing was slept
+     */
+    public boolean pause(Deadline deadline) {
+        long remaining = deadline.remaining();
+        if (remaining <= 0) {
+            return false;
+        }
+        sleeper.sleep((int) Math.min(interval, remaining));
+        interval = Math.min(interval * 2, MAX_INTERVAL);
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.qa.framework.pagefactory.wait;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+/**
+ * A locator which exposes its By, so a wait engine can run the lookup in the browser.
+ */
+public interface ByLocator extends ElementLocator {
+    /**
+     * Gets by.
+     *
+     * @return the by
+     */
+    By getBy();
+}
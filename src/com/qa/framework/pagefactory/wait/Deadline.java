@@ -0,0 +1,73 @@
+package com.qa.framework.pagefactory.wait;
+
+/**
+ * A deadline shared by the chained element calls of the current thread, a nested call never waits longer than the
+ * call which started it.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<Deadline>();
+    private final long endTime;
+    private final long timeout;
+    private final Deadline outer;
+
+    private Deadline(long endTime, long timeout, Deadline outer) {
+        this.endTime = endTime;
+        this.timeout = timeout;
+        this.outer = outer;
+    }
+
+    /**
+     * Starts a deadline of the thread, it must be ended by {@link #end()} in a finally block.
+     *
+     * @param timeout the timeout in milliseconds
+     * @return the deadline
+     */
+    public static Deadline start(long timeout) {
+        Deadline outer = current.get();
+        long endTime = System.currentTimeMillis() + timeout;
+        if (outer != null && outer.endTime < endTime) {
+            endTime = outer.endTime;
+        }
+        Deadline deadline = new Deadline(endTime, timeout, outer);
+        current.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * Ends the deadline and restores the one of the calling element.
+     */
+    public void end() {
+        if (outer != null) {
+            current.set(outer);
+        } else {
+            current.remove();
+        }
+    }
+
+    /**
+     * Gets the remaining milliseconds.
+     *
+     * @return the remaining, 0 when expired
+     */
+    public long remaining() {
+        return Math.max(0, endTime - System.currentTimeMillis());
+    }
+
+    /**
+     * Is expired boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= endTime;
+    }
+
+    /**
+     * Gets the timeout the deadline was started with, used in the error messages.
+     *
+     * @return the timeout
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,55 @@
+package com.qa.framework.pagefactory.wait;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of one poll of a locator.
+ */
+public class Lookup {
+    private final List<WebElement> elements;
+    private final WebElement visible;
+    private final boolean satisfied;
+
+    /**
+     * Instantiates a new Lookup.
+     *
+     * @param elements  the matched elements
+     * @param visible   the displayed element, null if there is none or it was not checked
+     * @param satisfied whether the wait condition is met
+     */
+    public Lookup(List<WebElement> elements, WebElement visible, boolean satisfied) {
+        this.elements = elements != null ? elements : Collections.<WebElement>emptyList();
+        this.visible = visible;
+        this.satisfied = satisfied;
+    }
+
+    /**
+     * Gets the matched elements.
+     *
+     * @return the elements, never null
+     */
+    public List<WebElement> getElements() {
+        return elements;
+    }
+
+    /**
+     * Gets the displayed element.
+     *
+     * @return the visible element
+     */
+    public WebElement getVisible() {
+        return visible;
+    }
+
+    /**
+     * Is satisfied boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isSatisfied() {
+        return satisfied;
+    }
+}
@@ -0,0 +1,58 @@
+package com.qa.framework.pagefactory.wait;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.List;
+
+/**
+ * Polls the locator with an adaptive backoff, it works with every driver.
+ */
+public class PollingWaitEngine implements WaitEngine {
+
+    @Override
+    public Lookup waitFor(WebDriver driver, ElementLocator locator, WaitCondition condition, Deadline deadline) {
+        Backoff backoff = new Backoff();
+        Lookup lookup;
+        do {
+            lookup = probe(driver, locator, condition);
+            if (lookup.isSatisfied()) {
+                return lookup;
+            }
+        } while (backoff.pause(deadline));
+        return lookup;
+    }
+
+    /**
+     * Polls the locator once.
+     *
+     * @param driver    the driver
+     * @param locator   the locator
+     * @param condition the condition
+     * @return the lookup
+     */
+    protected Lookup probe(WebDriver driver, ElementLocator locator, WaitCondition condition) {
+        List<WebElement> elements = locator.findElements();
+        if (elements == null || elements.size() == 0) {
+            return new Lookup(elements, null, false);
+        }
+        switch (condition) {
+            case PRESENT:
+                return new Lookup(elements, null, true);
+            case FIRST_VISIBLE:
+                WebElement first = elements.get(0);
+                if (first != null && first.isDisplayed()) {
+                    return new Lookup(elements, first, true);
+                }
+                return new Lookup(elements, null, false);
+            default:
+                for (WebElement element : elements) {
+                    if (element.isDisplayed()) {
+                        return new Lookup(elements, element, true);
+                    }
+                }
+                return new Lookup(elements, null, false);
+        }
+    }
+}
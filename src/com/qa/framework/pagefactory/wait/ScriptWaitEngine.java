@@ -0,0 +1,97 @@
+package com.qa.framework.pagefactory.wait;
+
+import com.qa.framework.common.Driver;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ByIdOrName;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the elements and checks their visibility in one injected script per poll, so a web lookup costs one
+ * round-trip instead of one findElements plus one isDisplayed per element. Mobile drivers, locators without a By
+ * and strategies the script can't run (link text, chained Bys...) fall back to {@link PollingWaitEngine}.
+ */
+public class ScriptWaitEngine extends PollingWaitEngine {
+    private final static Logger logger = Logger.getLogger(ScriptWaitEngine.class);
+    private static final String FIND_VISIBLE_SCRIPT = "var strategy = arguments[0], value = arguments[1], anyVisible = arguments[2], nodes = [], i;"
+            + "function add(list) { for (var j = 0; j < list.length; j++) { nodes.push(list[j]); } }"
+            + "function byId(id) { var all = document.querySelectorAll('[id]'), found = [];"
+            + " for (var j = 0; j < all.length; j++) { if (all[j].id === id) { found.push(all[j]); } } return found; }"
+            + "function visible(e) { if (!(e.offsetWidth || e.offsetHeight || e.getClientRects().length)) { return false; }"
+            + " var style = window.getComputedStyle(e); return style.visibility !== 'hidden' && style.display !== 'none' && style.opacity !== '0'; }"
+            + "switch (strategy) {"
+            + " case 'id': add(byId(value)); break;"
+            + " case 'name': add(document.getElementsByName(value)); break;"
+            + " case 'idOrName': add(byId(value)); add(document.getElementsByName(value)); break;"
+            + " case 'className': add(document.getElementsByClassName(value)); break;"
+            + " case 'tagName': add(document.getElementsByTagName(value)); break;"
+            + " case 'css': add(document.querySelectorAll(value)); break;"
+            + " case 'xpath': var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "  for (i = 0; i < snapshot.snapshotLength; i++) { if (snapshot.snapshotItem(i).nodeType === 1) { nodes.push(snapshot.snapshotItem(i)); } } break;"
+            + "}"
+            + "var result = null;"
+            + "for (i = 0; i < nodes.length && (anyVisible || i < 1); i++) { if (visible(nodes[i])) { result = nodes[i]; break; } }"
+            + "return [result, nodes];";
+
+    @Override
+    protected Lookup probe(WebDriver driver, ElementLocator locator, WaitCondition condition) {
+        if (condition == WaitCondition.PRESENT || !(locator instanceof ByLocator) || !(driver instanceof JavascriptExecutor)
+                || new Driver(driver).isMobilePlat()) {
+            return super.probe(driver, locator, condition);
+        }
+        String[] strategy = getStrategy(((ByLocator) locator).getBy());
+        if (strategy == null) {
+            return super.probe(driver, locator, condition);
+        }
+        Object result;
+        try {
+            result = ((JavascriptExecutor) driver).executeScript(FIND_VISIBLE_SCRIPT, strategy[0], strategy[1],
+                    condition == WaitCondition.ANY_VISIBLE);
+        } catch (WebDriverException e) {
+            logger.debug("find visible script failed, poll the locator instead: " + e.getMessage());
+            return super.probe(driver, locator, condition);
+        }
+        List<?> values = (List<?>) result;
+        List<WebElement> elements = new ArrayList<WebElement>();
+        for (Object element : (List<?>) values.get(1)) {
+            elements.add((WebElement) element);
+        }
+        WebElement visible = (WebElement) values.get(0);
+        return new Lookup(elements, visible, visible != null);
+    }
+
+    /**
+     * Translates the By to the strategy and value understood by the script.
+     *
+     * @param by the by
+     * @return the strategy and value, null if the script can't run the By
+     */
+    private static String[] getStrategy(By by) {
+        String description = by.toString();
+        if (by instanceof ByIdOrName) {
+            return new String[]{"idOrName", description.substring(description.indexOf('"') + 1, description.lastIndexOf('"'))};
+        }
+        String value = description.substring(description.indexOf(':') + 1).trim();
+        if (by instanceof By.ById) {
+            return new String[]{"id", value};
+        } else if (by instanceof By.ByName) {
+            return new String[]{"name", value};
+        } else if (by instanceof By.ByClassName) {
+            return new String[]{"className", value};
+        } else if (by instanceof By.ByTagName) {
+            return new String[]{"tagName", value};
+        } else if (by instanceof By.ByCssSelector) {
+            return new String[]{"css", value};
+        } else if (by instanceof By.ByXPath) {
+            return new String[]{"xpath", value};
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.qa.framework.pagefactory.wait;
+
+/**
+ * The condition a {@link WaitEngine} waits for.
+ */
+public enum WaitCondition {
+    /**
+     * At least one element is matched.
+     */
+    PRESENT,
+    /**
+     * The first matched element is displayed.
+     */
+    FIRST_VISIBLE,
+    /**
+     * Any of the matched elements is displayed.
+     */
+    ANY_VISIBLE
+}
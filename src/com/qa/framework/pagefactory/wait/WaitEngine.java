@@ -0,0 +1,21 @@
+package com.qa.framework.pagefactory.wait;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+/**
+ * Waits for the elements of a locator, the implementation is chosen by the waitEngine property in config.properties.
+ */
+public interface WaitEngine {
+
+    /**
+     * Polls the locator until the condition is met or the deadline expires.
+     *
+     * @param driver    the driver
+     * @param locator   the locator
+     * @param condition the condition
+     * @param deadline  the deadline
+     * @return the last lookup, check {@link Lookup#isSatisfied()} to know whether the condition is met
+     */
+    Lookup waitFor(WebDriver driver, ElementLocator locator, WaitCondition condition, Deadline deadline);
+}
@@ -0,0 +1,75 @@
+package com.qa.framework.pagefactory.web;
+
+import com.qa.framework.pagefactory.wait.ByLocator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.support.pagefactory.AbstractAnnotations;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.DefaultElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Same as DefaultElementLocatorFactory, but the By of each field is only built once and shared by all drivers.
+ */
+public class CachingElementLocatorFactory implements ElementLocatorFactory {
+    private static final ConcurrentHashMap<Field, CachedAnnotations> annotationsCache = new ConcurrentHashMap<Field, CachedAnnotations>();
+    private final SearchContext searchContext;
+
+    /**
+     * Instantiates a new Caching element locator factory.
+     *
+     * @param searchContext the search context
+     */
+    public CachingElementLocatorFactory(SearchContext searchContext) {
+        this.searchContext = searchContext;
+    }
+
+    @Override
+    public ElementLocator createLocator(Field field) {
+        CachedAnnotations annotations = annotationsCache.get(field);
+        if (annotations == null) {
+            Annotations fieldAnnotations = new Annotations(field);
+            annotations = new CachedAnnotations(fieldAnnotations.buildBy(), fieldAnnotations.isLookupCached());
+            annotationsCache.putIfAbsent(field, annotations);
+        }
+        return new CachedElementLocator(searchContext, annotations);
+    }
+
+    private static class CachedElementLocator extends DefaultElementLocator implements ByLocator {
+        private final By by;
+
+        private CachedElementLocator(SearchContext searchContext, CachedAnnotations annotations) {
+            super(searchContext, annotations);
+            this.by = annotations.buildBy();
+        }
+
+        @Override
+        public By getBy() {
+            return by;
+        }
+    }
+
+    private static class CachedAnnotations extends AbstractAnnotations {
+        private final By by;
+        private final boolean lookupCached;
+
+        private CachedAnnotations(By by, boolean lookupCached) {
+            this.by = by;
+            this.lookupCached = lookupCached;
+        }
+
+        @Override
+        public By buildBy() {
+            return by;
+        }
+
+        @Override
+        public boolean isLookupCached() {
+            return lookupCached;
+        }
+    }
+}
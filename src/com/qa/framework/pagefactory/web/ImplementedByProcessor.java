@@ -1,12 +1,36 @@
 package com.qa.framework.pagefactory.web;
 
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Processes the iface type into a useful class reference for wrapping WebElements.
  */
 public final class ImplementedByProcessor {
+    private static final ConcurrentHashMap<Class<?>, Constructor<?>> implementConstructors = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
     private ImplementedByProcessor() {
     }
 
+    /**
+     * Gets the (WebDriver, WebElement) constructor of the wrapper class, it is only looked up once per class.
+     *
+     * @param implementClass the implement class
+     * @return the constructor
+     * @throws NoSuchMethodException the no such method exception
+     */
+    public static Constructor<?> getImplementConstructor(Class<?> implementClass) throws NoSuchMethodException {
+        Constructor<?> constructor = implementConstructors.get(implementClass);
+        if (constructor == null) {
+            constructor = implementClass.getConstructor(WebDriver.class, WebElement.class);
+            implementConstructors.putIfAbsent(implementClass, constructor);
+        }
+        return constructor;
+    }
+
     /**
      * Gets the wrapper class (descended from ElementImpl) for the annotation @ImplementedBy.
      *
@@ -1,11 +1,14 @@
 package com.qa.framework.pagefactory.web;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Processes the iface type into a useful class reference for wrapping WebElements.
  */
 public final class ScrollIntoViewProcessor {
+    private static final ConcurrentHashMap<Field, Boolean> scrollIntoViews = new ConcurrentHashMap<Field, Boolean>();
+
     private ScrollIntoViewProcessor() {
     }
 
@@ -16,11 +19,13 @@ public final class ScrollIntoViewProcessor {
      * @return the scroll into view
      */
     public static Boolean getScrollIntoView(Field field) {
-        if (field.isAnnotationPresent(ScrollIntoView.class)) {
+        Boolean scrollIntoView = scrollIntoViews.get(field);
+        if (scrollIntoView == null) {
             ScrollIntoView annotation = field.getAnnotation(ScrollIntoView.class);
-            return annotation.value();
+            scrollIntoView = annotation != null && annotation.value();
+            scrollIntoViews.putIfAbsent(field, scrollIntoView);
         }
-        return false;
+        return scrollIntoView;
     }
 
 }
@@ -1,12 +1,18 @@
 package com.qa.framework.pagefactory.web.interceptor;
 
+import com.qa.framework.InstanceFactory;
 import com.qa.framework.cache.DriverCache;
 import com.qa.framework.cache.ElementCache;
 import com.qa.framework.cache.MethodCache;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.ScreenShot;
+import com.qa.framework.common.Settler;
 import com.qa.framework.common.Sleeper;
 import com.qa.framework.common.Window;
+import com.qa.framework.pagefactory.wait.Deadline;
+import com.qa.framework.pagefactory.wait.Lookup;
+import com.qa.framework.pagefactory.wait.WaitCondition;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 import com.qa.framework.pagefactory.web.Element;
 import io.appium.java_client.pagefactory.WithTimeout;
 import org.apache.log4j.Logger;
@@ -16,10 +22,10 @@ import org.openqa.selenium.support.pagefactory.ElementLocator;
 
 import java.lang.reflect.*;
 import java.util.Arrays;
-import java.util.List;
 
 import static com.qa.framework.pagefactory.WithTimeoutProcessor.getTimeOutOfFind;
 import static com.qa.framework.pagefactory.web.ImplementedByProcessor.getImplementClass;
+import static com.qa.framework.pagefactory.web.ImplementedByProcessor.getImplementConstructor;
 import static com.qa.framework.pagefactory.web.ScrollIntoViewProcessor.getScrollIntoView;
 
 /**
@@ -33,11 +39,15 @@ public class ElementHandler implements InvocationHandler {
     protected final Alert alert;
     private final Window window;
     private final Sleeper sleeper;
+    private final Settler settler;
     private final WebDriver driver;
     private final ElementLocator locator;
     private final Class<?> implementtingType;
     private final String logicElementName;
     private final Field field;
+    private final long timeout;
+    private final boolean scrollIntoView;
+    private final WaitEngine waitEngine;
     /**
      * The Logger.
      */
@@ -59,48 +69,37 @@ public class ElementHandler implements InvocationHandler {
         this.implementtingType = getImplementClass(interfaceType);
         this.logicElementName = field.getName();
         this.field = field;
+        if (field.isAnnotationPresent(WithTimeout.class)) {
+            WithTimeout withTimeout = field.getAnnotation(WithTimeout.class);
+            this.timeout = withTimeout.unit().toMillis(withTimeout.time());
+        } else {
+            this.timeout = getTimeOutOfFind(field, 1);
+        }
+        this.scrollIntoView = getScrollIntoView(field);
+        this.waitEngine = InstanceFactory.getWaitEngine();
         this.alert = new Alert(driver);
         this.window = new Window(driver);
         this.sleeper = new Sleeper();
+        this.settler = new Settler(driver);
     }
 
     @Override
     public Object invoke(Object object, Method method, Object[] paras) throws Throwable {
+        Deadline deadline = Deadline.start(timeout);
+        try {
+            return invoke(method, paras, deadline);
+        } finally {
+            deadline.end();
+        }
+    }
+
+    private Object invoke(Method method, Object[] paras, Deadline deadline) throws Throwable {
         Element wapperElement = null;
-        List<WebElement> elements = null;
-        WebElement element = null;
         int previousWindowsCount = driver.getWindowHandles().size();
-        long timeout = 0;
-        if (field.isAnnotationPresent(WithTimeout.class)) {
-            WithTimeout withTimeout = field.getAnnotation(WithTimeout.class);
-            timeout = withTimeout.unit().toMillis(withTimeout.time());
-        } else {
-            timeout = getTimeOutOfFind(field, 1);
-        }
-        long currentTime = System.currentTimeMillis();
-        long maxTime = System.currentTimeMillis() + timeout;
-        while (currentTime < maxTime) {
-            elements = locator.findElements();
-            if (elements.size() > 1) {
-                boolean isFound = false;
-                for (WebElement e : elements) {
-                    if (e.isDisplayed()) {
-                        element = e;
-                        isFound = true;
-                        break;
-                    }
-                }
-                if (isFound) {
-                    break;
-                }
-            } else if (elements.size() == 1) {
-                element = elements.get(0);
-                if (element.isDisplayed()) {
-                    break;
-                }
-            }
-            this.sleeper.sleep();
-            currentTime = System.currentTimeMillis();
+        Lookup lookup = waitEngine.waitFor(driver, locator, WaitCondition.ANY_VISIBLE, deadline);
+        WebElement element = lookup.getVisible();
+        if (element == null && lookup.getElements().size() == 1) {
+            element = lookup.getElements().get(0);
         }
         if (element == null) {
             if(!method.getName().equals("isDisplayed")) {
@@ -117,30 +116,28 @@ public class ElementHandler implements InvocationHandler {
             return element;
         }
 
-        Constructor<?> cons = implementtingType.getConstructor(WebDriver.class, WebElement.class);
+        Constructor<?> cons = getImplementConstructor(implementtingType);
         Object obj = cons.newInstance(driver, element);
 
         try {
             wapperElement = (Element) obj;
             if (method.getName().equals("click") || method.getName().equals("sendKeys") || method.getName().equals("mouseOver")) {
-                wapperElement.scrollIntoView(getScrollIntoView(field));
-                this.sleeper.sleep(50);
+                wapperElement.scrollIntoView(scrollIntoView);
                 try {
                     wapperElement.highLight();
                 } catch (Exception ignored) {
                 }
-                ;
-                this.sleeper.sleep(50);
             }
             Object ret = null;
 
             if (method.getName().equals("click")) {
                 String currMethodName = MethodCache.getCurrentMethodName();
                 ScreenShot.captureAction(driver, currMethodName, logicElementName);
+                this.settler.prepare();
                 ret = method.invoke(obj, paras);
                 ElementCache.set(element);
                 logger.info(logicElementName + " click");
-                this.sleeper.sleep(500);
+                this.settler.settle();
                 if (driver.getWindowHandles().size() > previousWindowsCount) {
                     this.window.selectLastOpenedWindow();
                 }
@@ -150,8 +147,9 @@ public class ElementHandler implements InvocationHandler {
                 } else {
                     logger.info(logicElementName + " " + method.getName());
                 }
+                this.settler.prepare();
                 ret = method.invoke(obj, paras);
-                this.sleeper.sleep(500);
+                this.settler.settle();
             }
             return ret;
         } catch (InvocationTargetException e) {
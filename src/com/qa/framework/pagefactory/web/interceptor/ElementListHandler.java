@@ -1,8 +1,12 @@
 package com.qa.framework.pagefactory.web.interceptor;
 
+import com.qa.framework.InstanceFactory;
 import com.qa.framework.cache.DriverCache;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.Sleeper;
+import com.qa.framework.pagefactory.wait.Deadline;
+import com.qa.framework.pagefactory.wait.WaitCondition;
+import com.qa.framework.pagefactory.wait.WaitEngine;
 import com.qa.framework.pagefactory.web.Element;
 import io.appium.java_client.pagefactory.WithTimeout;
 import org.apache.log4j.Logger;
@@ -19,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 
 import static com.qa.framework.pagefactory.WithTimeoutProcessor.getTimeOutOfFind;
 import static com.qa.framework.pagefactory.web.ImplementedByProcessor.getImplementClass;
+import static com.qa.framework.pagefactory.web.ImplementedByProcessor.getImplementConstructor;
 
 /**
  * Wraps a list of WebElements in multiple wrapped elements.
@@ -36,6 +41,7 @@ public class ElementListHandler implements InvocationHandler {
     private final Class<?> implementtingType;
     private final String logicParentElementName;
     private final Field field;
+    private final WaitEngine waitEngine;
     /**
      * The Logger.
      */
@@ -58,6 +64,7 @@ public class ElementListHandler implements InvocationHandler {
         this.implementtingType = getImplementClass(interfaceType);
         this.logicParentElementName = field.getName();
         this.field = field;
+        this.waitEngine = InstanceFactory.getWaitEngine();
         this.alert = new Alert(driver);
         this.sleeper = new Sleeper();
     }
@@ -74,7 +81,7 @@ public class ElementListHandler implements InvocationHandler {
     @Override
     public Object invoke(Object o, Method method, Object[] paras) throws Throwable {
         List<Object> wrappedElements = new ArrayList<Object>();
-        Constructor<?> cons = implementtingType.getConstructor(WebDriver.class, WebElement.class);
+        Constructor<?> cons = getImplementConstructor(implementtingType);
         List<WebElement> elements = null;
         int timeout;
         if (field.isAnnotationPresent(WithTimeout.class)) {
@@ -91,13 +98,11 @@ public class ElementListHandler implements InvocationHandler {
             timeout = (int) withTimeout.time() * unit;
         } else {
             timeout = getTimeOutOfFind(field, 1);
-            long end = System.currentTimeMillis() + timeout;
-            while (System.currentTimeMillis() < end) {
-                elements = locator.findElements();
-                if (elements != null && elements.size() > 0) {
-                    break;
-                }
-                this.sleeper.sleep(500);
+            Deadline deadline = Deadline.start(timeout);
+            try {
+                elements = waitEngine.waitFor(driver, locator, WaitCondition.PRESENT, deadline).getElements();
+            } finally {
+                deadline.end();
             }
         }
         if (elements == null) {
@@ -114,8 +119,7 @@ public class ElementListHandler implements InvocationHandler {
         try {
             if (method.getName().equals("get")) {
                 WebElement element = (WebElement) method.invoke(elements, paras);
-                Constructor<?> con = implementtingType.getConstructor(WebDriver.class, WebElement.class);
-                Object obj = con.newInstance(this.driver, element);
+                Object obj = cons.newInstance(this.driver, element);
                 InvocationHandler handler = new SubElementHandler(implementtingType.cast(obj), field, (Integer) paras[0]);
                 return Proxy.newProxyInstance(
                         this.interfaceType.getClassLoader(), new Class[]{this.interfaceType, WebElement.class, WrapsElement.class, Locatable.class}, handler);
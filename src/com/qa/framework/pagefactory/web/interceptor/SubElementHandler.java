@@ -4,6 +4,7 @@ import com.qa.framework.cache.DriverCache;
 import com.qa.framework.cache.MethodCache;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.ScreenShot;
+import com.qa.framework.common.Settler;
 import com.qa.framework.common.Sleeper;
 import com.qa.framework.common.Window;
 import com.qa.framework.pagefactory.web.Element;
@@ -26,6 +27,7 @@ public class SubElementHandler implements InvocationHandler {
     private final Alert alert;
     private final Window window;
     private final Sleeper sleeper;
+    private final Settler settler;
     private final Object element;
     private final String logicParentElementName;
     private final int num;
@@ -52,6 +54,7 @@ public class SubElementHandler implements InvocationHandler {
         this.alert = new Alert(driver);
         this.window = new Window(driver);
         this.sleeper = new Sleeper();
+        this.settler = new Settler(driver);
     }
 
     public Object invoke(Object object, Method method, Object[] paras) throws Throwable {
@@ -63,17 +66,16 @@ public class SubElementHandler implements InvocationHandler {
         try {
             if (method.getName().equals("click") || method.getName().equals("sendKeys")) {
                 wapperElement.scrollIntoView(false);
-                this.sleeper.sleep(50);
                 wapperElement.highLight();
-                this.sleeper.sleep(50);
             }
 
             if (method.getName().equals("click")) {
                 String currMethodName = MethodCache.getCurrentMethodName();
                 ScreenShot.captureAction(driver, currMethodName, logicParentElementName + "_" + num);
+                this.settler.prepare();
                 Object ret = method.invoke(element, paras);
                 logger.info(logicParentElementName + "_" + num + " click");
-                this.sleeper.sleep(500);
+                this.settler.settle();
                 if (driver.getWindowHandles().size() > previousWindowsCount) {
                     this.window.selectLastOpenedWindow();
                 }
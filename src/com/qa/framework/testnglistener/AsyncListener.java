@@ -0,0 +1,14 @@
+package com.qa.framework.testnglistener;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在 ICustomTestListener 的实现类上, 事件在该监听器自己的后台线程中按顺序执行, 不阻塞 TestNG 的测试线程
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncListener {
+}
@@ -0,0 +1,259 @@
+package com.qa.framework.testnglistener;
+
+import com.qa.framework.ioc.ClassFinder;
+import com.qa.framework.ioc.annotation.Impl;
+import org.apache.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 将测试事件分发给所有 ICustomTestListener 实现类.
+ * 实现类只查找和实例化一次(接口上标注了 Impl 时只使用指定的实现类), 按类名顺序依次分发;
+ * 标注了 {@link AsyncListener} 的监听器在自己的单线程队列中执行, 事件顺序不变.
+ */
+public class ListenerBus {
+    private static final Logger logger = Logger.getLogger(ListenerBus.class);
+    private static final List<Subscriber> subscribers = resolve();
+
+    private static List<Subscriber> resolve() {
+        List<Class<?>> classList = new ArrayList<Class<?>>();
+        if (ICustomTestListener.class.isAnnotationPresent(Impl.class)) {
+            classList.add(ICustomTestListener.class.getAnnotation(Impl.class).value());
+        } else {
+            for (Class<?> cls : ClassFinder.getClassListBySuper(ICustomTestListener.class)) {
+                if (!cls.isInterface() && !Modifier.isAbstract(cls.getModifiers())) {
+                    classList.add(cls);
+                }
+            }
+            Collections.sort(classList, new Comparator<Class<?>>() {
+                @Override
+                public int compare(Class<?> o1, Class<?> o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+        }
+        List<Subscriber> result = new ArrayList<Subscriber>();
+        for (Class<?> cls : classList) {
+            try {
+                result.add(new Subscriber((ICustomTestListener) cls.newInstance(), cls.isAnnotationPresent(AsyncListener.class)));
+                logger.info("Add test listener " + cls.getName());
+            } catch (InstantiationException | IllegalAccessException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static void publish(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.publish(event);
+        }
+    }
+
+    /**
+     * 等待异步监听器处理完已分发的事件
+     */
+    public static void flush() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.flush();
+        }
+    }
+
+    /**
+     * On test failure.
+     *
+     * @param tr the tr
+     */
+    public static void onTestFailure(final ITestResult tr) {
+        publish(new Event("onTestFailure") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onTestFailure(tr);
+            }
+        });
+    }
+
+    /**
+     * On test skipped.
+     *
+     * @param tr the tr
+     */
+    public static void onTestSkipped(final ITestResult tr) {
+        publish(new Event("onTestSkipped") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onTestSkipped(tr);
+            }
+        });
+    }
+
+    /**
+     * On test success.
+     *
+     * @param tr the tr
+     */
+    public static void onTestSuccess(final ITestResult tr) {
+        publish(new Event("onTestSuccess") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onTestSuccess(tr);
+            }
+        });
+    }
+
+    /**
+     * On test start.
+     *
+     * @param tr the tr
+     */
+    public static void onTestStart(final ITestResult tr) {
+        publish(new Event("onTestStart") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onTestStart(tr);
+            }
+        });
+    }
+
+    /**
+     * On start.
+     *
+     * @param testContext the test context
+     */
+    public static void onStart(final ITestContext testContext) {
+        publish(new Event("onStart") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onStart(testContext);
+            }
+        });
+    }
+
+    /**
+     * On start.
+     *
+     * @param iSuite the suite
+     */
+    public static void onStart(final ISuite iSuite) {
+        publish(new Event("onStart") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onStart(iSuite);
+            }
+        });
+    }
+
+    /**
+     * On finish.
+     *
+     * @param iSuite the suite
+     */
+    public static void onFinish(final ISuite iSuite) {
+        publish(new Event("onFinish") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onFinish(iSuite);
+            }
+        });
+    }
+
+    /**
+     * On finish.
+     *
+     * @param testContext the test context
+     */
+    public static void onFinish(final ITestContext testContext) {
+        publish(new Event("onFinish") {
+            @Override
+            public void fire(ICustomTestListener listener) {
+                listener.onFinish(testContext);
+            }
+        });
+    }
+
+    private static abstract class Event {
+        private final String name;
+
+        private Event(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Fire.
+         *
+         * @param listener the listener
+         */
+        public abstract void fire(ICustomTestListener listener);
+    }
+
+    private static class Subscriber {
+        private final ICustomTestListener listener;
+        private final ExecutorService executor;
+
+        private Subscriber(final ICustomTestListener listener, boolean async) {
+            this.listener = listener;
+            if (async) {
+                executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "listener-" + listener.getClass().getSimpleName());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            } else {
+                executor = null;
+            }
+        }
+
+        private void publish(final Event event) {
+            if (executor == null) {
+                dispatch(event);
+                return;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch(event);
+                }
+            });
+        }
+
+        private void dispatch(Event event) {
+            try {
+                event.fire(listener);
+            } catch (RuntimeException e) {
+                // 一个监听器出错不影响其他监听器
+                logger.error(listener.getClass().getName() + "." + event.name + " exception:" + e.toString(), e);
+            }
+        }
+
+        private void flush() {
+            if (executor == null) {
+                return;
+            }
+            try {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+}
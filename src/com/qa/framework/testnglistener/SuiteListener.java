@@ -1,11 +1,10 @@
 package com.qa.framework.testnglistener;
 
+import com.qa.framework.common.ScreenShotWriter;
 import org.apache.log4j.Logger;
 import org.testng.ISuite;
 import org.testng.ISuiteListener;
 
-import static com.qa.framework.ioc.IocHelper.findImplementClass;
-
 
 public class SuiteListener implements ISuiteListener {
     private static Logger logger = Logger.getLogger(SuiteListener.class);
@@ -14,32 +13,16 @@ public class SuiteListener implements ISuiteListener {
     public void onStart(ISuite iSuite) {
         logger.info(iSuite.getName() + " Start");
 
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onStart(iSuite);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onStart(iSuite);
     }
 
     @Override
     public void onFinish(ISuite iSuite) {
         logger.info(iSuite.getName() + " Finish");
+        ScreenShotWriter.flush();
 
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onFinish(iSuite);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onFinish(iSuite);
+        ListenerBus.flush();
     }
 }
 
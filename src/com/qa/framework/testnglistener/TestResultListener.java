@@ -9,6 +9,7 @@ import com.qa.framework.cache.MethodCache;
 import com.qa.framework.cache.ResultCache;
 import com.qa.framework.common.Alert;
 import com.qa.framework.common.ScreenShot;
+import com.qa.framework.common.ScreenShotWriter;
 import com.qa.framework.config.PropConfig;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.WebDriver;
@@ -23,8 +24,6 @@ import org.testng.TestListenerAdapter;
 import java.io.File;
 import java.util.*;
 
-import static com.qa.framework.ioc.IocHelper.findImplementClass;
-
 /**
  * Test result Listener.
  */
@@ -36,16 +35,7 @@ public class TestResultListener extends TestListenerAdapter {
     public void onStart(ITestContext testContext) {
         super.onStart(testContext);
         logger.info("testContext Start");
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onStart(testContext);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onStart(testContext);
     }
 
     @Override
@@ -63,16 +53,7 @@ public class TestResultListener extends TestListenerAdapter {
             printBrowserInfo();
             printStackTrace(tr);
         }
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onTestFailure(tr);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onTestFailure(tr);
     }
 
     @Override
@@ -86,16 +67,7 @@ public class TestResultListener extends TestListenerAdapter {
             printBrowserInfo();
             printStackTrace(tr);
         }
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onTestSkipped(tr);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onTestSkipped(tr);
     }
 
     @Override
@@ -108,17 +80,10 @@ public class TestResultListener extends TestListenerAdapter {
         if (!tb.isUnitTest()) {
             printBrowserInfo();
         }
-        IOHelper.deleteDirectory(ScreenShot.dir + File.separator + "Actions" + File.separator + ScreenShot.time + File.separator + name);
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onTestSuccess(tr);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        String actionsDir = ScreenShot.dir + File.separator + "Actions" + File.separator + ScreenShot.time + File.separator + name;
+        ScreenShotWriter.discard(actionsDir);
+        IOHelper.deleteDirectory(actionsDir);
+        ListenerBus.onTestSuccess(tr);
     }
 
     @Override
@@ -127,32 +92,14 @@ public class TestResultListener extends TestListenerAdapter {
         String name = MethodCache.getCurrentMethodName();
         logger.info(name + " Start");
         IOHelper.createNestDirectory(ScreenShot.dir + File.separator + "Actions" + File.separator + ScreenShot.time + File.separator + name);
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onTestStart(tr);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onTestStart(tr);
     }
 
     @Override
     public void onFinish(ITestContext testContext) {
         super.onFinish(testContext);
         logger.info("testContext Finish");
-        Class<?> clazz = findImplementClass(ICustomTestListener.class);
-        if (clazz != null) {
-            ICustomTestListener testListenerImp = null;
-            try {
-                testListenerImp = (ICustomTestListener) clazz.newInstance();
-                testListenerImp.onFinish(testContext);
-            } catch (InstantiationException | IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
+        ListenerBus.onFinish(testContext);
         for (ITestResult passedTest : testContext.getPassedTests().getAllResults()) {
             logger.info("PassedTests = " + passedTest.getName());
         }